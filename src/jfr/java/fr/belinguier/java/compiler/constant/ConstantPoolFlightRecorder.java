@@ -0,0 +1,128 @@
+package fr.belinguier.java.compiler.constant;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * This ConstantPoolFlightRecorder class is a {@link ConstantPoolListener} emitting JDK Flight Recorder events.<p>
+ * An event is emitted for each registered constant and each serialization, only when they are enabled in a recording,
+ * so the listener costs almost nothing otherwise.
+ * The lookups of registered constants are too frequent to be recorded, {@link ConstantPoolStatistics} counts them.<p>
+ * This class requires the jdk.jfr module, available since JDK 8u262,
+ * so it is kept out of the core library and only built by the jfr profile: mvn -P jfr install.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#setListener(ConstantPoolListener)
+ */
+public class ConstantPoolFlightRecorder implements ConstantPoolListener {
+
+    /**
+     * Event emitted when a constant is registered in a constant pool.
+     * @since 1.0
+     */
+    @Name("fr.belinguier.java.compiler.ConstantRegistration")
+    @Label("Constant Registration")
+    @Category({"Java Compiler", "Constant Pool"})
+    @Description("A constant registered in a constant pool")
+    @StackTrace(false)
+    public static class RegistrationEvent extends Event {
+
+        /**
+         * The type of the registered constant.
+         * @since 1.0
+         */
+        @Label("Constant Type")
+        public String constantType;
+
+        /**
+         * The index of the registered constant.
+         * @since 1.0
+         */
+        @Label("Index")
+        public int index;
+
+        /**
+         * The size of the registered constant once serialized.
+         * @since 1.0
+         */
+        @Label("Size")
+        @DataAmount
+        public int size;
+
+        /**
+         * Whether the constant is loadable but registered too high to be loaded by an ldc instruction.
+         * @since 1.0
+         */
+        @Label("Wide Load")
+        public boolean wideLoad;
+
+    }
+
+    /**
+     * Event emitted when a constant pool has been serialized.
+     * @since 1.0
+     */
+    @Name("fr.belinguier.java.compiler.ConstantPoolSerialization")
+    @Label("Constant Pool Serialization")
+    @Category({"Java Compiler", "Constant Pool"})
+    @Description("A constant pool serialized in bytecode")
+    public static class SerializationEvent extends Event {
+
+        /**
+         * The constant_pool_count item of the serialized constant pool.
+         * @since 1.0
+         */
+        @Label("Count")
+        public int count;
+
+        /**
+         * The number of bytes written.
+         * @since 1.0
+         */
+        @Label("Size")
+        @DataAmount
+        public int size;
+
+        /**
+         * The time spent in the serialization.
+         * @since 1.0
+         */
+        @Label("Serialization Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long time;
+
+    }
+
+    @Override
+    public void registered(ConstantPool constantPool, Constant constant, int index) {
+        final RegistrationEvent event = new RegistrationEvent();
+
+        if (!event.isEnabled())
+            return;
+        event.constantType = constant.getConstantType().name();
+        event.index = index;
+        event.size = constant.serializedSize();
+        event.wideLoad = index > LdcLayout.MAX_LDC_INDEX && ConstantPool.isLoadedByLdc(constant);
+        event.commit();
+    }
+
+    @Override
+    public void serialized(ConstantPool constantPool, int size, long nanos) {
+        final SerializationEvent event = new SerializationEvent();
+
+        if (!event.isEnabled())
+            return;
+        event.count = constantPool.getCount();
+        event.size = size;
+        event.time = nanos;
+        event.commit();
+    }
+
+}
@@ -0,0 +1,50 @@
+package fr.belinguier.java.compiler.constant;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantPoolFlightRecorder {
+
+    @Test
+    public void testEvents() throws Exception {
+        final ConstantPool constantPool = new ConstantPool();
+        final File file = File.createTempFile("TestConstantPoolFlightRecorder", ".jfr");
+        final List<RecordedEvent> events;
+        int registrations = 0;
+        int serializations = 0;
+
+        file.deleteOnExit();
+        constantPool.setListener(new ConstantPoolFlightRecorder());
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(4)), 1);
+        try (Recording recording = new Recording()) {
+            recording.enable(ConstantPoolFlightRecorder.RegistrationEvent.class);
+            recording.enable(ConstantPoolFlightRecorder.SerializationEvent.class);
+            recording.start();
+            assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 2);
+            constantPool.serialize();
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        events = RecordingFile.readAllEvents(file.toPath());
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().endsWith("ConstantRegistration")) {
+                registrations++;
+                assertFalse(event.getBoolean("wideLoad"));
+            } else if (event.getEventType().getName().endsWith("ConstantPoolSerialization")) {
+                serializations++;
+                assertEquals(event.getInt("count"), 4);
+                assertEquals(event.getInt("size"), constantPool.serializedSize());
+            }
+        }
+        assertEquals(registrations, 2);
+        assertEquals(serializations, 1);
+    }
+
+}
@@ -0,0 +1,108 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the creation, the hashing, the comparison and the serialization of each {@link Constant} subclass.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstantBenchmark {
+
+    @Param({
+            "UTF_8", "INTEGER", "FLOAT", "LONG", "DOUBLE", "CLASS", "STRING",
+            "FIELD_REF", "METHOD_REF", "INTERFACE_METHOD_REF", "NAME_AND_TYPE", "METHOD_TYPE"
+    })
+    public ConstantType constantType;
+
+    private Constant constant;
+
+    private Constant equalConstant;
+
+    private ConstantPool constantPool;
+
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        this.constant = create();
+        this.equalConstant = create();
+        this.constantPool = new ConstantPool();
+        this.constantPool.registerAll(this.constant);
+        this.buffer = ByteBuffer.allocate(this.constant.serializedSize());
+    }
+
+    private Constant create() {
+        switch (this.constantType) {
+            case UTF_8:
+                return new ConstantUtf8("java/lang/invoke/MethodHandles$Lookup");
+            case INTEGER:
+                return new ConstantInteger(0xCAFE);
+            case FLOAT:
+                return new ConstantFloat(3.14f);
+            case LONG:
+                return new ConstantLong(0xCAFEBABEL);
+            case DOUBLE:
+                return new ConstantDouble(Math.E);
+            case CLASS:
+                return new ConstantClass("java/lang/Object");
+            case STRING:
+                return new ConstantString("Hello, World!");
+            case FIELD_REF:
+                return new ConstantFieldRef("java/lang/System", "out", "Ljava/io/PrintStream;");
+            case METHOD_REF:
+                return new ConstantMethodRef("java/io/PrintStream", "println", "(Ljava/lang/String;)V");
+            case INTERFACE_METHOD_REF:
+                return new ConstantInterfaceMethodRef("java/util/List", "size", "()I");
+            case NAME_AND_TYPE:
+                return new ConstantNameAndType("<init>", "()V");
+            case METHOD_TYPE:
+                return new ConstantMethodType("(Ljava/lang/Object;)Z");
+            default:
+                throw new IllegalStateException("Unsupported constant type " + this.constantType + '.');
+        }
+    }
+
+    @Benchmark
+    public Constant construct() {
+        return create();
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return this.constant.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOf() {
+        return this.constant.equals(this.equalConstant);
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        this.buffer.clear();
+        this.constant.serialize(this.constantPool, this.buffer);
+        return this.buffer;
+    }
+
+}
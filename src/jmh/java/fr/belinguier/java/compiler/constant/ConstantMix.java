@@ -0,0 +1,76 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.util.ArrayList;
+
+/**
+ * This ConstantMix class creates constants in proportions close to the ones of the constant pool of real classes.<p>
+ * Most entries come from method and field references, sharing a few owner classes, then strings and numbers.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ */
+final class ConstantMix {
+
+    private ConstantMix() {
+    }
+
+    /**
+     * Create the constant at a position of the mix.
+     * @param i The position of the constant.
+     * @return The new constant.
+     * @since 1.0
+     */
+    static Constant get(int i) {
+        switch (i % 16) {
+            case 0:
+            case 1:
+            case 2:
+            case 3:
+                return new ConstantMethodRef("fr/belinguier/Owner" + (i % 97), "method" + i, "(ILjava/lang/String;)V");
+            case 4:
+                return new ConstantInterfaceMethodRef("java/util/List", "method" + i, "()Ljava/lang/Object;");
+            case 5:
+            case 6:
+                return new ConstantFieldRef("fr/belinguier/Owner" + (i % 97), "field" + i, "I");
+            case 7:
+            case 8:
+                return new ConstantString("Message number " + i + " - état");
+            case 9:
+                return new ConstantClass("fr/belinguier/Type" + i);
+            case 10:
+                return new ConstantInteger(i * 31);
+            case 11:
+                return new ConstantFloat(i / 7f);
+            case 12:
+                return new ConstantLong(i * 1000003L);
+            case 13:
+                return new ConstantDouble(i / 3d);
+            case 14:
+                return new ConstantMethodType("(J)L" + "fr/belinguier/Type" + (i % 13) + ';');
+            default:
+                return new ConstantUtf8("LocalVariable" + i);
+        }
+    }
+
+    /**
+     * Create the first constants of the mix whose pool, resolved, fits in a number of entries.
+     * @param entries The maximum number of entries of the pool.
+     * @return The constants, in registration order.
+     * @since 1.0
+     */
+    static Constant[] create(int entries) {
+        final ConstantPool constantPool = new ConstantPool();
+        final ArrayList<Constant> constants = new ArrayList<Constant>();
+        Constant constant;
+
+        for (int i = 0; ; i++) {
+            constant = get(i);
+            constantPool.registerAll(constant);
+            if (constantPool.getCount() - 1 > entries)
+                break;
+            constants.add(constant);
+        }
+        return constants.toArray(new Constant[0]);
+    }
+
+}
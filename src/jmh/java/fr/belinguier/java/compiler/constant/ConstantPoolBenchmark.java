@@ -0,0 +1,111 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the lookups, the registration and the serialization of a {@link ConstantPool},
+ * for pools from 10 to 65000 entries.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstantPoolBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "65000"})
+    public int entries;
+
+    private Constant[] constants;
+
+    private Constant[] equalConstants;
+
+    private ConstantPool constantPool;
+
+    private FrozenConstantPool frozenConstantPool;
+
+    private ByteBuffer buffer;
+
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        this.constants = ConstantMix.create(this.entries);
+        this.equalConstants = new Constant[this.constants.length];
+        for (int i = 0; i < this.constants.length; i++)
+            this.equalConstants[i] = ConstantMix.get(i);
+        this.constantPool = new ConstantPool();
+        this.constantPool.registerAll(this.constants);
+        this.frozenConstantPool = this.constantPool.freeze();
+        this.buffer = ByteBuffer.allocate(this.constantPool.serializedSize());
+        this.cursor = 0;
+    }
+
+    private Constant next() {
+        if (++this.cursor == this.equalConstants.length)
+            this.cursor = 0;
+        return this.equalConstants[this.cursor];
+    }
+
+    @Benchmark
+    public short getOrRegisterHit() {
+        return this.constantPool.getOrRegister(next());
+    }
+
+    @Benchmark
+    public short indexOf() {
+        return this.constantPool.indexOf(next());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConstantPool getOrRegisterAll() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        for (Constant constant : this.constants)
+            constantPool.getOrRegister(constant);
+        constantPool.resolve();
+        return constantPool;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConstantPool registerAll() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        constantPool.registerAll(this.constants);
+        return constantPool;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ByteBuffer serialize() {
+        this.buffer.clear();
+        this.constantPool.serialize(this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeFrozen() {
+        return this.frozenConstantPool.serialize();
+    }
+
+}
@@ -0,0 +1,79 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the encoding and the decoding of {@link ConstantUtf8}, for ASCII and non-ASCII strings.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstantUtf8Benchmark {
+
+    @Param({"8", "64", "1024"})
+    public int length;
+
+    @Param({"ascii", "latin", "cjk"})
+    public String alphabet;
+
+    private String string;
+
+    private ConstantUtf8 constant;
+
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        final StringBuilder builder = new StringBuilder(this.length);
+        final String characters;
+
+        if (this.alphabet.equals("latin"))
+            characters = "àéèêëîïôùûüç";
+        else if (this.alphabet.equals("cjk"))
+            characters = "常量池类文件编码";
+        else
+            characters = "abcdefghijklmnopqrstuvwxyz/$";
+        for (int i = 0; i < this.length; i++)
+            builder.append(characters.charAt(i % characters.length()));
+        this.string = builder.toString();
+        this.constant = new ConstantUtf8(this.string);
+        this.buffer = ByteBuffer.allocate(this.constant.serializedSize());
+    }
+
+    @Benchmark
+    public ConstantUtf8 encode() {
+        return new ConstantUtf8(this.string);
+    }
+
+    @Benchmark
+    public String decode() {
+        return this.constant.getString();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        this.buffer.clear();
+        this.constant.serialize(null, this.buffer);
+        return this.buffer;
+    }
+
+}
@@ -1,8 +1,9 @@
 package fr.belinguier.java.compiler;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * @author Eliott Belinguier
@@ -16,25 +17,55 @@ public interface Serializable {
      * @param out The byte stream.
      * @since 1.0
      * @see DataOutputStream
-     * @see ByteArrayOutputStream
      */
     void serialize(final DataOutputStream out) throws IOException;
 
+    /**
+     * This function allows you to serialize an object in the given byte buffer, heap or direct.<p>
+     * The bytes are written from the current position of the buffer, which is moved forward.
+     * @param out The byte buffer.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     * @since 1.0
+     * @see ByteBuffer
+     */
+    void serialize(final ByteBuffer out);
+
+    /**
+     * Compute the exact number of bytes that this object produces once serialized, without serializing it.
+     * @return The size of this object serialized in bytecode.
+     * @since 1.0
+     */
+    int serializedSize();
+
+    /**
+     * This function allows you to serialize an object in the given channel.
+     * @param channel The channel, for example a {@link java.nio.channels.FileChannel}.
+     * @since 1.0
+     * @see WritableByteChannel
+     */
+    default void serialize(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer;
+
+        if (channel == null)
+            return;
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(buffer);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
     /**
      * Get the bytecode of this {@link Object}.
      * @return This {@link Object} serialized in bytecode.
      * @since 1.0
      */
     default byte[] serialize() {
-        final ByteArrayOutputStream arrayOutputStream;
-
-        arrayOutputStream = new ByteArrayOutputStream();
-        try {
-            serialize(new DataOutputStream(arrayOutputStream));
-        } catch (IOException ignored) {
-            return null;
-        }
-        return arrayOutputStream.toByteArray();
+        final ByteBuffer buffer;
+
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(buffer);
+        return buffer.array();
     }
 
 }
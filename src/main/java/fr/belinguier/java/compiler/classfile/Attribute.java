@@ -0,0 +1,100 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+import fr.belinguier.java.compiler.constant.ConstantSerializable;
+import fr.belinguier.java.compiler.constant.ConstantUtf8;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This Attribute class represents an attribute of a class, a field or a method in the structure of the ClassFile.<p>
+ * An attribute is made of its name, registered in the {@link ConstantPool}, and of its info,
+ * whose length must be known before it is written, so that the whole class file can be written in a presized buffer.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ClassWriter
+ * @see MemberInfo
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.7">Attributes in ClassFile's structure</a>
+ */
+public abstract class Attribute implements ConstantSerializable {
+
+    /**
+     * This field contains the name of the attribute.
+     * @since 1.0
+     */
+    private final ConstantUtf8 name;
+
+    /**
+     * Initializes a newly created attribute.
+     * @param name The name of the attribute.
+     * @since 1.0
+     */
+    protected Attribute(String name) {
+        if (name == null)
+            throw new NullPointerException("An attribute must have a name.");
+        this.name = new ConstantUtf8(name);
+    }
+
+    /**
+     * Returns the name of the attribute.
+     * @return The constant of the name.
+     * @since 1.0
+     */
+    public ConstantUtf8 getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the attribute_length item of the attribute, which is the number of bytes of its info.
+     * @return The length of the info of the attribute.
+     * @since 1.0
+     */
+    public abstract int getLength();
+
+    /**
+     * Register in the constant pool the name of the attribute and all the constants referenced by its info.<p>
+     * An attribute that refers to constants must override it, so that they all have an index once the pool is written.
+     * @param constantPool The constant pool in which the constants are registered.
+     * @since 1.0
+     */
+    protected void resolve(final ConstantPool constantPool) {
+        constantPool.getOrRegister(this.name);
+    }
+
+    /**
+     * Serialize the info of the attribute, which must take exactly {@link #getLength()} bytes.
+     * @param constantPool The constant pool holding the constants referenced by the info.
+     * @param out The byte buffer.
+     * @since 1.0
+     */
+    protected abstract void serializeInfo(final ConstantPool constantPool, final ByteBuffer out);
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        final ByteBuffer buffer;
+
+        if (constantPool == null || out == null)
+            return;
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(constantPool, buffer);
+        out.write(buffer.array());
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        out.putShort(constantPool.getOrRegister(this.name));
+        out.putInt(getLength());
+        serializeInfo(constantPool, out);
+    }
+
+    @Override
+    public int serializedSize() {
+        return 6 + getLength();
+    }
+
+}
@@ -0,0 +1,367 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.JavaVersion;
+import fr.belinguier.java.compiler.Serializable;
+import fr.belinguier.java.compiler.constant.ConstantClass;
+import fr.belinguier.java.compiler.constant.ConstantPool;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+/**
+ * This ClassWriter class writes a complete class file: its version, its constant pool, its access flags,
+ * its class and its super class, its interfaces, its fields, its methods and its attributes.<p>
+ * All the constants referenced by the class are registered in the {@link ConstantPool} first,
+ * so that the exact size of the class file is known, and it is then written in a single pass
+ * into a buffer allocated with this size.
+ * The BootstrapMethods attribute is added after the other attributes of the class
+ * when the constant pool holds bootstrap methods.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool
+ * @see MemberInfo
+ * @see Attribute
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.1">ClassFile structure</a>
+ */
+public class ClassWriter implements Serializable {
+
+    /**
+     * The magic item identifying the class file format.
+     * @since 1.0
+     */
+    public static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Internal name of the only class without super class.
+     * @since 1.0
+     */
+    private static final String OBJECT = "java/lang/Object";
+
+    /**
+     * This field contains the Java version of the class file, giving its major version.
+     * @since 1.0
+     */
+    private final JavaVersion version;
+
+    /**
+     * This field contains the constant pool of the class file.
+     * @since 1.0
+     */
+    private final ConstantPool constantPool;
+
+    /**
+     * This field contains the access flags of the class.
+     * @since 1.0
+     */
+    private final int accessFlags;
+
+    /**
+     * This field contains the constant of the class.
+     * @since 1.0
+     */
+    private final ConstantClass thisClass;
+
+    /**
+     * This field contains the constant of the super class, or null if the class is java/lang/Object itself.
+     * @since 1.0
+     */
+    private final ConstantClass superClass;
+
+    /**
+     * List of the constants of the direct superinterfaces of the class.
+     * @since 1.0
+     */
+    private final ArrayList<ConstantClass> interfaces;
+
+    /**
+     * List of the fields of the class, in the order they are written.
+     * @since 1.0
+     */
+    private final ArrayList<MemberInfo> fields;
+
+    /**
+     * List of the methods of the class, in the order they are written.
+     * @since 1.0
+     */
+    private final ArrayList<MemberInfo> methods;
+
+    /**
+     * List of the attributes of the class, in the order they are written.
+     * @since 1.0
+     */
+    private final ArrayList<Attribute> attributes;
+
+    /**
+     * Initializes a newly created class writer with an empty constant pool.
+     * @param version The Java version of the class file.
+     * @param accessFlags The access flags of the class, as written in the class file.
+     * @param name The internal name of the class.
+     * @param superName The internal name of the super class, which is null only if the class is java/lang/Object.
+     * @param interfaces The internal names of the direct superinterfaces of the class.
+     * @throws IllegalArgumentException If the super class is null for a class other than java/lang/Object.
+     * @since 1.0
+     */
+    public ClassWriter(JavaVersion version, int accessFlags, String name, String superName, String... interfaces) {
+        this(new ConstantPool(), version, accessFlags, name, superName, interfaces);
+    }
+
+    /**
+     * Initializes a newly created class writer, registering the constants of the class in the given constant pool.<p>
+     * The target version of the constant pool is set to the version of the class file.
+     * @param constantPool The constant pool of the class file, which must be able to register new constants.
+     * @param version The Java version of the class file.
+     * @param accessFlags The access flags of the class, as written in the class file.
+     * @param name The internal name of the class.
+     * @param superName The internal name of the super class, which is null only if the class is java/lang/Object.
+     * @param interfaces The internal names of the direct superinterfaces of the class.
+     * @throws IllegalArgumentException If the Java version has no class file version,
+     *                                  or if the super class is null for a class other than java/lang/Object.
+     * @since 1.0
+     * @see ConstantPool#setTargetVersion(JavaVersion)
+     */
+    public ClassWriter(ConstantPool constantPool, JavaVersion version, int accessFlags, String name, String superName,
+                       String... interfaces) {
+        if (constantPool == null || version == null || name == null)
+            throw new NullPointerException("A class file must have a constant pool, a version and a name.");
+        if (version.byteCode < JavaVersion.JAVA_1_1.byteCode)
+            throw new IllegalArgumentException("There is no class file version for " + version + '.');
+        if (superName == null && !name.equals(OBJECT))
+            throw new IllegalArgumentException("Only " + OBJECT + " has no super class, not " + name + '.');
+        this.version = version;
+        this.constantPool = constantPool;
+        this.accessFlags = accessFlags & 0xFFFF;
+        this.thisClass = new ConstantClass(name);
+        this.superClass = (superName != null) ? new ConstantClass(superName) : null;
+        this.interfaces = new ArrayList<ConstantClass>();
+        this.fields = new ArrayList<MemberInfo>();
+        this.methods = new ArrayList<MemberInfo>();
+        this.attributes = new ArrayList<Attribute>();
+        if (interfaces != null)
+            for (String interfaceName : interfaces)
+                this.interfaces.add(new ConstantClass(interfaceName));
+        constantPool.setTargetVersion(version);
+    }
+
+    /**
+     * Returns the Java version of the class file.
+     * @return The Java version.
+     * @since 1.0
+     */
+    public JavaVersion getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the constant pool of the class file.
+     * @return The constant pool.
+     * @since 1.0
+     */
+    public ConstantPool getConstantPool() {
+        return this.constantPool;
+    }
+
+    /**
+     * Returns the access flags of the class.
+     * @return The access flags.
+     * @since 1.0
+     */
+    public int getAccessFlags() {
+        return this.accessFlags;
+    }
+
+    /**
+     * Returns the constant of the class.
+     * @return The constant of the class.
+     * @since 1.0
+     */
+    public ConstantClass getThisClass() {
+        return this.thisClass;
+    }
+
+    /**
+     * Returns the constant of the super class.
+     * @return The constant of the super class, or null if the class is java/lang/Object itself.
+     * @since 1.0
+     */
+    public ConstantClass getSuperClass() {
+        return this.superClass;
+    }
+
+    /**
+     * Add a field to the class, after the fields already added.
+     * @param accessFlags The access flags of the field.
+     * @param name The name of the field.
+     * @param descriptor The field descriptor of the field.
+     * @return The field, to which attributes can be added.
+     * @since 1.0
+     */
+    public MemberInfo addField(int accessFlags, String name, String descriptor) {
+        final MemberInfo field = new MemberInfo(accessFlags, name, descriptor);
+
+        this.fields.add(field);
+        return field;
+    }
+
+    /**
+     * Add a method to the class, after the methods already added.
+     * @param accessFlags The access flags of the method.
+     * @param name The name of the method.
+     * @param descriptor The method descriptor of the method.
+     * @return The method, to which attributes can be added.
+     * @since 1.0
+     */
+    public MemberInfo addMethod(int accessFlags, String name, String descriptor) {
+        final MemberInfo method = new MemberInfo(accessFlags, name, descriptor);
+
+        this.methods.add(method);
+        return method;
+    }
+
+    /**
+     * Add an attribute to the class, after the attributes already added.
+     * @param attribute The attribute.
+     * @return This class writer.
+     * @since 1.0
+     */
+    public ClassWriter addAttribute(Attribute attribute) {
+        if (attribute == null)
+            throw new NullPointerException("Cannot add a null attribute.");
+        this.attributes.add(attribute);
+        return this;
+    }
+
+    /**
+     * Returns the fields of the class.
+     * @return The fields, in the order they are written.
+     * @since 1.0
+     */
+    public MemberInfo[] getFields() {
+        return this.fields.toArray(new MemberInfo[0]);
+    }
+
+    /**
+     * Returns the methods of the class.
+     * @return The methods, in the order they are written.
+     * @since 1.0
+     */
+    public MemberInfo[] getMethods() {
+        return this.methods.toArray(new MemberInfo[0]);
+    }
+
+    /**
+     * Register in the constant pool all the constants referenced by the class, its members and its attributes,
+     * and the ones they reference in turn.<p>
+     * It is called before computing the size of the class file or writing it,
+     * so that the constant pool is complete and does not grow while it is written.
+     * @since 1.0
+     * @see ConstantPool#resolve()
+     */
+    public void resolve() {
+        this.constantPool.getOrRegister(this.thisClass);
+        if (this.superClass != null)
+            this.constantPool.getOrRegister(this.superClass);
+        for (ConstantClass interfaceClass : this.interfaces)
+            this.constantPool.getOrRegister(interfaceClass);
+        for (MemberInfo field : this.fields)
+            field.resolve(this.constantPool);
+        for (MemberInfo method : this.methods)
+            method.resolve(this.constantPool);
+        for (Attribute attribute : this.attributes)
+            attribute.resolve(this.constantPool);
+        this.constantPool.resolve();
+    }
+
+    /**
+     * {@inheritDoc}<p>
+     * The class file is written in a buffer of its exact size, which is then written to the stream at once.
+     * @throws IllegalStateException If a constant is not supported by the version of the class file.
+     */
+    @Override
+    public void serialize(final DataOutputStream out) throws IOException {
+        final ByteBuffer buffer;
+
+        if (out == null)
+            return;
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(buffer);
+        out.write(buffer.array());
+    }
+
+    /**
+     * {@inheritDoc}<p>
+     * The class file is written in big-endian byte order, whatever the order of the buffer, which is then restored.
+     * @throws IllegalStateException If a constant is not supported by the version of the class file.
+     */
+    @Override
+    public void serialize(final ByteBuffer out) {
+        final ByteOrder order;
+
+        if (out == null)
+            return;
+        resolve();
+        order = out.order();
+        out.order(ByteOrder.BIG_ENDIAN);
+        try {
+            serializeClassFile(out);
+        } finally {
+            out.order(order);
+        }
+    }
+
+    /**
+     * Write the class file in a buffer in big-endian byte order, once all its constants are registered.
+     * @param out The byte buffer.
+     * @since 1.0
+     */
+    private void serializeClassFile(final ByteBuffer out) {
+        final int bootstrapMethodsSize = this.constantPool.bootstrapMethodsSize();
+
+        out.putInt(MAGIC);
+        out.putShort((short) 0);
+        out.putShort(this.version.byteCode);
+        this.constantPool.serialize(out);
+        out.putShort((short) this.accessFlags);
+        out.putShort(this.constantPool.getOrRegister(this.thisClass));
+        out.putShort((this.superClass != null) ? this.constantPool.getOrRegister(this.superClass) : (short) 0);
+        out.putShort((short) this.interfaces.size());
+        for (ConstantClass interfaceClass : this.interfaces)
+            out.putShort(this.constantPool.getOrRegister(interfaceClass));
+        out.putShort((short) this.fields.size());
+        for (MemberInfo field : this.fields)
+            field.serialize(this.constantPool, out);
+        out.putShort((short) this.methods.size());
+        for (MemberInfo method : this.methods)
+            method.serialize(this.constantPool, out);
+        out.putShort((short) (this.attributes.size() + ((bootstrapMethodsSize != 0) ? 1 : 0)));
+        for (Attribute attribute : this.attributes)
+            attribute.serialize(this.constantPool, out);
+        if (bootstrapMethodsSize != 0)
+            this.constantPool.serializeBootstrapMethods(out);
+    }
+
+    /**
+     * Compute the exact number of bytes of the class file, registering first all the constants it references.
+     * @return The size of the class file.
+     * @since 1.0
+     * @see #resolve()
+     */
+    @Override
+    public int serializedSize() {
+        int size = 22 + 2 * this.interfaces.size();
+
+        resolve();
+        size += this.constantPool.serializedSize();
+        for (MemberInfo field : this.fields)
+            size += field.serializedSize();
+        for (MemberInfo method : this.methods)
+            size += method.serializedSize();
+        for (Attribute attribute : this.attributes)
+            size += attribute.serializedSize();
+        return size + this.constantPool.bootstrapMethodsSize();
+    }
+
+}
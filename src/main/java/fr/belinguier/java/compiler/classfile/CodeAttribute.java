@@ -0,0 +1,132 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This Attribute class represents the Code attribute of a method, holding its bytecode.<p>
+ * The attribute has no exception table and no attributes of its own.
+ * The operands of the bytecode refer to the indexes of the {@link ConstantPool},
+ * which must not change until the class file is written.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see CodeBuilder#build()
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.7.3">Code attribute in ClassFile's structure</a>
+ */
+public class CodeAttribute extends Attribute {
+
+    /**
+     * Maximum number of bytes of the bytecode of a method.
+     * @since 1.0
+     */
+    public static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    /**
+     * Highest value of the max_stack and max_locals items, which are unsigned 2-byte values.
+     * @since 1.0
+     */
+    public static final int MAX_SLOTS = 0xFFFF;
+
+    /**
+     * This field contains the maximum depth of the operand stack of the method.
+     * @since 1.0
+     */
+    private final int maxStack;
+
+    /**
+     * This field contains the number of local variable slots of the method, parameters included.
+     * @since 1.0
+     */
+    private final int maxLocals;
+
+    /**
+     * This field contains the bytecode of the method.
+     * @since 1.0
+     */
+    private final byte[] code;
+
+    /**
+     * Initializes a newly created Code attribute.
+     * @param maxStack The maximum depth of the operand stack.
+     * @param maxLocals The number of local variable slots, parameters included.
+     * @param code The bytecode, which is copied.
+     * @throws IllegalArgumentException If the bytecode is empty or longer than {@link #MAX_CODE_LENGTH} bytes,
+     *                                  or if the stack depth or the number of slots is out of 0 to {@link #MAX_SLOTS}.
+     * @since 1.0
+     */
+    public CodeAttribute(int maxStack, int maxLocals, byte[] code) {
+        this(maxStack, maxLocals, code, code.length);
+    }
+
+    /**
+     * Initializes a newly created Code attribute from the beginning of an array.
+     * @param maxStack The maximum depth of the operand stack.
+     * @param maxLocals The number of local variable slots, parameters included.
+     * @param code The array holding the bytecode, which is copied.
+     * @param length The number of bytes of the bytecode.
+     * @throws IllegalArgumentException If the bytecode is empty or longer than {@link #MAX_CODE_LENGTH} bytes,
+     *                                  or if the stack depth or the number of slots is out of 0 to {@link #MAX_SLOTS}.
+     * @since 1.0
+     */
+    CodeAttribute(int maxStack, int maxLocals, byte[] code, int length) {
+        super("Code");
+        if (length <= 0 || length > MAX_CODE_LENGTH)
+            throw new IllegalArgumentException("The bytecode of a method must take from 1 to " + MAX_CODE_LENGTH
+                    + " bytes, not " + length + '.');
+        if (maxStack < 0 || maxStack > MAX_SLOTS)
+            throw new IllegalArgumentException("The operand stack of a method must be from 0 to " + MAX_SLOTS
+                    + " deep, not " + maxStack + '.');
+        if (maxLocals < 0 || maxLocals > MAX_SLOTS)
+            throw new IllegalArgumentException("A method must have from 0 to " + MAX_SLOTS
+                    + " local variable slots, not " + maxLocals + '.');
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+        this.code = Arrays.copyOf(code, length);
+    }
+
+    /**
+     * Returns the maximum depth of the operand stack of the method.
+     * @return The max_stack item.
+     * @since 1.0
+     */
+    public int getMaxStack() {
+        return this.maxStack;
+    }
+
+    /**
+     * Returns the number of local variable slots of the method, parameters included.
+     * @return The max_locals item.
+     * @since 1.0
+     */
+    public int getMaxLocals() {
+        return this.maxLocals;
+    }
+
+    /**
+     * Returns the bytecode of the method.
+     * @return A copy of the bytecode.
+     * @since 1.0
+     */
+    public byte[] getCode() {
+        return this.code.clone();
+    }
+
+    @Override
+    public int getLength() {
+        return 12 + this.code.length;
+    }
+
+    @Override
+    protected void serializeInfo(final ConstantPool constantPool, final ByteBuffer out) {
+        out.putShort((short) this.maxStack);
+        out.putShort((short) this.maxLocals);
+        out.putInt(this.code.length);
+        out.put(this.code);
+        out.putShort((short) 0);
+        out.putShort((short) 0);
+    }
+
+}
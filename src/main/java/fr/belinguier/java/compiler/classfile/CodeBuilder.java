@@ -0,0 +1,610 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.*;
+
+import java.util.Arrays;
+
+/**
+ * This CodeBuilder class writes the bytecode of a method into a growable byte array.<p>
+ * The constants used as operands are registered in the {@link ConstantPool} with
+ * {@link ConstantPool#getOrRegister(Constant)} as the instructions are written,
+ * and the smallest encoding of each instruction is selected:
+ * the iconst, lconst, fconst and dconst instructions, bipush and sipush before a constant is loaded,
+ * ldc when the index of the constant fits in a byte, the short forms of the load and store instructions,
+ * and the wide forms only when an operand does not fit in a byte.<p>
+ * Since the selected encodings depend on the indexes of the constants,
+ * the constants must not be moved once the bytecode refers to them.
+ * The number of local variable slots is computed from the variables accessed,
+ * but the maximum depth of the operand stack must be given.<p>
+ * The builder writes straight-line code only: the branch, switch, jsr and ret instructions are rejected,
+ * since their offsets and the StackMapTable attribute that the class files of Java 7 and later
+ * require with them are not computed.
+ * Any other instruction is written with its operands, so the bytecode is never truncated.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see CodeAttribute
+ * @see Opcodes
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html">The Java Virtual Machine Instruction Set</a>
+ */
+public class CodeBuilder {
+
+    /**
+     * Initial number of bytes that the bytecode array can hold.
+     * @since 1.0
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Whether each opcode is an instruction without operand that can be written by {@link #instruction(int)}.
+     * @since 1.0
+     */
+    private static final boolean[] NO_OPERAND = new boolean[256];
+
+    static {
+        for (int opcode = Opcodes.NOP; opcode <= Opcodes.MONITOREXIT; opcode++)
+            NO_OPERAND[opcode] = true;
+        for (int opcode = Opcodes.BIPUSH; opcode < Opcodes.ILOAD_0; opcode++)
+            NO_OPERAND[opcode] = false;
+        for (int opcode = Opcodes.ISTORE; opcode < Opcodes.ISTORE_0; opcode++)
+            NO_OPERAND[opcode] = false;
+        NO_OPERAND[Opcodes.IINC] = false;
+        for (int opcode = Opcodes.IFEQ; opcode <= Opcodes.LOOKUPSWITCH; opcode++)
+            NO_OPERAND[opcode] = false;
+        for (int opcode = Opcodes.GETSTATIC; opcode <= Opcodes.ANEWARRAY; opcode++)
+            NO_OPERAND[opcode] = false;
+        NO_OPERAND[Opcodes.CHECKCAST] = false;
+        NO_OPERAND[Opcodes.INSTANCEOF] = false;
+    }
+
+    /**
+     * This field contains the constant pool of the class file.
+     * @since 1.0
+     */
+    private final ConstantPool constantPool;
+
+    /**
+     * The bytecode written so far, followed by free space.
+     * @since 1.0
+     */
+    private byte[] code;
+
+    /**
+     * Number of bytes of bytecode written.
+     * @since 1.0
+     */
+    private int length;
+
+    /**
+     * Maximum depth of the operand stack of the method.
+     * @since 1.0
+     */
+    private int maxStack;
+
+    /**
+     * Number of local variable slots of the method, parameters included.
+     * @since 1.0
+     */
+    private int maxLocals;
+
+    /**
+     * Constructs a builder of a method without parameters.
+     * @param constantPool The constant pool of the class file, which must be able to register new constants.
+     * @since 1.0
+     */
+    public CodeBuilder(ConstantPool constantPool) {
+        this(constantPool, 0);
+    }
+
+    /**
+     * Constructs a builder of a method.
+     * @param constantPool The constant pool of the class file, which must be able to register new constants.
+     * @param parameterSlots The number of local variable slots of the parameters, this included.
+     * @throws IllegalArgumentException If the number of slots is out of 0 to {@link CodeAttribute#MAX_SLOTS}.
+     * @since 1.0
+     */
+    public CodeBuilder(ConstantPool constantPool, int parameterSlots) {
+        if (constantPool == null)
+            throw new NullPointerException("A code builder must have a constant pool.");
+        if (parameterSlots < 0 || parameterSlots > CodeAttribute.MAX_SLOTS)
+            throw new IllegalArgumentException("Number of parameter slots out of range: " + parameterSlots + '.');
+        this.constantPool = constantPool;
+        this.code = new byte[INITIAL_CAPACITY];
+        this.length = 0;
+        this.maxStack = 0;
+        this.maxLocals = parameterSlots;
+    }
+
+    /**
+     * Returns the constant pool in which the operands are registered.
+     * @return The constant pool.
+     * @since 1.0
+     */
+    public ConstantPool getConstantPool() {
+        return this.constantPool;
+    }
+
+    /**
+     * Returns the number of bytes of bytecode written, which is the offset of the next instruction.
+     * @return The length of the bytecode.
+     * @since 1.0
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns the maximum depth of the operand stack of the method.
+     * @return The max_stack item.
+     * @since 1.0
+     */
+    public int getMaxStack() {
+        return this.maxStack;
+    }
+
+    /**
+     * Set the maximum depth of the operand stack of the method, {@link ConstantLong} and {@link ConstantDouble}
+     * values taking up two units.
+     * @param maxStack The max_stack item.
+     * @return This builder.
+     * @throws IllegalArgumentException If the depth is out of 0 to {@link CodeAttribute#MAX_SLOTS}.
+     * @since 1.0
+     */
+    public CodeBuilder setMaxStack(int maxStack) {
+        if (maxStack < 0 || maxStack > CodeAttribute.MAX_SLOTS)
+            throw new IllegalArgumentException("Operand stack depth out of range: " + maxStack + '.');
+        this.maxStack = maxStack;
+        return this;
+    }
+
+    /**
+     * Returns the number of local variable slots of the method, which is one more than the last slot accessed.
+     * @return The max_locals item.
+     * @since 1.0
+     */
+    public int getMaxLocals() {
+        return this.maxLocals;
+    }
+
+    /**
+     * Make room for a number of bytes at the end of the bytecode, doubling the array if needed.
+     * @param size The number of bytes to write.
+     * @since 1.0
+     */
+    private void ensureCapacity(int size) {
+        if (this.length + size > this.code.length)
+            this.code = Arrays.copyOf(this.code, Math.max(this.code.length * 2, this.length + size));
+    }
+
+    /**
+     * Write an instruction without operand, or its opcode.
+     * @param opcode The opcode.
+     * @since 1.0
+     */
+    private void put(int opcode) {
+        ensureCapacity(1);
+        this.code[this.length++] = (byte) opcode;
+    }
+
+    /**
+     * Write an instruction with a one-byte operand.
+     * @param opcode The opcode.
+     * @param operand The operand.
+     * @since 1.0
+     */
+    private void put(int opcode, int operand) {
+        ensureCapacity(2);
+        this.code[this.length++] = (byte) opcode;
+        this.code[this.length++] = (byte) operand;
+    }
+
+    /**
+     * Write an instruction with a two-byte operand.
+     * @param opcode The opcode.
+     * @param operand The operand.
+     * @since 1.0
+     */
+    private void putShort(int opcode, int operand) {
+        ensureCapacity(3);
+        this.code[this.length++] = (byte) opcode;
+        this.code[this.length++] = (byte) (operand >> 8);
+        this.code[this.length++] = (byte) operand;
+    }
+
+    /**
+     * Register a constant used as an operand.
+     * @param constant The constant.
+     * @return The index of the constant.
+     * @throws IllegalStateException If the constant pool cannot register the constant.
+     * @since 1.0
+     */
+    private int register(Constant constant) {
+        final int index;
+
+        if (constant == null)
+            throw new NullPointerException("The operand of an instruction cannot be null.");
+        index = this.constantPool.getOrRegister(constant) & 0xFFFF;
+        if (index == 0)
+            throw new IllegalStateException("The constant pool cannot register " + constant + '.');
+        return index;
+    }
+
+    /**
+     * Record that a local variable is accessed.
+     * @param type The type of the variable.
+     * @param index The first slot of the variable.
+     * @throws IllegalArgumentException If the slot is out of the range of the local variables.
+     * @since 1.0
+     */
+    private void access(VariableType type, int index) {
+        if (index < 0 || index + type.getSize() > CodeAttribute.MAX_SLOTS)
+            throw new IllegalArgumentException("Local variable index out of range: " + index + '.');
+        this.maxLocals = Math.max(this.maxLocals, index + type.getSize());
+    }
+
+    /**
+     * Write an instruction without operand, such as an arithmetic, a return or a monitor instruction.
+     * @param opcode The opcode of the instruction.
+     * @return This builder.
+     * @throws IllegalArgumentException If the opcode is unknown, or if the instruction takes operands.
+     * @since 1.0
+     * @see Opcodes
+     */
+    public CodeBuilder instruction(int opcode) {
+        if (opcode < 0 || opcode > 0xFF || !NO_OPERAND[opcode])
+            throw new IllegalArgumentException("Not an instruction without operand: " + opcode + '.');
+        put(opcode);
+        return this;
+    }
+
+    /**
+     * Push an int value, with the shortest instruction: iconst_m1 to iconst_5, bipush, sipush,
+     * and otherwise ldc or ldc_w of a {@link ConstantInteger}.
+     * @param value The value.
+     * @return This builder.
+     * @since 1.0
+     */
+    public CodeBuilder pushInt(int value) {
+        if (value >= -1 && value <= 5)
+            put(Opcodes.ICONST_0 + value);
+        else if (value == (byte) value)
+            put(Opcodes.BIPUSH, value);
+        else if (value == (short) value)
+            putShort(Opcodes.SIPUSH, value);
+        else
+            ldc(new ConstantInteger(value));
+        return this;
+    }
+
+    /**
+     * Push a long value, with lconst_0 or lconst_1, and otherwise ldc2_w of a {@link ConstantLong}.
+     * @param value The value.
+     * @return This builder.
+     * @since 1.0
+     */
+    public CodeBuilder pushLong(long value) {
+        if (value == 0L || value == 1L)
+            put(Opcodes.LCONST_0 + (int) value);
+        else
+            ldc(new ConstantLong(value));
+        return this;
+    }
+
+    /**
+     * Push a float value, with fconst_0 to fconst_2, and otherwise ldc or ldc_w of a {@link ConstantFloat}.<p>
+     * The negative zero is loaded from the constant pool, since fconst_0 pushes a positive zero.
+     * @param value The value.
+     * @return This builder.
+     * @since 1.0
+     */
+    public CodeBuilder pushFloat(float value) {
+        if (Float.floatToRawIntBits(value) == 0)
+            put(Opcodes.FCONST_0);
+        else if (value == 1.0F || value == 2.0F)
+            put(Opcodes.FCONST_0 + (int) value);
+        else
+            ldc(new ConstantFloat(value));
+        return this;
+    }
+
+    /**
+     * Push a double value, with dconst_0 or dconst_1, and otherwise ldc2_w of a {@link ConstantDouble}.<p>
+     * The negative zero is loaded from the constant pool, since dconst_0 pushes a positive zero.
+     * @param value The value.
+     * @return This builder.
+     * @since 1.0
+     */
+    public CodeBuilder pushDouble(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L)
+            put(Opcodes.DCONST_0);
+        else if (value == 1.0)
+            put(Opcodes.DCONST_0 + 1);
+        else
+            ldc(new ConstantDouble(value));
+        return this;
+    }
+
+    /**
+     * Push a constant from the constant pool.<p>
+     * A {@link ConstantLong}, a {@link ConstantDouble} or a {@link ConstantDynamic} of type long or double
+     * is loaded by ldc2_w, and the other constants by ldc when their index fits in a byte, or by ldc_w.
+     * @param constant The constant to load.
+     * @return This builder.
+     * @throws IllegalArgumentException If the constant cannot be loaded on the operand stack.
+     * @since 1.0
+     * @see ConstantType#isLoadable()
+     * @see ConstantPool#layoutLoadableConstants(int[])
+     */
+    public CodeBuilder ldc(Constant constant) {
+        final int index;
+
+        if (constant instanceof ConstantLong || constant instanceof ConstantDouble
+                || (constant instanceof ConstantDynamic && ((ConstantDynamic) constant).isWideValue())) {
+            putShort(Opcodes.LDC2_W, register(constant));
+            return this;
+        }
+        if (constant != null && !constant.getConstantType().isLoadable())
+            throw new IllegalArgumentException("A constant of type " + constant.getConstantType() + " cannot be loaded.");
+        index = register(constant);
+        if (index <= 0xFF)
+            put(Opcodes.LDC, index);
+        else
+            putShort(Opcodes.LDC_W, index);
+        return this;
+    }
+
+    /**
+     * Write a load or a store instruction, with its short form for the first four slots,
+     * and its wide form when the slot does not fit in a byte.
+     * @param shortOpcode The opcode of the short form of the first slot for the type.
+     * @param opcode The opcode of the instruction for the type.
+     * @param index The slot of the variable.
+     * @since 1.0
+     */
+    private void variableInstruction(int shortOpcode, int opcode, int index) {
+        if (index <= 3) {
+            put(shortOpcode + index);
+        } else if (index <= 0xFF) {
+            put(opcode, index);
+        } else {
+            put(Opcodes.WIDE);
+            putShort(opcode, index);
+        }
+    }
+
+    /**
+     * Push a local variable.
+     * @param type The type of the variable.
+     * @param index The first slot of the variable.
+     * @return This builder.
+     * @throws IllegalArgumentException If the slot is out of the range of the local variables.
+     * @since 1.0
+     */
+    public CodeBuilder load(VariableType type, int index) {
+        access(type, index);
+        variableInstruction(Opcodes.ILOAD_0 + 4 * type.ordinal(), Opcodes.ILOAD + type.ordinal(), index);
+        return this;
+    }
+
+    /**
+     * Pop a value into a local variable.
+     * @param type The type of the variable.
+     * @param index The first slot of the variable.
+     * @return This builder.
+     * @throws IllegalArgumentException If the slot is out of the range of the local variables.
+     * @since 1.0
+     */
+    public CodeBuilder store(VariableType type, int index) {
+        access(type, index);
+        variableInstruction(Opcodes.ISTORE_0 + 4 * type.ordinal(), Opcodes.ISTORE + type.ordinal(), index);
+        return this;
+    }
+
+    /**
+     * Increment an int local variable, with iinc, or with its wide form when the slot or the increment
+     * does not fit in a byte.
+     * @param index The slot of the variable.
+     * @param increment The signed increment.
+     * @return This builder.
+     * @throws IllegalArgumentException If the slot is out of range, or if the increment does not fit in a short.
+     * @since 1.0
+     */
+    public CodeBuilder iinc(int index, int increment) {
+        if (increment != (short) increment)
+            throw new IllegalArgumentException("The increment of iinc must fit in a short: " + increment + '.');
+        access(VariableType.INT, index);
+        if (index <= 0xFF && increment == (byte) increment) {
+            ensureCapacity(3);
+            this.code[this.length++] = (byte) Opcodes.IINC;
+            this.code[this.length++] = (byte) index;
+            this.code[this.length++] = (byte) increment;
+        } else {
+            ensureCapacity(6);
+            this.code[this.length++] = (byte) Opcodes.WIDE;
+            this.code[this.length++] = (byte) Opcodes.IINC;
+            this.code[this.length++] = (byte) (index >> 8);
+            this.code[this.length++] = (byte) index;
+            this.code[this.length++] = (byte) (increment >> 8);
+            this.code[this.length++] = (byte) increment;
+        }
+        return this;
+    }
+
+    /**
+     * Write an instruction whose operand is the index of a constant:
+     * the field, invoke, new, anewarray, checkcast and instanceof instructions.<p>
+     * The constant is checked before anything is registered or written.
+     * The count operand of invokeinterface is computed from the descriptor of the method,
+     * and the zero bytes following the operands of invokeinterface and invokedynamic are written.
+     * The constants are loaded by {@link #ldc(Constant)} and multianewarray is written by
+     * {@link #multiANewArray(ConstantClass, int)}.
+     * @param opcode The opcode of the instruction.
+     * @param constant The constant referenced by the instruction.
+     * @return This builder.
+     * @throws IllegalArgumentException If the instruction does not take a constant,
+     *                                  or cannot refer to a constant of this type,
+     *                                  or if the descriptor of the method of invokeinterface is not valid
+     *                                  or its arguments take up more than 254 slots.
+     * @since 1.0
+     * @see Opcodes
+     */
+    public CodeBuilder constantInstruction(int opcode, Constant constant) {
+        final ConstantType expected;
+        final ConstantType constantType;
+        final int count;
+        final int index;
+
+        if (constant == null)
+            throw new NullPointerException("The operand of an instruction cannot be null.");
+        constantType = constant.getConstantType();
+        switch (opcode) {
+            case Opcodes.GETSTATIC:
+            case Opcodes.PUTSTATIC:
+            case Opcodes.GETFIELD:
+            case Opcodes.PUTFIELD:
+                expected = ConstantType.FIELD_REF;
+                break;
+            case Opcodes.INVOKEVIRTUAL:
+                expected = ConstantType.METHOD_REF;
+                break;
+            case Opcodes.INVOKESPECIAL:
+            case Opcodes.INVOKESTATIC:
+                expected = (constantType == ConstantType.INTERFACE_METHOD_REF)
+                        ? ConstantType.INTERFACE_METHOD_REF : ConstantType.METHOD_REF;
+                break;
+            case Opcodes.INVOKEINTERFACE:
+                expected = ConstantType.INTERFACE_METHOD_REF;
+                break;
+            case Opcodes.INVOKEDYNAMIC:
+                expected = ConstantType.INVOKE_DYNAMIC;
+                break;
+            case Opcodes.NEW:
+            case Opcodes.ANEWARRAY:
+            case Opcodes.CHECKCAST:
+            case Opcodes.INSTANCEOF:
+                expected = ConstantType.CLASS;
+                break;
+            default:
+                throw new IllegalArgumentException("Not an instruction taking a constant: " + opcode + '.');
+        }
+        if (constantType != expected)
+            throw new IllegalArgumentException("The instruction " + opcode + " cannot refer to a constant of type "
+                    + constantType + '.');
+        count = (opcode == Opcodes.INVOKEINTERFACE) ? 1 + argumentSlots(
+                ((ConstantInterfaceMethodRef) constant).getNameAndType().getDescriptor().getString()) : 0;
+        if (count > 0xFF)
+            throw new IllegalArgumentException("The arguments of an interface method cannot take up "
+                    + (count - 1) + " slots.");
+        index = register(constant);
+        putShort(opcode, index);
+        if (opcode == Opcodes.INVOKEINTERFACE)
+            put(count, 0);
+        else if (opcode == Opcodes.INVOKEDYNAMIC)
+            put(0, 0);
+        return this;
+    }
+
+    /**
+     * Create an array of a primitive type, with the newarray instruction.
+     * @param arrayType The type of the elements, from {@link Opcodes#T_BOOLEAN} to {@link Opcodes#T_LONG}.
+     * @return This builder.
+     * @throws IllegalArgumentException If the array type is unknown.
+     * @since 1.0
+     */
+    public CodeBuilder newArray(int arrayType) {
+        if (arrayType < Opcodes.T_BOOLEAN || arrayType > Opcodes.T_LONG)
+            throw new IllegalArgumentException("Unknown array type of newarray: " + arrayType + '.');
+        put(Opcodes.NEWARRAY, arrayType);
+        return this;
+    }
+
+    /**
+     * Create a multidimensional array, with the multianewarray instruction.
+     * @param arrayClass The constant of the array class, such as [[I.
+     * @param dimensions The number of dimensions to create, from 1 to 255.
+     * @return This builder.
+     * @throws IllegalArgumentException If the number of dimensions is out of range.
+     * @since 1.0
+     */
+    public CodeBuilder multiANewArray(ConstantClass arrayClass, int dimensions) {
+        final int index;
+
+        if (dimensions < 1 || dimensions > 0xFF)
+            throw new IllegalArgumentException("multianewarray creates from 1 to 255 dimensions, not " + dimensions + '.');
+        index = register(arrayClass);
+        putShort(Opcodes.MULTIANEWARRAY, index);
+        put(dimensions);
+        return this;
+    }
+
+    /**
+     * Count the local variable slots taken up by the arguments of a method.
+     * @param descriptor The method descriptor.
+     * @return The number of slots, long and double arguments taking up two slots.
+     * @throws IllegalArgumentException If the descriptor is not a valid method descriptor.
+     * @since 1.0
+     */
+    private static int argumentSlots(String descriptor) {
+        final int end = (descriptor != null && descriptor.startsWith("(")) ? descriptor.indexOf(')') : -1;
+        int slots = 0;
+        int i = 1;
+        boolean array;
+        char c;
+
+        if (end < 0)
+            throw new IllegalArgumentException("Not a method descriptor: " + descriptor + '.');
+        while (i < end) {
+            array = false;
+            while ((c = descriptor.charAt(i)) == '[' && i < end - 1) {
+                array = true;
+                i++;
+            }
+            switch (c) {
+                case 'B':
+                case 'C':
+                case 'F':
+                case 'I':
+                case 'S':
+                case 'Z':
+                    slots++;
+                    break;
+                case 'J':
+                case 'D':
+                    slots += array ? 1 : 2;
+                    break;
+                case 'L':
+                    i = descriptor.indexOf(';', i);
+                    if (i < 0 || i > end)
+                        throw new IllegalArgumentException("Not a method descriptor: " + descriptor + '.');
+                    slots++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not a method descriptor: " + descriptor + '.');
+            }
+            i++;
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the bytecode written so far.
+     * @return A copy of the bytecode.
+     * @since 1.0
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.code, this.length);
+    }
+
+    /**
+     * Build the Code attribute of the method from the bytecode written so far.
+     * @return The Code attribute.
+     * @throws IllegalArgumentException If no bytecode was written, or if it is longer than
+     *                                  {@link CodeAttribute#MAX_CODE_LENGTH} bytes.
+     * @since 1.0
+     * @see MemberInfo#addAttribute(Attribute)
+     */
+    public CodeAttribute build() {
+        return new CodeAttribute(this.maxStack, this.maxLocals, this.code, this.length);
+    }
+
+}
@@ -0,0 +1,159 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+import fr.belinguier.java.compiler.constant.ConstantSerializable;
+import fr.belinguier.java.compiler.constant.ConstantUtf8;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * This MemberInfo class represents a field or a method in the structure of the ClassFile.<p>
+ * The field_info and method_info structures are identical:
+ * the access flags, the name and the descriptor of the member, followed by its attributes.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ClassWriter#addField(int, String, String)
+ * @see ClassWriter#addMethod(int, String, String)
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.5">Fields in ClassFile's structure</a>
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html#jvms-4.6">Methods in ClassFile's structure</a>
+ */
+public class MemberInfo implements ConstantSerializable {
+
+    /**
+     * This field contains the access flags of the member.
+     * @since 1.0
+     */
+    private final int accessFlags;
+
+    /**
+     * This field contains the name of the member.
+     * @since 1.0
+     */
+    private final ConstantUtf8 name;
+
+    /**
+     * This field contains the field or method descriptor of the member.
+     * @since 1.0
+     */
+    private final ConstantUtf8 descriptor;
+
+    /**
+     * List of the attributes of the member, in the order they are written.
+     * @since 1.0
+     */
+    private final ArrayList<Attribute> attributes;
+
+    /**
+     * Initializes a newly created member without attributes.
+     * @param accessFlags The access flags of the member, as written in the class file.
+     * @param name The name of the member.
+     * @param descriptor The field or method descriptor of the member.
+     * @since 1.0
+     */
+    public MemberInfo(int accessFlags, String name, String descriptor) {
+        if (name == null || descriptor == null)
+            throw new NullPointerException("A member must have a name and a descriptor.");
+        this.accessFlags = accessFlags & 0xFFFF;
+        this.name = new ConstantUtf8(name);
+        this.descriptor = new ConstantUtf8(descriptor);
+        this.attributes = new ArrayList<Attribute>();
+    }
+
+    /**
+     * Returns the access flags of the member.
+     * @return The access flags.
+     * @since 1.0
+     */
+    public int getAccessFlags() {
+        return this.accessFlags;
+    }
+
+    /**
+     * Returns the name of the member.
+     * @return The constant of the name.
+     * @since 1.0
+     */
+    public ConstantUtf8 getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the field or method descriptor of the member.
+     * @return The constant of the descriptor.
+     * @since 1.0
+     */
+    public ConstantUtf8 getDescriptor() {
+        return this.descriptor;
+    }
+
+    /**
+     * Add an attribute to the member, after the attributes already added.
+     * @param attribute The attribute.
+     * @return This member.
+     * @since 1.0
+     */
+    public MemberInfo addAttribute(Attribute attribute) {
+        if (attribute == null)
+            throw new NullPointerException("Cannot add a null attribute.");
+        this.attributes.add(attribute);
+        return this;
+    }
+
+    /**
+     * Returns the attributes of the member.
+     * @return The attributes, in the order they are written.
+     * @since 1.0
+     */
+    public Attribute[] getAttributes() {
+        return this.attributes.toArray(new Attribute[0]);
+    }
+
+    /**
+     * Register in the constant pool the name, the descriptor and the constants of the attributes of the member.
+     * @param constantPool The constant pool in which the constants are registered.
+     * @since 1.0
+     */
+    void resolve(final ConstantPool constantPool) {
+        constantPool.getOrRegister(this.name);
+        constantPool.getOrRegister(this.descriptor);
+        for (Attribute attribute : this.attributes)
+            attribute.resolve(constantPool);
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        final ByteBuffer buffer;
+
+        if (constantPool == null || out == null)
+            return;
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(constantPool, buffer);
+        out.write(buffer.array());
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        out.putShort((short) this.accessFlags);
+        out.putShort(constantPool.getOrRegister(this.name));
+        out.putShort(constantPool.getOrRegister(this.descriptor));
+        out.putShort((short) this.attributes.size());
+        for (Attribute attribute : this.attributes)
+            attribute.serialize(constantPool, out);
+    }
+
+    @Override
+    public int serializedSize() {
+        int size = 8;
+
+        for (Attribute attribute : this.attributes)
+            size += attribute.serializedSize();
+        return size;
+    }
+
+}
@@ -0,0 +1,432 @@
+package fr.belinguier.java.compiler.classfile;
+
+/**
+ * This Opcodes class lists the opcodes of the instructions written by the {@link CodeBuilder},
+ * and the array types of the newarray instruction.<p>
+ * The other instructions without operand can be written with their opcode from the Java Virtual Machine specification.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see CodeBuilder
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-7.html">Opcode Mnemonics by Opcode</a>
+ */
+public final class Opcodes {
+
+    /**
+     * Opcode of the nop instruction.
+     * @since 1.0
+     */
+    public static final int NOP = 0x00;
+
+    /**
+     * Opcode of the aconst_null instruction.
+     * @since 1.0
+     */
+    public static final int ACONST_NULL = 0x01;
+
+    /**
+     * Opcode of the iconst_m1 instruction, followed by iconst_0 to iconst_5.
+     * @since 1.0
+     */
+    public static final int ICONST_M1 = 0x02;
+
+    /**
+     * Opcode of the iconst_0 instruction.
+     * @since 1.0
+     */
+    public static final int ICONST_0 = 0x03;
+
+    /**
+     * Opcode of the lconst_0 instruction, followed by lconst_1.
+     * @since 1.0
+     */
+    public static final int LCONST_0 = 0x09;
+
+    /**
+     * Opcode of the fconst_0 instruction, followed by fconst_1 and fconst_2.
+     * @since 1.0
+     */
+    public static final int FCONST_0 = 0x0B;
+
+    /**
+     * Opcode of the dconst_0 instruction, followed by dconst_1.
+     * @since 1.0
+     */
+    public static final int DCONST_0 = 0x0E;
+
+    /**
+     * Opcode of the bipush instruction.
+     * @since 1.0
+     */
+    public static final int BIPUSH = 0x10;
+
+    /**
+     * Opcode of the sipush instruction.
+     * @since 1.0
+     */
+    public static final int SIPUSH = 0x11;
+
+    /**
+     * Opcode of the ldc instruction.
+     * @since 1.0
+     */
+    public static final int LDC = 0x12;
+
+    /**
+     * Opcode of the ldc_w instruction.
+     * @since 1.0
+     */
+    public static final int LDC_W = 0x13;
+
+    /**
+     * Opcode of the ldc2_w instruction.
+     * @since 1.0
+     */
+    public static final int LDC2_W = 0x14;
+
+    /**
+     * Opcode of the iload instruction, followed by lload, fload, dload and aload.
+     * @since 1.0
+     */
+    public static final int ILOAD = 0x15;
+
+    /**
+     * Opcode of the iload_0 instruction, followed by the other short load forms, four by type.
+     * @since 1.0
+     */
+    public static final int ILOAD_0 = 0x1A;
+
+    /**
+     * Opcode of the istore instruction, followed by lstore, fstore, dstore and astore.
+     * @since 1.0
+     */
+    public static final int ISTORE = 0x36;
+
+    /**
+     * Opcode of the istore_0 instruction, followed by the other short store forms, four by type.
+     * @since 1.0
+     */
+    public static final int ISTORE_0 = 0x3B;
+
+    /**
+     * Opcode of the pop instruction.
+     * @since 1.0
+     */
+    public static final int POP = 0x57;
+
+    /**
+     * Opcode of the pop2 instruction.
+     * @since 1.0
+     */
+    public static final int POP2 = 0x58;
+
+    /**
+     * Opcode of the dup instruction.
+     * @since 1.0
+     */
+    public static final int DUP = 0x59;
+
+    /**
+     * Opcode of the iadd instruction.
+     * @since 1.0
+     */
+    public static final int IADD = 0x60;
+
+    /**
+     * Opcode of the ladd instruction.
+     * @since 1.0
+     */
+    public static final int LADD = 0x61;
+
+    /**
+     * Opcode of the fadd instruction.
+     * @since 1.0
+     */
+    public static final int FADD = 0x62;
+
+    /**
+     * Opcode of the dadd instruction.
+     * @since 1.0
+     */
+    public static final int DADD = 0x63;
+
+    /**
+     * Opcode of the isub instruction.
+     * @since 1.0
+     */
+    public static final int ISUB = 0x64;
+
+    /**
+     * Opcode of the imul instruction.
+     * @since 1.0
+     */
+    public static final int IMUL = 0x68;
+
+    /**
+     * Opcode of the iinc instruction.
+     * @since 1.0
+     */
+    public static final int IINC = 0x84;
+
+    /**
+     * Opcode of the ifeq instruction, the first of the branch instructions, up to jsr.
+     * @since 1.0
+     */
+    public static final int IFEQ = 0x99;
+
+    /**
+     * Opcode of the goto instruction.
+     * @since 1.0
+     */
+    public static final int GOTO = 0xA7;
+
+    /**
+     * Opcode of the ret instruction.
+     * @since 1.0
+     */
+    public static final int RET = 0xA9;
+
+    /**
+     * Opcode of the tableswitch instruction.
+     * @since 1.0
+     */
+    public static final int TABLESWITCH = 0xAA;
+
+    /**
+     * Opcode of the lookupswitch instruction.
+     * @since 1.0
+     */
+    public static final int LOOKUPSWITCH = 0xAB;
+
+    /**
+     * Opcode of the ireturn instruction.
+     * @since 1.0
+     */
+    public static final int IRETURN = 0xAC;
+
+    /**
+     * Opcode of the lreturn instruction.
+     * @since 1.0
+     */
+    public static final int LRETURN = 0xAD;
+
+    /**
+     * Opcode of the freturn instruction.
+     * @since 1.0
+     */
+    public static final int FRETURN = 0xAE;
+
+    /**
+     * Opcode of the dreturn instruction.
+     * @since 1.0
+     */
+    public static final int DRETURN = 0xAF;
+
+    /**
+     * Opcode of the areturn instruction.
+     * @since 1.0
+     */
+    public static final int ARETURN = 0xB0;
+
+    /**
+     * Opcode of the return instruction.
+     * @since 1.0
+     */
+    public static final int RETURN = 0xB1;
+
+    /**
+     * Opcode of the getstatic instruction.
+     * @since 1.0
+     */
+    public static final int GETSTATIC = 0xB2;
+
+    /**
+     * Opcode of the putstatic instruction.
+     * @since 1.0
+     */
+    public static final int PUTSTATIC = 0xB3;
+
+    /**
+     * Opcode of the getfield instruction.
+     * @since 1.0
+     */
+    public static final int GETFIELD = 0xB4;
+
+    /**
+     * Opcode of the putfield instruction.
+     * @since 1.0
+     */
+    public static final int PUTFIELD = 0xB5;
+
+    /**
+     * Opcode of the invokevirtual instruction.
+     * @since 1.0
+     */
+    public static final int INVOKEVIRTUAL = 0xB6;
+
+    /**
+     * Opcode of the invokespecial instruction.
+     * @since 1.0
+     */
+    public static final int INVOKESPECIAL = 0xB7;
+
+    /**
+     * Opcode of the invokestatic instruction.
+     * @since 1.0
+     */
+    public static final int INVOKESTATIC = 0xB8;
+
+    /**
+     * Opcode of the invokeinterface instruction.
+     * @since 1.0
+     */
+    public static final int INVOKEINTERFACE = 0xB9;
+
+    /**
+     * Opcode of the invokedynamic instruction.
+     * @since 1.0
+     */
+    public static final int INVOKEDYNAMIC = 0xBA;
+
+    /**
+     * Opcode of the new instruction.
+     * @since 1.0
+     */
+    public static final int NEW = 0xBB;
+
+    /**
+     * Opcode of the newarray instruction.
+     * @since 1.0
+     */
+    public static final int NEWARRAY = 0xBC;
+
+    /**
+     * Opcode of the anewarray instruction.
+     * @since 1.0
+     */
+    public static final int ANEWARRAY = 0xBD;
+
+    /**
+     * Opcode of the arraylength instruction.
+     * @since 1.0
+     */
+    public static final int ARRAYLENGTH = 0xBE;
+
+    /**
+     * Opcode of the athrow instruction.
+     * @since 1.0
+     */
+    public static final int ATHROW = 0xBF;
+
+    /**
+     * Opcode of the checkcast instruction.
+     * @since 1.0
+     */
+    public static final int CHECKCAST = 0xC0;
+
+    /**
+     * Opcode of the instanceof instruction.
+     * @since 1.0
+     */
+    public static final int INSTANCEOF = 0xC1;
+
+    /**
+     * Opcode of the monitorenter instruction.
+     * @since 1.0
+     */
+    public static final int MONITORENTER = 0xC2;
+
+    /**
+     * Opcode of the monitorexit instruction.
+     * @since 1.0
+     */
+    public static final int MONITOREXIT = 0xC3;
+
+    /**
+     * Opcode of the wide instruction.
+     * @since 1.0
+     */
+    public static final int WIDE = 0xC4;
+
+    /**
+     * Opcode of the multianewarray instruction.
+     * @since 1.0
+     */
+    public static final int MULTIANEWARRAY = 0xC5;
+
+    /**
+     * Opcode of the ifnull instruction.
+     * @since 1.0
+     */
+    public static final int IFNULL = 0xC6;
+
+    /**
+     * Opcode of the ifnonnull instruction.
+     * @since 1.0
+     */
+    public static final int IFNONNULL = 0xC7;
+
+    /**
+     * Opcode of the goto_w instruction.
+     * @since 1.0
+     */
+    public static final int GOTO_W = 0xC8;
+
+    /**
+     * Opcode of the jsr_w instruction.
+     * @since 1.0
+     */
+    public static final int JSR_W = 0xC9;
+
+    /**
+     * Array type of the newarray instruction creating a boolean array.
+     * @since 1.0
+     */
+    public static final int T_BOOLEAN = 4;
+
+    /**
+     * Array type of the newarray instruction creating a char array.
+     * @since 1.0
+     */
+    public static final int T_CHAR = 5;
+
+    /**
+     * Array type of the newarray instruction creating a float array.
+     * @since 1.0
+     */
+    public static final int T_FLOAT = 6;
+
+    /**
+     * Array type of the newarray instruction creating a double array.
+     * @since 1.0
+     */
+    public static final int T_DOUBLE = 7;
+
+    /**
+     * Array type of the newarray instruction creating a byte array.
+     * @since 1.0
+     */
+    public static final int T_BYTE = 8;
+
+    /**
+     * Array type of the newarray instruction creating a short array.
+     * @since 1.0
+     */
+    public static final int T_SHORT = 9;
+
+    /**
+     * Array type of the newarray instruction creating a int array.
+     * @since 1.0
+     */
+    public static final int T_INT = 10;
+
+    /**
+     * Array type of the newarray instruction creating a long array.
+     * @since 1.0
+     */
+    public static final int T_LONG = 11;
+
+    private Opcodes() {
+    }
+
+}
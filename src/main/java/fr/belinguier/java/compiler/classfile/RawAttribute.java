@@ -0,0 +1,54 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This Attribute class represents an attribute whose info is already encoded.<p>
+ * The info is written as is, so it must not refer to the constant pool,
+ * or only to indexes that are known not to change.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see Attribute
+ */
+public class RawAttribute extends Attribute {
+
+    /**
+     * This field contains the info of the attribute.
+     * @since 1.0
+     */
+    private final byte[] info;
+
+    /**
+     * Initializes a newly created attribute from its encoded info.
+     * @param name The name of the attribute.
+     * @param info The info of the attribute, which is copied.
+     * @since 1.0
+     */
+    public RawAttribute(String name, byte[] info) {
+        super(name);
+        this.info = (info != null) ? info.clone() : new byte[0];
+    }
+
+    /**
+     * Returns the info of the attribute.
+     * @return A copy of the info.
+     * @since 1.0
+     */
+    public byte[] getInfo() {
+        return this.info.clone();
+    }
+
+    @Override
+    public int getLength() {
+        return this.info.length;
+    }
+
+    @Override
+    protected void serializeInfo(final ConstantPool constantPool, final ByteBuffer out) {
+        out.put(this.info);
+    }
+
+}
@@ -0,0 +1,39 @@
+package fr.belinguier.java.compiler.classfile;
+
+/**
+ * Enumeration of the types of local variables, which select the load and store instructions.<p>
+ * The types are in the order of the load and store opcodes, from iload to aload.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see CodeBuilder#load(VariableType, int)
+ * @see CodeBuilder#store(VariableType, int)
+ */
+public enum VariableType {
+
+    INT(1),
+    LONG(2),
+    FLOAT(1),
+    DOUBLE(2),
+    REFERENCE(1);
+
+    /**
+     * Number of local variable slots taken up by a variable of this type.
+     * @since 1.0
+     */
+    private final int size;
+
+    VariableType(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of local variable slots taken up by a variable of this type.
+     * @return 2 for {@link #LONG} and {@link #DOUBLE}, otherwise 1.
+     * @since 1.0
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+}
@@ -0,0 +1,140 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This BootstrapMethod class represents an entry of the BootstrapMethods attribute of the ClassFile.<p>
+ * A bootstrap method is a {@link ConstantMethodHandle} and its static arguments,
+ * which the {@link ConstantInvokeDynamic} constants refer to by their index in the attribute.
+ * The attribute is owned by the {@link ConstantPool}, which gives a single index to equal bootstrap methods.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#getOrRegisterBootstrapMethod(BootstrapMethod)
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.7.21">BootstrapMethods attribute in ClassFile's structure</a>
+ */
+public class BootstrapMethod implements ConstantSerializable {
+
+    /**
+     * This field contains the method handle of the bootstrap method.
+     * @since 1.0
+     */
+    private final ConstantMethodHandle method;
+
+    /**
+     * This field contains the static arguments given to the bootstrap method.
+     * @since 1.0
+     */
+    private final Constant[] arguments;
+
+    /**
+     * Hash code of this bootstrap method, computed once at construction from its content.
+     * @since 1.0
+     */
+    private final int hash;
+
+    /**
+     * Initializes a newly created bootstrap method.
+     * @param method The method handle of the bootstrap method.
+     * @param arguments The static arguments, which must be loadable constants, {@link ConstantLong} or {@link ConstantDouble}.
+     * @throws IllegalArgumentException If an argument is null or cannot be loaded.
+     * @since 1.0
+     */
+    public BootstrapMethod(ConstantMethodHandle method, Constant... arguments) {
+        if (method == null)
+            throw new NullPointerException("A bootstrap method must have a method handle.");
+        this.method = method;
+        this.arguments = (arguments != null) ? arguments.clone() : new Constant[0];
+        for (Constant argument : this.arguments)
+            if (argument == null || !(argument.getConstantType().isLoadable() || ConstantPool.isWide(argument)))
+                throw new IllegalArgumentException("A bootstrap method argument must be a loadable constant.");
+        this.hash = 31 * method.hashCode() + Arrays.hashCode(this.arguments);
+    }
+
+    /**
+     * Returns the method handle of the bootstrap method.
+     * @return The method handle.
+     * @since 1.0
+     */
+    public ConstantMethodHandle getMethod() {
+        return this.method;
+    }
+
+    /**
+     * Returns the static arguments given to the bootstrap method.
+     * @return A copy of the arguments.
+     * @since 1.0
+     */
+    public Constant[] getArguments() {
+        return this.arguments.clone();
+    }
+
+    /**
+     * Register in the constant pool the method handle and the arguments of the bootstrap method.
+     * @param constantPool The constant pool in which the constants are registered.
+     * @since 1.0
+     */
+    void resolve(final ConstantPool constantPool) {
+        constantPool.getOrRegister(this.method);
+        for (Constant argument : this.arguments)
+            constantPool.getOrRegister(argument);
+    }
+
+    /**
+     * Serialize the entry of the bootstrap method in the BootstrapMethods attribute.
+     * @param constantPool The constant pool holding the method handle and the arguments.
+     * @param out The byte stream.
+     * @since 1.0
+     */
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        if (constantPool == null || out == null)
+            return;
+        out.writeShort(constantPool.getOrRegister(this.method));
+        out.writeShort((short) this.arguments.length);
+        for (Constant argument : this.arguments)
+            out.writeShort(constantPool.getOrRegister(argument));
+    }
+
+    /**
+     * Serialize the entry of the bootstrap method in the BootstrapMethods attribute.
+     * @param constantPool The constant pool holding the method handle and the arguments.
+     * @param out The byte buffer.
+     * @since 1.0
+     */
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        out.putShort(constantPool.getOrRegister(this.method));
+        out.putShort((short) this.arguments.length);
+        for (Constant argument : this.arguments)
+            out.putShort(constantPool.getOrRegister(argument));
+    }
+
+    @Override
+    public int serializedSize() {
+        return 4 + 2 * this.arguments.length;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final BootstrapMethod bootstrapMethod;
+
+        if (obj == this)
+            return true;
+        if (!(obj instanceof BootstrapMethod))
+            return false;
+        bootstrapMethod = (BootstrapMethod) obj;
+        return bootstrapMethod.hash == this.hash && bootstrapMethod.method.equals(this.method)
+                && Arrays.equals(bootstrapMethod.arguments, this.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -0,0 +1,666 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * This CompactConstantPool class represents a pool of constants stored in a few primitive arrays instead of objects.<p>
+ * Each entry of the pool is described by its tag in a byte array, its referenced indexes in an int array
+ * and its primitive value in a long array, and all the UTF-8 strings are packed into a single growable slab,
+ * which can be allocated outside the heap.
+ * A registered constant is therefore not kept: it is only serialized once to be stored,
+ * and {@link #getConstants()} creates new constants from the stored entries.<p>
+ * The constants referenced by a constant are registered before it, when it is registered,
+ * so the indexes differ from the ones given by a {@link ConstantPool}, but the content of the pool is the same.
+ * Only the bootstrap methods are kept by the {@link ConstantPool} this class extends,
+ * whose list and tables of constants are not allocated.
+ * A compact constant pool cannot unregister a single constant, since the other entries refer to it by index:
+ * it can only unregister all its constants at once.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool
+ */
+public class CompactConstantPool extends ConstantPool {
+
+    /**
+     * Initial number of entries that the arrays can hold.
+     * @since 1.0
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Whether the UTF-8 slab is allocated outside the heap.
+     * @since 1.0
+     */
+    private final boolean direct;
+
+    /**
+     * Tag of each entry, by index. The second entry of a {@link ConstantLong} or {@link ConstantDouble} has no tag.
+     * @since 1.0
+     */
+    private byte[] tags;
+
+    /**
+     * Two values by entry: the indexes referenced by the entry,
+     * or the offset and the length of the string in the slab for a {@link ConstantUtf8}.
+     * @since 1.0
+     */
+    private int[] references;
+
+    /**
+     * Primitive value of each entry, by index, as raw bits.
+     * @since 1.0
+     */
+    private long[] values;
+
+    /**
+     * Hash code of each entry, by index.
+     * @since 1.0
+     */
+    private int[] hashes;
+
+    /**
+     * Open addressing table of the indexes of the entries, by hash code. 0 marks a free slot.
+     * @since 1.0
+     */
+    private int[] table;
+
+    /**
+     * All the UTF-8 strings of the pool, one after the other.
+     * The strings are never overwritten, so the {@link ConstantUtf8} returned by the pool refer to them without copying.
+     * @since 1.0
+     */
+    private ByteBuffer slab;
+
+    /**
+     * The constant_pool_count item of the ClassFile structure, which is also the index of the next entry.
+     * @since 1.0
+     */
+    private int count;
+
+    /**
+     * Number of registered constants.
+     * @since 1.0
+     */
+    private int length;
+
+    /**
+     * Number of bytes taken up by the registered constants once serialized.
+     * @since 1.0
+     */
+    private int size;
+
+    /**
+     * Buffers in which constants are serialized to be stored, one for each level of reference.
+     * @since 1.0
+     */
+    private ByteBuffer[] scratches;
+
+    /**
+     * Current level of reference, a constant being serialized while the constants it refers to are registered.
+     * @since 1.0
+     */
+    private int depth;
+
+    /**
+     * Whether constants are being looked up, in which case the referenced constants must not be registered.
+     * @since 1.0
+     */
+    private boolean lookup;
+
+    /**
+     * Whether a referenced constant was not found during the current lookup.
+     * @since 1.0
+     */
+    private boolean missing;
+
+    /**
+     * Constructs an empty compact constants pool, whose UTF-8 slab is on the heap.
+     * @since 1.0
+     */
+    public CompactConstantPool() {
+        this(false);
+    }
+
+    /**
+     * Constructs an empty compact constants pool.
+     * @param direct true to allocate the UTF-8 slab outside the heap, with {@link ByteBuffer#allocateDirect(int)}.
+     * @since 1.0
+     */
+    public CompactConstantPool(boolean direct) {
+        super(false);
+        this.direct = direct;
+        this.scratches = new ByteBuffer[4];
+        clear();
+    }
+
+    /**
+     * Reset all the arrays to their initial capacity.
+     * @since 1.0
+     */
+    private void clear() {
+        this.tags = new byte[INITIAL_CAPACITY];
+        this.references = new int[INITIAL_CAPACITY * 2];
+        this.values = new long[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.slab = allocate(INITIAL_CAPACITY * 16);
+        this.count = 1;
+        this.length = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Allocate a buffer for the UTF-8 slab.
+     * @param capacity The capacity of the buffer.
+     * @return A buffer outside the heap if requested, otherwise a heap buffer.
+     * @since 1.0
+     */
+    private ByteBuffer allocate(int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Get the buffer in which a constant is serialized at the current level of reference.
+     * @param capacity The minimum capacity of the buffer.
+     * @return An empty buffer.
+     * @since 1.0
+     */
+    private ByteBuffer scratch(int capacity) {
+        ByteBuffer scratch;
+
+        if (this.depth == this.scratches.length)
+            this.scratches = Arrays.copyOf(this.scratches, this.depth * 2);
+        scratch = this.scratches[this.depth];
+        if (scratch == null || scratch.capacity() < capacity) {
+            scratch = ByteBuffer.allocate(Math.max(capacity, 64));
+            this.scratches[this.depth] = scratch;
+        }
+        scratch.clear();
+        return scratch;
+    }
+
+    /**
+     * Find a constant in the pool and register it if requested.<p>
+     * The constant is serialized in a scratch buffer, which registers or looks up the constants it refers to,
+     * then its tag and payload are read back to look up the table.
+     * @param constant The constant sought.
+     * @param register true to register the constant if it is not found.
+     * @return The index of the constant, or 0 if it is not found and not registered.
+     * @since 1.0
+     */
+    private int find(Constant constant, boolean register) {
+        final ConstantType constantType;
+        final ByteBuffer scratch;
+        final byte tag;
+        int firstReference = 0;
+        int secondReference = 0;
+        long value = 0;
+        int hash;
+        int mask;
+        int slot;
+        int index;
+
+        if (constant == null)
+            return 0;
+        constantType = constant.getConstantType();
+        if (constantType == null)
+            return 0;
+        scratch = scratch(constant.serializedSize());
+        ++this.depth;
+        try {
+            constant.serialize(this, scratch);
+        } finally {
+            --this.depth;
+        }
+        if (this.missing)
+            return 0;
+        tag = constantType.getTag();
+        hash = tag;
+        switch (constantType) {
+            case UTF_8:
+                secondReference = scratch.getShort(1) & 0xFFFF;
+                for (int i = 0; i < secondReference; i++)
+                    hash = 31 * hash + scratch.get(3 + i);
+                break;
+            case INTEGER:
+            case FLOAT:
+                value = scratch.getInt(1);
+                break;
+            case LONG:
+            case DOUBLE:
+                value = scratch.getLong(1);
+                break;
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+                firstReference = scratch.getShort(1) & 0xFFFF;
+                break;
+            case METHOD_HANDLE:
+                value = scratch.get(1);
+                firstReference = scratch.getShort(2) & 0xFFFF;
+                break;
+            default:
+                firstReference = scratch.getShort(1) & 0xFFFF;
+                secondReference = scratch.getShort(3) & 0xFFFF;
+                break;
+        }
+        hash = 31 * (31 * (31 * hash + Long.hashCode(value)) + firstReference) + secondReference;
+        mask = this.table.length - 1;
+        for (slot = hash & mask; (index = this.table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (this.hashes[index] != hash || this.tags[index] != tag || this.values[index] != value)
+                continue;
+            if (constantType == ConstantType.UTF_8) {
+                if (sameString(index, scratch, secondReference))
+                    return index;
+            } else if (this.references[index * 2] == firstReference
+                    && this.references[index * 2 + 1] == secondReference) {
+                return index;
+            }
+        }
+        if (!register)
+            return 0;
+        if (constantType == ConstantType.UTF_8)
+            firstReference = store(scratch, secondReference);
+        index = insert(tag, firstReference, secondReference, value, hash, constant.serializedSize(),
+                ConstantPool.isWide(constant) ? 2 : 1);
+        if (getListener() != null)
+            getListener().registered(this, constant, index);
+        return index;
+    }
+
+    /**
+     * Compare a string of the slab with a string in a scratch buffer.
+     * @param index The index of the {@link ConstantUtf8} entry.
+     * @param scratch The scratch buffer, in which the string starts at the offset 3.
+     * @param length The length of the string in the scratch buffer.
+     * @return true if the strings have the same bytes, otherwise false.
+     * @since 1.0
+     */
+    private boolean sameString(int index, ByteBuffer scratch, int length) {
+        final int offset = this.references[index * 2];
+
+        if (this.references[index * 2 + 1] != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (this.slab.get(offset + i) != scratch.get(3 + i))
+                return false;
+        return true;
+    }
+
+    /**
+     * Copy a string from a scratch buffer to the end of the slab.
+     * @param scratch The scratch buffer, in which the string starts at the offset 3.
+     * @param length The length of the string.
+     * @return The offset of the string in the slab.
+     * @since 1.0
+     */
+    private int store(ByteBuffer scratch, int length) {
+        final int offset = this.slab.position();
+        final ByteBuffer string;
+        ByteBuffer slab;
+
+        if (this.slab.remaining() < length) {
+            slab = allocate(Math.max(this.slab.capacity() * 2, offset + length));
+            this.slab.flip();
+            slab.put(this.slab);
+            this.slab = slab;
+        }
+        string = scratch.duplicate();
+        string.limit(3 + length).position(3);
+        this.slab.put(string);
+        return offset;
+    }
+
+    /**
+     * Store a new entry at the end of the pool.
+     * @param tag The tag of the entry.
+     * @param firstReference The first index referenced by the entry, or the offset of its string in the slab.
+     * @param secondReference The second index referenced by the entry, or the length of its string.
+     * @param value The primitive value of the entry.
+     * @param hash The hash code of the entry.
+     * @param size The number of bytes taken up by the entry once serialized.
+     * @param entries The number of entries taken up in the pool, 2 for a long or a double, otherwise 1.
+     * @return The index of the new entry.
+     * @since 1.0
+     */
+    private int insert(byte tag, int firstReference, int secondReference, long value, int hash, int size, int entries) {
+        final int index = this.count;
+
+        if (index + entries >= this.tags.length) {
+            this.tags = Arrays.copyOf(this.tags, this.tags.length * 2);
+            this.references = Arrays.copyOf(this.references, this.references.length * 2);
+            this.values = Arrays.copyOf(this.values, this.values.length * 2);
+            this.hashes = Arrays.copyOf(this.hashes, this.hashes.length * 2);
+        }
+        this.tags[index] = tag;
+        this.references[index * 2] = firstReference;
+        this.references[index * 2 + 1] = secondReference;
+        this.values[index] = value;
+        this.hashes[index] = hash;
+        this.count += entries;
+        ++this.length;
+        this.size += size;
+        if (this.length * 2 > this.table.length) {
+            this.table = new int[this.table.length * 2];
+            for (int i = 1; i < this.count; i++)
+                if (this.tags[i] != 0)
+                    link(i);
+        } else {
+            link(index);
+        }
+        return index;
+    }
+
+    /**
+     * Add an entry in the open addressing table.
+     * @param index The index of the entry.
+     * @since 1.0
+     */
+    private void link(int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.hashes[index] & mask;
+
+        while (this.table[slot] != 0)
+            slot = (slot + 1) & mask;
+        this.table[slot] = index;
+    }
+
+    @Override
+    public short indexOf(Constant constant) {
+        final boolean lookup = this.lookup;
+
+        if (!lookup)
+            this.missing = false;
+        this.lookup = true;
+        try {
+            return (short) find(constant, false);
+        } finally {
+            this.lookup = lookup;
+            if (!lookup)
+                this.missing = false;
+        }
+    }
+
+    /**
+     * Register the constant if not, otherwise get its index.<p>
+     * The constants it refers to are registered before it.
+     * @param constant The constant to register/sought.
+     * @return The index of the constant in the array if it has been registered or already exists, otherwise returns 0.
+     * @since 1.0
+     */
+    @Override
+    public short getOrRegister(Constant constant) {
+        final ConstantPoolListener listener;
+        final int length;
+        final int index;
+
+        if (!this.lookup) {
+            listener = getListener();
+            if (listener == null)
+                return (short) find(constant, true);
+            length = this.length;
+            index = find(constant, true);
+            if (index != 0)
+                listener.lookedUp(this, constant, this.length == length);
+            return (short) index;
+        }
+        index = find(constant, false);
+        if (index == 0 && constant != null)
+            this.missing = true;
+        return (short) index;
+    }
+
+    /**
+     * Register several constants at once, each one after the constants it references.
+     * @param constants The constants to register.
+     * @return The index of each given constant, in the same order, 0 for the null or invalid constants.
+     * @since 1.0
+     */
+    @Override
+    public int[] registerAll(Constant... constants) {
+        final int[] indexes;
+
+        if (constants == null)
+            return new int[0];
+        indexes = new int[constants.length];
+        for (int i = 0; i < constants.length; i++)
+            indexes[i] = getOrRegister(constants[i]) & 0xFFFF;
+        return indexes;
+    }
+
+    @Override
+    public boolean registerConstant(Constant constant) {
+        final int length = this.length;
+
+        return getOrRegister(constant) != 0 && this.length != length;
+    }
+
+    /**
+     * A compact constant pool cannot unregister a single constant, since the other entries refer to it by index.
+     * @param constant The constant to unregister.
+     * @return Never returns.
+     * @throws UnsupportedOperationException Always, {@link #unRegisterAll()} being the only way to unregister constants.
+     * @since 1.0
+     */
+    @Override
+    public boolean unRegisterConstant(Constant constant) {
+        throw new UnsupportedOperationException("A compact constant pool cannot unregister a single constant.");
+    }
+
+    @Override
+    public void unRegisterAll() {
+        clear();
+        unRegisterBootstrapMethods();
+    }
+
+    /**
+     * Register a bootstrap method if not, otherwise get its index.<p>
+     * While a constant is looked up, the bootstrap methods it refers to are only looked up too.
+     * @param bootstrapMethod The bootstrap method to register/sought.
+     * @return The index of the bootstrap method in the BootstrapMethods attribute, or -1 if it is null.
+     * @since 1.0
+     */
+    @Override
+    public int getOrRegisterBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        final int index;
+
+        if (!this.lookup)
+            return super.getOrRegisterBootstrapMethod(bootstrapMethod);
+        index = indexOfBootstrapMethod(bootstrapMethod);
+        if (index < 0)
+            this.missing = true;
+        return index;
+    }
+
+    /**
+     * Nothing to do, the constants referenced by a constant are registered with it.
+     * @since 1.0
+     */
+    @Override
+    public void resolve() {
+    }
+
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Creates new constants from the stored entries.
+     * @return The array of registered constants.
+     * @since 1.0
+     */
+    @Override
+    public Constant[] getConstants() {
+        final Constant[] entries = new Constant[this.count];
+        final Constant[] constants = new Constant[this.length];
+        final BootstrapMethod[] bootstrapMethods = getBootstrapMethods();
+        int length = 0;
+
+        for (int i = 1; i < this.count; i++) {
+            if (this.tags[i] == 0)
+                continue;
+            entries[i] = createConstant(i, entries, bootstrapMethods);
+            constants[length++] = entries[i];
+        }
+        return constants;
+    }
+
+    /**
+     * Create a new constant from a stored entry.
+     * @param index The index of the entry.
+     * @param entries The constants already created, by index, the referenced entries having a lower index.
+     * @param bootstrapMethods The bootstrap methods of this constant pool, copied once for all the entries.
+     * @return The new constant.
+     * @since 1.0
+     */
+    private Constant createConstant(int index, Constant[] entries, BootstrapMethod[] bootstrapMethods) {
+        final int firstReference = this.references[index * 2];
+        final int secondReference = this.references[index * 2 + 1];
+        final ByteBuffer string;
+
+        switch (this.tags[index]) {
+            case 1:
+                string = this.slab.duplicate();
+                string.limit(firstReference + secondReference);
+                string.position(firstReference);
+                return ConstantUtf8.wrap(string);
+            case 3:
+                return new ConstantInteger((int) this.values[index]);
+            case 4:
+                return new ConstantFloat(Float.intBitsToFloat((int) this.values[index]));
+            case 5:
+                return new ConstantLong(this.values[index]);
+            case 6:
+                return new ConstantDouble(Double.longBitsToDouble(this.values[index]));
+            case 7:
+                return new ConstantClass((ConstantUtf8) entries[firstReference]);
+            case 8:
+                return new ConstantString((ConstantUtf8) entries[firstReference]);
+            case 9:
+                return new ConstantFieldRef((ConstantClass) entries[firstReference],
+                        (ConstantNameAndType) entries[secondReference]);
+            case 10:
+                return new ConstantMethodRef((ConstantClass) entries[firstReference],
+                        (ConstantNameAndType) entries[secondReference]);
+            case 11:
+                return new ConstantInterfaceMethodRef((ConstantClass) entries[firstReference],
+                        (ConstantNameAndType) entries[secondReference]);
+            case 12:
+                return new ConstantNameAndType((ConstantUtf8) entries[firstReference],
+                        (ConstantUtf8) entries[secondReference]);
+            case 15:
+                return new ConstantMethodHandle(ReferenceKind.fromKind((byte) this.values[index]),
+                        entries[firstReference]);
+            case 16:
+                return new ConstantMethodType((ConstantUtf8) entries[firstReference]);
+            case 17:
+                return new ConstantDynamic(bootstrapMethods[firstReference],
+                        (ConstantNameAndType) entries[secondReference]);
+            case 18:
+                return new ConstantInvokeDynamic(bootstrapMethods[firstReference],
+                        (ConstantNameAndType) entries[secondReference]);
+            default:
+                throw new UnsupportedOperationException("Unsupported constant tag: " + this.tags[index]);
+        }
+    }
+
+    @Override
+    public Iterator<Constant> iterator() {
+        return Arrays.asList(getConstants()).iterator();
+    }
+
+    @Override
+    void serializeConstants(final DataOutputStream out, int entries) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(this.size);
+
+        serializeConstants(buffer, entries);
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    @Override
+    void serializeConstants(final ByteBuffer out, int entries) {
+        final ByteBuffer string = this.slab.duplicate();
+        byte tag;
+        int firstReference;
+        int secondReference;
+
+        for (int i = 1; i < this.count && i <= entries; i++) {
+            tag = this.tags[i];
+            if (tag == 0)
+                continue;
+            firstReference = this.references[i * 2];
+            secondReference = this.references[i * 2 + 1];
+            Constant.checkTargetVersion(this, ConstantType.fromTag(tag));
+            out.put(tag);
+            switch (tag) {
+                case 1:
+                    out.putShort((short) secondReference);
+                    string.limit(firstReference + secondReference).position(firstReference);
+                    out.put(string);
+                    break;
+                case 3:
+                case 4:
+                    out.putInt((int) this.values[i]);
+                    break;
+                case 5:
+                case 6:
+                    out.putLong(this.values[i]);
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                    out.putShort((short) firstReference);
+                    break;
+                case 15:
+                    out.put((byte) this.values[i]);
+                    out.putShort((short) firstReference);
+                    break;
+                default:
+                    out.putShort((short) firstReference);
+                    out.putShort((short) secondReference);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void serialize(final DataOutputStream out) throws IOException {
+        if (out == null)
+            return;
+        out.write(serialize());
+    }
+
+    @Override
+    public void serialize(final ByteBuffer out) {
+        final ConstantPoolListener listener = getListener();
+        final long start;
+        final ByteOrder order;
+
+        if (out == null)
+            return;
+        start = (listener != null) ? System.nanoTime() : 0;
+        order = out.order();
+        out.order(ByteOrder.BIG_ENDIAN);
+        try {
+            out.putShort((short) this.count);
+            serializeConstants(out, this.count - 1);
+        } finally {
+            out.order(order);
+        }
+        if (listener != null)
+            listener.serialized(this, 2 + this.size, System.nanoTime() - start);
+    }
+
+    @Override
+    public int serializedSize() {
+        return 2 + this.size;
+    }
+
+}
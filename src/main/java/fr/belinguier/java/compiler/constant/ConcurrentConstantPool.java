@@ -0,0 +1,311 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This ConcurrentConstantPool class represents a pool of constants that can be filled by several threads at once.<p>
+ * Looking up a constant that is already registered does not take any lock:
+ * the indexes are published in a {@link ConcurrentHashMap}.
+ * Registering a new constant takes the lock of the pool only for the time of the registration,
+ * so each distinct constant gets exactly one index, which never changes afterwards,
+ * and {@link ConstantLong} and {@link ConstantDouble} still take up two entries.<p>
+ * The serialization takes the lock of the pool, so the bytes written always match the indexes handed out,
+ * in index order.<p>
+ * The indexes handed out by {@link #getOrRegister(Constant)} depend on the order in which the threads
+ * register new constants, so two runs can write different bytes.
+ * When the output must be deterministic, each worker registers its constants in its own pool,
+ * created by {@link #fork()} on top of the constants shared by all workers,
+ * and the pools of the workers are then merged in a fixed order by {@link #join(ConstantPool...)},
+ * whose tables of new indexes are used to patch the bytecode of each worker.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool
+ */
+public class ConcurrentConstantPool extends ConstantPool {
+
+    /**
+     * Table associating each registered constant with its index in the constant pool, readable without locking.
+     * @since 1.0
+     */
+    private final ConcurrentHashMap<Constant, Integer> publishedIndexes;
+
+    /**
+     * Constructs an empty concurrent constants pool.
+     * @since 1.0
+     */
+    public ConcurrentConstantPool() {
+        super();
+        this.publishedIndexes = new ConcurrentHashMap<Constant, Integer>();
+    }
+
+    /**
+     * Constructs a concurrent copy of a constant pool, which shares its constants.
+     * @param constantPool The constant pool to copy.
+     * @since 1.0
+     * @see ConstantPool#ConstantPool(ConstantPool)
+     */
+    public ConcurrentConstantPool(ConstantPool constantPool) {
+        super(constantPool);
+        this.publishedIndexes = new ConcurrentHashMap<Constant, Integer>();
+        publishAll();
+    }
+
+    /**
+     * Publish the index of all registered constants, after the indexes have been moved.
+     * @since 1.0
+     */
+    private void publishAll() {
+        this.publishedIndexes.clear();
+        for (Constant constant : super.getConstants())
+            this.publishedIndexes.put(constant, super.indexOf(constant) & 0xFFFF);
+    }
+
+    @Override
+    public short indexOf(Constant constant) {
+        final Integer index;
+
+        if (constant == null)
+            return 0;
+        index = this.publishedIndexes.get(constant);
+        return (index != null) ? index.shortValue() : 0;
+    }
+
+    @Override
+    public synchronized boolean registerConstant(Constant constant) {
+        if (!super.registerConstant(constant))
+            return false;
+        this.publishedIndexes.put(constant, super.indexOf(constant) & 0xFFFF);
+        return true;
+    }
+
+    @Override
+    public synchronized int[] registerAll(Constant... constants) {
+        return super.registerAll(constants);
+    }
+
+    /**
+     * Unregister the desired constant from the constant pool.<p>
+     * The constants registered after it are moved back, so their index changes:
+     * this must not be done while other threads use the pool.
+     * @param constant The constant to unregister.
+     * @return true if the constant was successfully unregistered otherwise false if the constant was not registered or null.
+     * @since 1.0
+     */
+    @Override
+    public synchronized boolean unRegisterConstant(Constant constant) {
+        if (!super.unRegisterConstant(constant))
+            return false;
+        publishAll();
+        return true;
+    }
+
+    @Override
+    public short getOrRegister(Constant constant) {
+        final Integer publishedIndex;
+        final ConstantPoolListener listener;
+        short index;
+
+        if (constant == null)
+            return 0;
+        publishedIndex = this.publishedIndexes.get(constant);
+        if (publishedIndex != null) {
+            listener = getListener();
+            if (listener != null && !(Thread.holdsLock(this) && isSerializing()))
+                listener.lookedUp(this, constant, true);
+            return publishedIndex.shortValue();
+        }
+        synchronized (this) {
+            index = super.getOrRegister(constant);
+            if (index != 0)
+                this.publishedIndexes.put(constant, index & 0xFFFF);
+            return index;
+        }
+    }
+
+    /**
+     * Get the index of a bootstrap method, registering it under the lock of the pool if needed.
+     * @param bootstrapMethod The bootstrap method.
+     * @return The index of the bootstrap method in the BootstrapMethods attribute, or -1 if it is null.
+     * @since 1.0
+     */
+    @Override
+    public synchronized int getOrRegisterBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        return super.getOrRegisterBootstrapMethod(bootstrapMethod);
+    }
+
+    @Override
+    public synchronized int indexOfBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        return super.indexOfBootstrapMethod(bootstrapMethod);
+    }
+
+    @Override
+    public synchronized BootstrapMethod[] getBootstrapMethods() {
+        return super.getBootstrapMethods();
+    }
+
+    @Override
+    public synchronized int bootstrapMethodsSize() {
+        return super.bootstrapMethodsSize();
+    }
+
+    @Override
+    public synchronized void serializeBootstrapMethods(final DataOutputStream out) throws IOException {
+        super.serializeBootstrapMethods(out);
+    }
+
+    @Override
+    public synchronized void serializeBootstrapMethods(final ByteBuffer out) {
+        super.serializeBootstrapMethods(out);
+    }
+
+    /**
+     * Unregister all constants in the constant pool.<p>
+     * This must not be done while other threads use the pool.
+     * @since 1.0
+     */
+    @Override
+    public synchronized void unRegisterAll() {
+        super.unRegisterAll();
+        this.publishedIndexes.clear();
+    }
+
+    @Override
+    public synchronized Constant[] getConstants() {
+        return super.getConstants();
+    }
+
+    @Override
+    public synchronized int getCount() {
+        return super.getCount();
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the registered constants.
+     * @return An iterator over the constants registered when it was created.
+     * @since 1.0
+     */
+    @Override
+    public Iterator<Constant> iterator() {
+        return Arrays.asList(getConstants()).iterator();
+    }
+
+    @Override
+    public synchronized void resolve() {
+        super.resolve();
+    }
+
+    /**
+     * Create the constant pool of a worker, which shares the constants registered so far in this pool.<p>
+     * The pool of a worker is not thread-safe: it is used by a single worker,
+     * without taking the lock of this pool, and the constants it registers are not seen by the other workers.
+     * This pool can still register new constants, but it must not unregister constants
+     * as long as the pools of the workers are used.
+     * @return The constant pool of the worker, in which the shared constants keep their index.
+     * @since 1.0
+     * @see #join(ConstantPool...)
+     * @see ConstantPool#ConstantPool(ConstantPool)
+     */
+    public synchronized ConstantPool fork() {
+        return new ConstantPool(this);
+    }
+
+    /**
+     * Merge the constant pools of the workers after the constants of this pool, in the given order.<p>
+     * The constants of this pool are registered first, in index order, and keep their index,
+     * then the constants of each worker follow, one worker after the other.
+     * The new pool therefore only depends on the constants and the order of the workers,
+     * not on the order in which the workers ran, so its serialization is deterministic.
+     * @param workers The constant pools of the workers, usually created by {@link #fork()}, in a fixed order.
+     * @return The new constant pool, and one table of the new indexes by old index for each worker.
+     * @throws IllegalArgumentException If the constant_pool_count of the new pool would exceed {@link #MAX_COUNT}.
+     * @since 1.0
+     * @see ConstantPool#merge(ConstantPool...)
+     */
+    public synchronized ConstantPoolMerge join(ConstantPool... workers) {
+        final ConstantPool[] constantPools = new ConstantPool[1 + ((workers != null) ? workers.length : 0)];
+        final int[][] remaps = new int[constantPools.length - 1][];
+        final ConstantPoolMerge merge;
+
+        constantPools[0] = this;
+        for (int i = 1; i < constantPools.length; i++)
+            constantPools[i] = workers[i - 1];
+        merge = merge(constantPools);
+        for (int i = 0; i < remaps.length; i++)
+            remaps[i] = merge.getRemap(i + 1);
+        return new ConstantPoolMerge(merge.getConstantPool(), remaps);
+    }
+
+    @Override
+    public synchronized FrozenConstantPool freeze() {
+        return super.freeze();
+    }
+
+    /**
+     * Drop the constants that are not used, and give dense indexes to the remaining ones.<p>
+     * The indexes of the kept constants change: this must not be done while other threads use the pool.
+     * @param usedIndexes The indexes of the constants used by the class, the other indexes are ignored.
+     * @return The table of the new indexes, by old index, whose length is the old constant_pool_count.
+     * @since 1.0
+     * @see ConstantPool#compact(int...)
+     */
+    @Override
+    public synchronized int[] compact(int... usedIndexes) {
+        return super.compact(usedIndexes);
+    }
+
+    /**
+     * Reorder the constants so that the most used loadable constants get an index that fits in an ldc instruction.<p>
+     * The indexes of the constants change: this must not be done while other threads use the pool.
+     * @param useCounts The number of ldc or ldc_w instructions loading each constant, by index.
+     * @return The table of the new indexes and the number of ldc_w instructions removed.
+     * @since 1.0
+     * @see ConstantPool#layoutLoadableConstants(int[])
+     */
+    @Override
+    public synchronized LdcLayout layoutLoadableConstants(int[] useCounts) {
+        return super.layoutLoadableConstants(useCounts);
+    }
+
+    @Override
+    synchronized void serializeConstants(final DataOutputStream out, int entries) throws IOException {
+        super.serializeConstants(out, entries);
+    }
+
+    @Override
+    synchronized void serializeConstants(final ByteBuffer out, int entries) {
+        super.serializeConstants(out, entries);
+    }
+
+    @Override
+    public synchronized void serialize(final DataOutputStream out) throws IOException {
+        super.serialize(out);
+    }
+
+    @Override
+    public synchronized void serialize(final ByteBuffer out) {
+        super.serialize(out);
+    }
+
+    @Override
+    public synchronized void serialize(final WritableByteChannel channel) throws IOException {
+        super.serialize(channel);
+    }
+
+    @Override
+    public synchronized byte[] serialize() {
+        return super.serialize();
+    }
+
+    @Override
+    public synchronized int serializedSize() {
+        return super.serializedSize();
+    }
+
+}
@@ -1,8 +1,10 @@
 package fr.belinguier.java.compiler.constant;
 
+import fr.belinguier.java.JavaVersion;
+
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
  * This Constant class represents a basic constantin the structure of the ClassFile.
@@ -46,21 +48,96 @@ public abstract class Constant implements ConstantSerializable {
         return this.constantType;
     }
 
+    /**
+     * Register in the constant pool all the constants referenced by this constant.<p>
+     * The {@link ConstantPool} calls it on each registered constant before serializing,
+     * so that all referenced constants have an index once the pool is written.
+     * A constant that refers to other constants must register them here in the order it serializes them.
+     * @param constantPool The constant pool in which referenced constants are registered.
+     * @since 1.0
+     * @see ConstantPool#resolve()
+     */
+    protected void resolve(final ConstantPool constantPool) {
+    }
+
+    /**
+     * Checks that a constant pool can hold the constants of a type.
+     * @param constantPool The constant pool.
+     * @param constantType The type of the constants.
+     * @throws IllegalStateException If the constant pool targets a version older than the one introducing the type.
+     * @since 1.0
+     * @see ConstantPool#getTargetVersion()
+     * @see ConstantType#getMinimumVersion()
+     */
+    static void checkTargetVersion(final ConstantPool constantPool, final ConstantType constantType) {
+        final JavaVersion targetVersion = constantPool.getTargetVersion();
+        final JavaVersion minimumVersion;
+
+        if (targetVersion == null)
+            return;
+        minimumVersion = constantType.getMinimumVersion();
+        if (targetVersion.compareTo(minimumVersion) < 0)
+            throw new IllegalStateException(constantType + " constants require " + minimumVersion
+                    + " or later, the constant pool targets " + targetVersion + '.');
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException If the constant pool targets a version older than the one introducing
+     *                               the type of this constant.
+     * @see ConstantType#getMinimumVersion()
+     */
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (out == null)
             return;
+        if (constantPool != null)
+            checkTargetVersion(constantPool, this.constantType);
         out.writeByte(constantType.getTag());
     }
 
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException If the constant pool targets a version older than the one introducing
+     *                               the type of this constant.
+     * @see ConstantType#getMinimumVersion()
+     */
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        if (constantPool != null)
+            checkTargetVersion(constantPool, this.constantType);
+        out.put(this.constantType.getTag());
+    }
+
+    @Override
+    public int serializedSize() {
+        return 1;
+    }
+
+    /**
+     * Two constants are equal if they have the same type and represent the same content.<p>
+     * Subclasses compare their content once the type and the hash code have been checked by this method.
+     * @param obj The object to compare.
+     * @return true if the given object is a constant equal to this one, otherwise false.
+     * @since 1.0
+     */
     @Override
     public boolean equals(Object obj) {
-        return (obj instanceof Constant) && obj.hashCode() == hashCode();
+        final Constant constant;
+
+        if (obj == this)
+            return true;
+        if (!(obj instanceof Constant))
+            return false;
+        constant = (Constant) obj;
+        return constant.constantType == this.constantType && constant.hashCode() == hashCode();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.constantType);
+        return this.constantType.getTag();
     }
 
 }
@@ -2,6 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -21,6 +22,12 @@ public class ConstantClass extends Constant {
      */
     private final ConstantUtf8 className;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent {@link Class}.
      * @param className The {@link Class}'s name to represent as a constant.
@@ -29,6 +36,7 @@ public class ConstantClass extends Constant {
     public ConstantClass(ConstantUtf8 className) {
         super(ConstantType.CLASS);
         this.className = className;
+        this.hash = hashOf(Objects.hashCode(className));
     }
 
     /**
@@ -59,6 +67,13 @@ public class ConstantClass extends Constant {
         return this.className;
     }
 
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.className);
+    }
+
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (constantPool == null || out == null)
@@ -66,9 +81,39 @@ public class ConstantClass extends Constant {
         super.serialize(constantPool, out);
         out.writeShort(constantPool.getOrRegister(this.className));
     }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort(constantPool.getOrRegister(this.className));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 2;
+    }
     
+    /**
+     * Compute the hash code of a constant of this type from the hash code of the class name,
+     * so that a constant can be looked up without being created.
+     * @param classNameHash The hash code of the constant representing the class name.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int classNameHash) {
+        return 31 * ConstantType.CLASS.getTag() + classNameHash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || super.equals(obj) && (obj instanceof ConstantClass)
+                && Objects.equals(((ConstantClass) obj).className, this.className);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.className);
+        return this.hash;
     }
 }
@@ -2,10 +2,12 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
- * This Constant class represents a double constant in the structure of the ClassFile.
+ * This Constant class represents a double constant in the structure of the ClassFile.<p>
+ * Constants are compared on the raw bits of their value, which are written as they are:
+ * each NaN bit pattern is a distinct constant, and so is the negative zero.
  * @author Eliott Belinguier
  * @since 1.0
  * @version 1.0
@@ -20,6 +22,12 @@ public class ConstantDouble extends Constant {
      */
     private final double value;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent {@link Double} number.
      * @param value The {@link Double} number that the constant should represent.
@@ -28,6 +36,7 @@ public class ConstantDouble extends Constant {
     public ConstantDouble(double value) {
         super(ConstantType.DOUBLE);
         this.value = value;
+        this.hash = hashOf(value);
     }
 
     /**
@@ -44,11 +53,42 @@ public class ConstantDouble extends Constant {
         if (out == null)
             return;
         super.serialize(constantPool, out);
-        out.writeDouble(this.value);
+        out.writeLong(Double.doubleToRawLongBits(this.value));
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putLong(Double.doubleToRawLongBits(this.value));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 8;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from its value,
+     * so that a constant can be looked up without being created.
+     * @param value The value of the constant.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(double value) {
+        return 31 * ConstantType.DOUBLE.getTag() + Long.hashCode(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && (obj instanceof ConstantDouble)
+                && Double.doubleToRawLongBits(((ConstantDouble) obj).value)
+                == Double.doubleToRawLongBits(this.value);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.value);
+        return this.hash;
     }
 }
@@ -0,0 +1,165 @@
+package fr.belinguier.java.compiler.constant;
+
+import fr.belinguier.java.JavaVersion;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * This Constant class represents a dynamically-computed constant in the structure of the ClassFile.<p>
+ * The value of the constant is computed by its bootstrap method, the first time it is loaded by an ldc instruction,
+ * instead of being initialized in a static initializer.
+ * The bootstrap method is registered in the BootstrapMethods attribute owned by the {@link ConstantPool},
+ * and the constant refers to it by its index in the attribute.
+ * It can itself be a static argument of a bootstrap method.<p>
+ * Dynamically-computed constants require class files of Java 11 or later:
+ * serializing one in a constant pool targeting an older version fails.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see Constant
+ * @see BootstrapMethod
+ * @see ConstantPool#setTargetVersion(JavaVersion)
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-4.html#jvms-4.4.10">ConstantDynamic in ClassFile's structure</a>
+ */
+public class ConstantDynamic extends Constant {
+
+    /**
+     * This field contains the bootstrap method computing the constant.
+     * @since 1.0
+     */
+    private final BootstrapMethod bootstrapMethod;
+
+    /**
+     * This field contains a constant which represents the name and the field descriptor of the constant.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    private final ConstantNameAndType nameAndType;
+
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
+    /**
+     * Initializes a newly created Constant object to represent a dynamically-computed constant.
+     * @param bootstrapMethod The bootstrap method computing the constant.
+     * @param nameAndType The constant that represents the name and the field descriptor of the constant.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    public ConstantDynamic(BootstrapMethod bootstrapMethod, ConstantNameAndType nameAndType) {
+        super(ConstantType.DYNAMIC);
+        if (bootstrapMethod == null)
+            throw new NullPointerException("A dynamically-computed constant must have a bootstrap method.");
+        this.bootstrapMethod = bootstrapMethod;
+        this.nameAndType = nameAndType;
+        this.hash = 31 * (31 * super.hashCode() + bootstrapMethod.hashCode()) + Objects.hashCode(nameAndType);
+    }
+
+    /**
+     * Initializes a newly created Constant object to represent a dynamically-computed constant.
+     * @param bootstrapMethod The bootstrap method computing the constant.
+     * @param name The name of the constant.
+     * @param descriptor The field descriptor of the constant, which is its type.
+     * @since 1.0
+     */
+    public ConstantDynamic(BootstrapMethod bootstrapMethod, String name, String descriptor) {
+        this(bootstrapMethod, new ConstantNameAndType(name, descriptor));
+    }
+
+    /**
+     * Returns the bootstrap method computing the constant.
+     * @return The bootstrap method.
+     * @since 1.0
+     */
+    public BootstrapMethod getBootstrapMethod() {
+        return this.bootstrapMethod;
+    }
+
+    /**
+     * Returns the constant that represents the name and the field descriptor of the constant.
+     * @return The constant that represents the name and the field descriptor of the constant.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    public ConstantNameAndType getNameAndType() {
+        return this.nameAndType;
+    }
+
+    /**
+     * Tell whether the constant is of type long or double, as given by its field descriptor.<p>
+     * Such a constant is loaded by the ldc2_w instruction, although it takes up a single entry.
+     * @return true if the descriptor is J or D, otherwise false.
+     * @since 1.0
+     */
+    public boolean isWideValue() {
+        final String descriptor;
+
+        if (this.nameAndType == null || this.nameAndType.getDescriptor() == null)
+            return false;
+        descriptor = this.nameAndType.getDescriptor().getString();
+        return descriptor.equals("J") || descriptor.equals("D");
+    }
+
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod);
+        constantPool.getOrRegister(this.nameAndType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException If the constant pool targets a version older than Java 11.
+     */
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.writeShort((short) constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod));
+        out.writeShort(constantPool.getOrRegister(this.nameAndType));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException If the constant pool targets a version older than Java 11.
+     */
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort((short) constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod));
+        out.putShort(constantPool.getOrRegister(this.nameAndType));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantDynamic constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantDynamic))
+            return false;
+        constant = (ConstantDynamic) obj;
+        return constant.bootstrapMethod.equals(this.bootstrapMethod)
+                && Objects.equals(constant.nameAndType, this.nameAndType);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -0,0 +1,662 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * This ConstantFactory class returns canonical instances of constants, shared by all their users.<p>
+ * Since constants are immutable, equal constants can be the same instance:
+ * the factory keeps the first instance created for each constant and returns it for all the equal constants.
+ * The constants referenced by a canonical constant are canonical too,
+ * so creating the same constant again does not keep any new object,
+ * and comparing canonical constants usually stops at the reference comparison.<p>
+ * The canonical constants are looked up by their components, the strings and the values they represent,
+ * so a constant that is already known is returned without creating it nor the constants it references:
+ * the hash code of the constant is computed from its components, the strings being encoded on the fly,
+ * and the candidates are compared with the components in place, without decoding their strings.
+ * The canonical instances are only weakly held by the factory:
+ * a constant that is no longer used anywhere else is evicted by the garbage collector.
+ * A factory can be used by several threads. The canonical constants are spread over several tables,
+ * each guarded by its own lock, so threads looking up different constants rarely wait for each other.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see Constant
+ */
+public class ConstantFactory {
+
+    /**
+     * The factory shared by the whole application.
+     * @since 1.0
+     */
+    private static final ConstantFactory GLOBAL = new ConstantFactory();
+
+    /**
+     * Number of bits of a hash code selecting the table of a constant.
+     * @since 1.0
+     */
+    private static final int STRIPE_BITS = 5;
+
+    /**
+     * Initial number of buckets of each table, a power of two.
+     * @since 1.0
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The tables of the canonical constants, selected by the low bits of the hash codes.
+     * @since 1.0
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Queue of the references whose constant was evicted by the garbage collector.
+     * @since 1.0
+     */
+    private final ReferenceQueue<Constant> queue;
+
+    /**
+     * Constructs a factory with no canonical constant.
+     * @since 1.0
+     */
+    public ConstantFactory() {
+        this.stripes = new Stripe[1 << STRIPE_BITS];
+        this.queue = new ReferenceQueue<Constant>();
+        for (int i = 0; i < this.stripes.length; i++)
+            this.stripes[i] = new Stripe();
+    }
+
+    /**
+     * Returns the factory shared by the whole application.
+     * @return The global factory.
+     * @since 1.0
+     */
+    public static ConstantFactory global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the canonical instance of a constant.<p>
+     * If no equal constant is known, the given constant becomes the canonical instance, as it is:
+     * the constants it references are not made canonical.
+     * @param constant The constant.
+     * @param <T> The type of the constant.
+     * @return The canonical instance equal to the constant, or null if the constant is null.
+     * @since 1.0
+     */
+    public <T extends Constant> T canonicalize(T constant) {
+        if (constant == null)
+            return null;
+        return intern(constant);
+    }
+
+    /**
+     * Spread the high bits of a hash code over its low bits, which select the table and the bucket.
+     * @param hash The hash code of a constant.
+     * @return The spread hash code.
+     * @since 1.0
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the table holding the constants having a hash code.
+     * @param hash The hash code of a constant.
+     * @return The table.
+     * @since 1.0
+     */
+    private Stripe stripeOf(int hash) {
+        return this.stripes[spread(hash) & (this.stripes.length - 1)];
+    }
+
+    /**
+     * Returns the canonical constant having some components, if it was not evicted.
+     * The components that the type of constant does not have are ignored.
+     * @param hash The hash code of the constant, computed from its components.
+     * @param constantType The type of the constant.
+     * @param first The first string of the constant, or null.
+     * @param second The second string of the constant, or null.
+     * @param third The third string of the constant, or null.
+     * @param value The raw bits of the numeric value of the constant, or 0.
+     * @return The canonical constant, or null if there is none.
+     * @since 1.0
+     */
+    private Constant lookup(int hash, ConstantType constantType, String first, String second, String third,
+                            long value) {
+        final Stripe stripe = stripeOf(hash);
+        Constant canonical;
+
+        synchronized (stripe) {
+            for (CanonicalReference reference = stripe.first(hash); reference != null; reference = reference.next) {
+                canonical = reference.get();
+                if (reference.hash == hash && canonical != null
+                        && matches(canonical, constantType, first, second, third, value))
+                    return canonical;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compare a constant with some components.
+     * @param constant The constant.
+     * @param constantType The type of the constant looked up.
+     * @param first The first string of the constant looked up, or null.
+     * @param second The second string of the constant looked up, or null.
+     * @param third The third string of the constant looked up, or null.
+     * @param value The raw bits of the numeric value of the constant looked up, or 0.
+     * @return true if the constant has the components, otherwise false.
+     * @since 1.0
+     */
+    private static boolean matches(Constant constant, ConstantType constantType, String first, String second,
+                                   String third, long value) {
+        final ConstantClass ownerClass;
+        final ConstantNameAndType nameAndType;
+
+        if (constant.getConstantType() != constantType)
+            return false;
+        switch (constantType) {
+            case UTF_8:
+                return constant instanceof ConstantUtf8 && ((ConstantUtf8) constant).contentEquals(first);
+            case INTEGER:
+                return constant instanceof ConstantInteger && ((ConstantInteger) constant).getValue() == (int) value;
+            case FLOAT:
+                return constant instanceof ConstantFloat
+                        && Float.floatToRawIntBits(((ConstantFloat) constant).getValue()) == (int) value;
+            case LONG:
+                return constant instanceof ConstantLong && ((ConstantLong) constant).getValue() == value;
+            case DOUBLE:
+                return constant instanceof ConstantDouble
+                        && Double.doubleToRawLongBits(((ConstantDouble) constant).getValue()) == value;
+            case CLASS:
+                return constant instanceof ConstantClass && matches(((ConstantClass) constant).getClassName(), first);
+            case STRING:
+                return constant instanceof ConstantString && matches(((ConstantString) constant).getValue(), first);
+            case METHOD_TYPE:
+                return constant instanceof ConstantMethodType
+                        && matches(((ConstantMethodType) constant).getDescriptor(), first);
+            case NAME_AND_TYPE:
+                return constant instanceof ConstantNameAndType
+                        && matches(((ConstantNameAndType) constant).getName(), first)
+                        && matches(((ConstantNameAndType) constant).getDescriptor(), second);
+            case FIELD_REF:
+                if (!(constant instanceof ConstantFieldRef))
+                    return false;
+                ownerClass = ((ConstantFieldRef) constant).getOwnerClass();
+                nameAndType = ((ConstantFieldRef) constant).getNameAndType();
+                break;
+            case METHOD_REF:
+                if (!(constant instanceof ConstantMethodRef))
+                    return false;
+                ownerClass = ((ConstantMethodRef) constant).getOwnerClass();
+                nameAndType = ((ConstantMethodRef) constant).getNameAndType();
+                break;
+            case INTERFACE_METHOD_REF:
+                if (!(constant instanceof ConstantInterfaceMethodRef))
+                    return false;
+                ownerClass = ((ConstantInterfaceMethodRef) constant).getOwnerClass();
+                nameAndType = ((ConstantInterfaceMethodRef) constant).getNameAndType();
+                break;
+            default:
+                return false;
+        }
+        return ownerClass != null && nameAndType != null && matches(ownerClass.getClassName(), first)
+                && matches(nameAndType.getName(), second) && matches(nameAndType.getDescriptor(), third);
+    }
+
+    /**
+     * Compare a {@link ConstantUtf8} with a string, without decoding the constant.
+     * @param constant The constant, or null.
+     * @param str The string, or null.
+     * @return true if the constant represents the string, otherwise false.
+     * @since 1.0
+     */
+    private static boolean matches(ConstantUtf8 constant, String str) {
+        return constant != null && constant.contentEquals(str);
+    }
+
+    /**
+     * Make a constant the canonical instance of the constants equal to it, unless one is already known.
+     * @param constant The constant.
+     * @param <T> The type of the constant.
+     * @return The canonical instance, which is the given constant unless an equal one was known.
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Constant> T intern(T constant) {
+        final int hash = constant.hashCode();
+        final Stripe stripe = stripeOf(hash);
+        Constant canonical;
+
+        expunge();
+        synchronized (stripe) {
+            for (CanonicalReference reference = stripe.first(hash); reference != null; reference = reference.next) {
+                canonical = reference.get();
+                if (reference.hash == hash && canonical != null && canonical.getClass() == constant.getClass()
+                        && canonical.equals(constant))
+                    return (T) canonical;
+            }
+            stripe.add(new CanonicalReference(constant, hash, this.queue));
+        }
+        return constant;
+    }
+
+    /**
+     * Remove the entries whose constant was evicted by the garbage collector.
+     * @since 1.0
+     */
+    private void expunge() {
+        CanonicalReference reference;
+        Stripe stripe;
+
+        while ((reference = (CanonicalReference) this.queue.poll()) != null) {
+            stripe = stripeOf(reference.hash);
+            synchronized (stripe) {
+                stripe.remove(reference);
+            }
+        }
+    }
+
+    /**
+     * Compute the hash code of the {@link ConstantClass} representing a class.
+     * @param className The internal name of the class.
+     * @return The hash code of the constant.
+     * @since 1.0
+     */
+    private static int classHash(String className) {
+        return ConstantClass.hashOf(ConstantUtf8.hashOf(className));
+    }
+
+    /**
+     * Compute the hash code of the {@link ConstantNameAndType} representing a name and a descriptor.
+     * @param name The name of the field or method.
+     * @param descriptor The descriptor of the field or method.
+     * @return The hash code of the constant.
+     * @since 1.0
+     */
+    private static int nameAndTypeHash(String name, String descriptor) {
+        return ConstantNameAndType.hashOf(ConstantUtf8.hashOf(name), ConstantUtf8.hashOf(descriptor));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantUtf8} representing a string.
+     * @param str The string.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantUtf8 constantUtf8(String str) {
+        final Constant canonical = lookup(ConstantUtf8.hashOf(str), ConstantType.UTF_8, str, null, null, 0);
+
+        if (canonical instanceof ConstantUtf8)
+            return (ConstantUtf8) canonical;
+        return intern(new ConstantUtf8(str));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantInteger} representing an int.
+     * @param value The int value.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantInteger constantInteger(int value) {
+        final Constant canonical = lookup(ConstantInteger.hashOf(value), ConstantType.INTEGER, null, null, null,
+                value);
+
+        if (canonical instanceof ConstantInteger)
+            return (ConstantInteger) canonical;
+        return intern(new ConstantInteger(value));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantFloat} representing a float.
+     * @param value The float value.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantFloat constantFloat(float value) {
+        final Constant canonical = lookup(ConstantFloat.hashOf(value), ConstantType.FLOAT, null, null, null,
+                Float.floatToRawIntBits(value));
+
+        if (canonical instanceof ConstantFloat)
+            return (ConstantFloat) canonical;
+        return intern(new ConstantFloat(value));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantLong} representing a long.
+     * @param value The long value.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantLong constantLong(long value) {
+        final Constant canonical = lookup(ConstantLong.hashOf(value), ConstantType.LONG, null, null, null, value);
+
+        if (canonical instanceof ConstantLong)
+            return (ConstantLong) canonical;
+        return intern(new ConstantLong(value));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantDouble} representing a double.
+     * @param value The double value.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantDouble constantDouble(double value) {
+        final Constant canonical = lookup(ConstantDouble.hashOf(value), ConstantType.DOUBLE, null, null, null,
+                Double.doubleToRawLongBits(value));
+
+        if (canonical instanceof ConstantDouble)
+            return (ConstantDouble) canonical;
+        return intern(new ConstantDouble(value));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantClass} representing a class.
+     * @param className The internal name of the class.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantClass constantClass(String className) {
+        final Constant canonical = lookup(classHash(className), ConstantType.CLASS, className, null, null, 0);
+
+        if (canonical instanceof ConstantClass)
+            return (ConstantClass) canonical;
+        return intern(new ConstantClass(constantUtf8(className)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantString} representing a string.
+     * @param value The string.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantString constantString(String value) {
+        final Constant canonical = lookup(ConstantString.hashOf(ConstantUtf8.hashOf(value)), ConstantType.STRING,
+                value, null, null, 0);
+
+        if (canonical instanceof ConstantString)
+            return (ConstantString) canonical;
+        return intern(new ConstantString(constantUtf8(value)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantNameAndType} representing a name and a descriptor.
+     * @param name The name of the field or method.
+     * @param descriptor The descriptor of the field or method.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantNameAndType constantNameAndType(String name, String descriptor) {
+        final Constant canonical = lookup(nameAndTypeHash(name, descriptor), ConstantType.NAME_AND_TYPE, name,
+                descriptor, null, 0);
+
+        if (canonical instanceof ConstantNameAndType)
+            return (ConstantNameAndType) canonical;
+        return intern(new ConstantNameAndType(constantUtf8(name), constantUtf8(descriptor)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantFieldRef} representing a field.
+     * @param ownerClass The internal name of the class declaring the field.
+     * @param name The name of the field.
+     * @param descriptor The descriptor of the field.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantFieldRef constantFieldRef(String ownerClass, String name, String descriptor) {
+        final int hash = ConstantFieldRef.hashOf(classHash(ownerClass), nameAndTypeHash(name, descriptor));
+        final Constant canonical = lookup(hash, ConstantType.FIELD_REF, ownerClass, name, descriptor, 0);
+
+        if (canonical instanceof ConstantFieldRef)
+            return (ConstantFieldRef) canonical;
+        return intern(new ConstantFieldRef(constantClass(ownerClass), constantNameAndType(name, descriptor)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantMethodRef} representing a method of a class.
+     * @param ownerClass The internal name of the class declaring the method.
+     * @param name The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantMethodRef constantMethodRef(String ownerClass, String name, String descriptor) {
+        final int hash = ConstantMethodRef.hashOf(classHash(ownerClass), nameAndTypeHash(name, descriptor));
+        final Constant canonical = lookup(hash, ConstantType.METHOD_REF, ownerClass, name, descriptor, 0);
+
+        if (canonical instanceof ConstantMethodRef)
+            return (ConstantMethodRef) canonical;
+        return intern(new ConstantMethodRef(constantClass(ownerClass), constantNameAndType(name, descriptor)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantInterfaceMethodRef} representing a method of an interface.
+     * @param ownerClass The internal name of the interface declaring the method.
+     * @param name The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantInterfaceMethodRef constantInterfaceMethodRef(String ownerClass, String name, String descriptor) {
+        final int hash = ConstantInterfaceMethodRef.hashOf(classHash(ownerClass), nameAndTypeHash(name, descriptor));
+        final Constant canonical = lookup(hash, ConstantType.INTERFACE_METHOD_REF, ownerClass, name, descriptor, 0);
+
+        if (canonical instanceof ConstantInterfaceMethodRef)
+            return (ConstantInterfaceMethodRef) canonical;
+        return intern(new ConstantInterfaceMethodRef(constantClass(ownerClass),
+                constantNameAndType(name, descriptor)));
+    }
+
+    /**
+     * Returns the canonical {@link ConstantMethodType} representing a method descriptor.
+     * @param descriptor The descriptor of the method.
+     * @return The canonical constant.
+     * @since 1.0
+     */
+    public ConstantMethodType constantMethodType(String descriptor) {
+        final Constant canonical = lookup(ConstantMethodType.hashOf(ConstantUtf8.hashOf(descriptor)),
+                ConstantType.METHOD_TYPE, descriptor, null, null, 0);
+
+        if (canonical instanceof ConstantMethodType)
+            return (ConstantMethodType) canonical;
+        return intern(new ConstantMethodType(constantUtf8(descriptor)));
+    }
+
+    /**
+     * Returns the number of canonical constants that were not evicted.
+     * @return The number of canonical constants.
+     * @since 1.0
+     */
+    public int size() {
+        int size = 0;
+
+        expunge();
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.live();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Forget all the canonical constants. The constants already returned are still valid.
+     * @since 1.0
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * This Stripe class is a hash table of references to canonical constants, chained in their buckets.
+     * It is not synchronized: the factory locks it before each use.
+     * @since 1.0
+     */
+    private static final class Stripe {
+
+        /**
+         * The buckets of the table, whose number is a power of two.
+         * @since 1.0
+         */
+        private CanonicalReference[] buckets;
+
+        /**
+         * The number of references in the table.
+         * @since 1.0
+         */
+        private int size;
+
+        /**
+         * Constructs an empty table.
+         * @since 1.0
+         */
+        private Stripe() {
+            this.buckets = new CanonicalReference[INITIAL_CAPACITY];
+        }
+
+        /**
+         * Returns the index of the bucket of a hash code, selected by the bits that do not select the table.
+         * @param hash The hash code of a constant.
+         * @param capacity The number of buckets.
+         * @return The index of the bucket.
+         * @since 1.0
+         */
+        private static int indexOf(int hash, int capacity) {
+            return (spread(hash) >>> STRIPE_BITS) & (capacity - 1);
+        }
+
+        /**
+         * Returns the first reference of the bucket of a hash code.
+         * @param hash The hash code of a constant.
+         * @return The first reference of the bucket, or null if it is empty.
+         * @since 1.0
+         */
+        private CanonicalReference first(int hash) {
+            return this.buckets[indexOf(hash, this.buckets.length)];
+        }
+
+        /**
+         * Add a reference to the table, doubling the number of buckets once they are 3/4 full.
+         * @param reference The reference.
+         * @since 1.0
+         */
+        private void add(CanonicalReference reference) {
+            final int index;
+
+            if (this.size >= this.buckets.length - (this.buckets.length >>> 2))
+                resize(this.buckets.length << 1);
+            index = indexOf(reference.hash, this.buckets.length);
+            reference.next = this.buckets[index];
+            this.buckets[index] = reference;
+            this.size++;
+        }
+
+        /**
+         * Move all the references to a new array of buckets.
+         * @param capacity The number of buckets, a power of two.
+         * @since 1.0
+         */
+        private void resize(int capacity) {
+            final CanonicalReference[] buckets = new CanonicalReference[capacity];
+            CanonicalReference next;
+            int index;
+
+            for (CanonicalReference reference : this.buckets) {
+                for (; reference != null; reference = next) {
+                    next = reference.next;
+                    index = indexOf(reference.hash, capacity);
+                    reference.next = buckets[index];
+                    buckets[index] = reference;
+                }
+            }
+            this.buckets = buckets;
+        }
+
+        /**
+         * Remove a reference from the table, if it is still there.
+         * @param reference The reference.
+         * @since 1.0
+         */
+        private void remove(CanonicalReference reference) {
+            final int index = indexOf(reference.hash, this.buckets.length);
+            CanonicalReference previous = null;
+
+            for (CanonicalReference current = this.buckets[index]; current != null; current = current.next) {
+                if (current == reference) {
+                    if (previous == null)
+                        this.buckets[index] = current.next;
+                    else
+                        previous.next = current.next;
+                    this.size--;
+                    return;
+                }
+                previous = current;
+            }
+        }
+
+        /**
+         * Count the references whose constant was not evicted.
+         * @return The number of live references.
+         * @since 1.0
+         */
+        private int live() {
+            int live = 0;
+
+            for (CanonicalReference reference : this.buckets)
+                for (; reference != null; reference = reference.next)
+                    if (reference.get() != null)
+                        live++;
+            return live;
+        }
+
+        /**
+         * Remove all the references from the table.
+         * @since 1.0
+         */
+        private void clear() {
+            this.buckets = new CanonicalReference[INITIAL_CAPACITY];
+            this.size = 0;
+        }
+
+    }
+
+    /**
+     * This CanonicalReference class weakly refers to a canonical constant, and keeps its hash code
+     * to find its entry once the constant is evicted.
+     * @since 1.0
+     */
+    private static final class CanonicalReference extends WeakReference<Constant> {
+
+        /**
+         * The hash code of the constant.
+         * @since 1.0
+         */
+        private final int hash;
+
+        /**
+         * The next reference of the bucket, or null.
+         * @since 1.0
+         */
+        private CanonicalReference next;
+
+        /**
+         * Constructs a reference to a canonical constant.
+         * @param constant The constant.
+         * @param hash The hash code of the constant.
+         * @param queue The queue in which the reference is put once the constant is evicted.
+         * @since 1.0
+         */
+        private CanonicalReference(Constant constant, int hash, ReferenceQueue<Constant> queue) {
+            super(constant, queue);
+            this.hash = hash;
+        }
+
+    }
+
+}
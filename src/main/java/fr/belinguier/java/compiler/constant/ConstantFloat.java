@@ -2,10 +2,12 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
- * This Constant class represents a float constant in the structure of the ClassFile.
+ * This Constant class represents a float constant in the structure of the ClassFile.<p>
+ * Constants are compared on the raw bits of their value, which are written as they are:
+ * each NaN bit pattern is a distinct constant, and so is the negative zero.
  * @author Eliott Belinguier
  * @since 1.0
  * @version 1.0
@@ -20,6 +22,12 @@ public class ConstantFloat extends Constant {
      */
     private final float value;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent {@link Float} number.
      * @param value The {@link Float} number that the constant should represent.
@@ -28,6 +36,7 @@ public class ConstantFloat extends Constant {
     public ConstantFloat(float value) {
         super(ConstantType.FLOAT);
         this.value = value;
+        this.hash = hashOf(value);
     }
 
     /**
@@ -44,11 +53,41 @@ public class ConstantFloat extends Constant {
         if (out == null)
             return;
         super.serialize(constantPool, out);
-        out.writeFloat(this.value);
+        out.writeInt(Float.floatToRawIntBits(this.value));
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putInt(Float.floatToRawIntBits(this.value));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from its value,
+     * so that a constant can be looked up without being created.
+     * @param value The value of the constant.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(float value) {
+        return 31 * ConstantType.FLOAT.getTag() + Float.floatToRawIntBits(value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && (obj instanceof ConstantFloat)
+                && Float.floatToRawIntBits(((ConstantFloat) obj).value) == Float.floatToRawIntBits(this.value);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.value);
+        return this.hash;
     }
 }
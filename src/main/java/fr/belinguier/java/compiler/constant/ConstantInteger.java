@@ -2,7 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
  * This Constant class represents a integer constant in the structure of the ClassFile.
@@ -20,6 +20,12 @@ public class ConstantInteger extends Constant {
      */
     private final int value;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent {@link Integer} number.
      * @param value The {@link Integer} number that the constant should represent.
@@ -28,6 +34,7 @@ public class ConstantInteger extends Constant {
     public ConstantInteger(int value) {
         super(ConstantType.INTEGER);
         this.value = value;
+        this.hash = hashOf(value);
     }
 
     /**
@@ -47,8 +54,38 @@ public class ConstantInteger extends Constant {
         out.writeInt(this.value);
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putInt(this.value);
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from its value,
+     * so that a constant can be looked up without being created.
+     * @param value The value of the constant.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int value) {
+        return 31 * ConstantType.INTEGER.getTag() + value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && (obj instanceof ConstantInteger)
+                && ((ConstantInteger) obj).value == this.value;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.value);
+        return this.hash;
     }
 }
@@ -2,6 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -30,6 +31,12 @@ public class ConstantInterfaceMethodRef extends Constant {
      */
     private final ConstantNameAndType nameAndType;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initialize a newly created Constant object to represent the interface {@link java.lang.reflect.Method} reference.
      * @param ownerClass The constant of the class that owns the interface {@link java.lang.reflect.Method}.
@@ -42,6 +49,7 @@ public class ConstantInterfaceMethodRef extends Constant {
         super(ConstantType.INTERFACE_METHOD_REF);
         this.ownerClass = ownerClass;
         this.nameAndType = nameAndType;
+        this.hash = hashOf(Objects.hashCode(ownerClass), Objects.hashCode(nameAndType));
     }
 
     /**
@@ -75,6 +83,14 @@ public class ConstantInterfaceMethodRef extends Constant {
         return this.nameAndType;
     }
 
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.ownerClass);
+        constantPool.getOrRegister(this.nameAndType);
+    }
+
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (constantPool == null || out == null)
@@ -84,8 +100,46 @@ public class ConstantInterfaceMethodRef extends Constant {
         out.writeShort(constantPool.getOrRegister(this.nameAndType));
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort(constantPool.getOrRegister(this.ownerClass));
+        out.putShort(constantPool.getOrRegister(this.nameAndType));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from the hash codes of its owner class and its name and type,
+     * so that a constant can be looked up without being created.
+     * @param ownerClassHash The hash code of the constant representing the owner class.
+     * @param nameAndTypeHash The hash code of the constant representing the name and type.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int ownerClassHash, int nameAndTypeHash) {
+        return 31 * (31 * ConstantType.INTERFACE_METHOD_REF.getTag() + ownerClassHash) + nameAndTypeHash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantInterfaceMethodRef constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantInterfaceMethodRef))
+            return false;
+        constant = (ConstantInterfaceMethodRef) obj;
+        return Objects.equals(constant.ownerClass, this.ownerClass) && Objects.equals(constant.nameAndType, this.nameAndType);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.ownerClass, this.nameAndType);
+        return this.hash;
     }
 }
@@ -0,0 +1,135 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * This Constant class represents a dynamically-computed call site in the structure of the ClassFile.<p>
+ * The call site is linked by its bootstrap method, the first time the invokedynamic instruction referring to it is run.
+ * The bootstrap method is registered in the BootstrapMethods attribute owned by the {@link ConstantPool},
+ * and the constant refers to it by its index in the attribute.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see Constant
+ * @see BootstrapMethod
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.10">ConstantInvokeDynamic in ClassFile's structure</a>
+ */
+public class ConstantInvokeDynamic extends Constant {
+
+    /**
+     * This field contains the bootstrap method linking the call site.
+     * @since 1.0
+     */
+    private final BootstrapMethod bootstrapMethod;
+
+    /**
+     * This field contains a constant which represents the name and the method descriptor of the call site.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    private final ConstantNameAndType nameAndType;
+
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
+    /**
+     * Initializes a newly created Constant object to represent a dynamically-computed call site.
+     * @param bootstrapMethod The bootstrap method linking the call site.
+     * @param nameAndType The constant that represents the name and the method descriptor of the call site.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    public ConstantInvokeDynamic(BootstrapMethod bootstrapMethod, ConstantNameAndType nameAndType) {
+        super(ConstantType.INVOKE_DYNAMIC);
+        if (bootstrapMethod == null)
+            throw new NullPointerException("A dynamically-computed call site must have a bootstrap method.");
+        this.bootstrapMethod = bootstrapMethod;
+        this.nameAndType = nameAndType;
+        this.hash = 31 * (31 * super.hashCode() + bootstrapMethod.hashCode()) + Objects.hashCode(nameAndType);
+    }
+
+    /**
+     * Initializes a newly created Constant object to represent a dynamically-computed call site.
+     * @param bootstrapMethod The bootstrap method linking the call site.
+     * @param name The name of the call site.
+     * @param descriptor The method descriptor of the call site.
+     * @since 1.0
+     */
+    public ConstantInvokeDynamic(BootstrapMethod bootstrapMethod, String name, String descriptor) {
+        this(bootstrapMethod, new ConstantNameAndType(name, descriptor));
+    }
+
+    /**
+     * Returns the bootstrap method linking the call site.
+     * @return The bootstrap method.
+     * @since 1.0
+     */
+    public BootstrapMethod getBootstrapMethod() {
+        return this.bootstrapMethod;
+    }
+
+    /**
+     * Returns the constant that represents the name and the method descriptor of the call site.
+     * @return The constant that represents the name and the method descriptor of the call site.
+     * @since 1.0
+     * @see ConstantNameAndType
+     */
+    public ConstantNameAndType getNameAndType() {
+        return this.nameAndType;
+    }
+
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod);
+        constantPool.getOrRegister(this.nameAndType);
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.writeShort((short) constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod));
+        out.writeShort(constantPool.getOrRegister(this.nameAndType));
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort((short) constantPool.getOrRegisterBootstrapMethod(this.bootstrapMethod));
+        out.putShort(constantPool.getOrRegister(this.nameAndType));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantInvokeDynamic constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantInvokeDynamic))
+            return false;
+        constant = (ConstantInvokeDynamic) obj;
+        return constant.bootstrapMethod.equals(this.bootstrapMethod)
+                && Objects.equals(constant.nameAndType, this.nameAndType);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
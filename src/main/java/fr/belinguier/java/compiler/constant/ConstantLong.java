@@ -2,7 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
  * This Constant class represents a long constant in the structure of the ClassFile.
@@ -20,6 +20,12 @@ public class ConstantLong extends Constant {
      */
     private final long value;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent {@link Long} number.
      * @param value The {@link Long} number that the constant should represent.
@@ -28,6 +34,7 @@ public class ConstantLong extends Constant {
     public ConstantLong(long value) {
         super(ConstantType.LONG);
         this.value = value;
+        this.hash = hashOf(value);
     }
 
     /**
@@ -47,8 +54,38 @@ public class ConstantLong extends Constant {
         out.writeLong(this.value);
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putLong(this.value);
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 8;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from its value,
+     * so that a constant can be looked up without being created.
+     * @param value The value of the constant.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(long value) {
+        return 31 * ConstantType.LONG.getTag() + Long.hashCode(value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && (obj instanceof ConstantLong)
+                && ((ConstantLong) obj).value == this.value;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.value);
+        return this.hash;
     }
 }
@@ -0,0 +1,126 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * This Constant class represents a method handle constant in the structure of the ClassFile.<p>
+ * A method handle refers to a field or a method, and its kind tells how the field or the method is accessed.
+ * It is loadable by the ldc instruction, and is the first item of a {@link BootstrapMethod}.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see Constant
+ * @see ReferenceKind
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.8">ConstantMethodHandle in ClassFile's structure</a>
+ */
+public class ConstantMethodHandle extends Constant {
+
+    /**
+     * This field contains the kind of the method handle.
+     * @since 1.0
+     */
+    private final ReferenceKind referenceKind;
+
+    /**
+     * This field contains the constant of the field or the method referred to by the method handle.
+     * @since 1.0
+     * @see ConstantFieldRef
+     * @see ConstantMethodRef
+     * @see ConstantInterfaceMethodRef
+     */
+    private final Constant reference;
+
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
+    /**
+     * Initializes a newly created Constant object to represent a method handle.
+     * @param referenceKind The kind of the method handle.
+     * @param reference The constant of the field or the method referred to.
+     * @throws IllegalArgumentException If the kind of the method handle cannot refer to this type of constant.
+     * @since 1.0
+     * @see ReferenceKind#accepts(ConstantType)
+     */
+    public ConstantMethodHandle(ReferenceKind referenceKind, Constant reference) {
+        super(ConstantType.METHOD_HANDLE);
+        if (referenceKind == null)
+            throw new NullPointerException("A method handle must have a reference kind.");
+        if (reference != null && !referenceKind.accepts(reference.getConstantType()))
+            throw new IllegalArgumentException("A method handle of kind " + referenceKind
+                    + " cannot refer to a constant of type " + reference.getConstantType() + '.');
+        this.referenceKind = referenceKind;
+        this.reference = reference;
+        this.hash = 31 * (31 * super.hashCode() + referenceKind.getKind()) + Objects.hashCode(reference);
+    }
+
+    /**
+     * Returns the kind of the method handle.
+     * @return The kind of the method handle.
+     * @since 1.0
+     */
+    public ReferenceKind getReferenceKind() {
+        return this.referenceKind;
+    }
+
+    /**
+     * Returns the constant of the field or the method referred to by the method handle.
+     * @return The constant of the field or the method.
+     * @since 1.0
+     */
+    public Constant getReference() {
+        return this.reference;
+    }
+
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.reference);
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.writeByte(this.referenceKind.getKind());
+        out.writeShort(constantPool.getOrRegister(this.reference));
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.put(this.referenceKind.getKind());
+        out.putShort(constantPool.getOrRegister(this.reference));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 3;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantMethodHandle constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantMethodHandle))
+            return false;
+        constant = (ConstantMethodHandle) obj;
+        return constant.referenceKind == this.referenceKind && Objects.equals(constant.reference, this.reference);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
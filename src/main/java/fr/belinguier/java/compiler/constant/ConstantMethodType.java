@@ -2,6 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -21,6 +22,12 @@ public class ConstantMethodType extends Constant {
      */
     private final ConstantUtf8 descriptor;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent the description of a {@link java.lang.reflect.Method}.
      * @param descriptor Description of the method to be as a {@link ConstantUtf8}.
@@ -30,6 +37,7 @@ public class ConstantMethodType extends Constant {
     public ConstantMethodType(ConstantUtf8 descriptor) {
         super(ConstantType.METHOD_TYPE);
         this.descriptor = descriptor;
+        this.hash = hashOf(Objects.hashCode(descriptor));
     }
 
     /**
@@ -50,6 +58,13 @@ public class ConstantMethodType extends Constant {
         return this.descriptor;
     }
 
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.descriptor);
+    }
+
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (constantPool == null || out == null)
@@ -58,8 +73,38 @@ public class ConstantMethodType extends Constant {
         out.writeShort(constantPool.getOrRegister(this.descriptor));
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort(constantPool.getOrRegister(this.descriptor));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 2;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from the hash code of the descriptor,
+     * so that a constant can be looked up without being created.
+     * @param descriptorHash The hash code of the constant representing the descriptor.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int descriptorHash) {
+        return 31 * ConstantType.METHOD_TYPE.getTag() + descriptorHash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || super.equals(obj) && (obj instanceof ConstantMethodType)
+                && Objects.equals(((ConstantMethodType) obj).descriptor, this.descriptor);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.descriptor);
+        return this.hash;
     }
 }
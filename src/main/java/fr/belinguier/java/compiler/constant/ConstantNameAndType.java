@@ -2,6 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -28,6 +29,12 @@ public class ConstantNameAndType extends Constant {
      */
     private final ConstantUtf8 descriptor;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created Constant object to represent the name and description of a {@link java.lang.reflect.Field} or a {@link java.lang.reflect.Method}.
      * @param name Name of the field or the method to be represented, as a {@link ConstantUtf8}.
@@ -38,6 +45,7 @@ public class ConstantNameAndType extends Constant {
         super(ConstantType.NAME_AND_TYPE);
         this.name = name;
         this.descriptor = descriptor;
+        this.hash = hashOf(Objects.hashCode(name), Objects.hashCode(descriptor));
     }
 
     /**
@@ -68,6 +76,14 @@ public class ConstantNameAndType extends Constant {
         return this.descriptor;
     }
 
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.name);
+        constantPool.getOrRegister(this.descriptor);
+    }
+
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (constantPool == null || out == null)
@@ -77,8 +93,46 @@ public class ConstantNameAndType extends Constant {
         out.writeShort(constantPool.getOrRegister(this.descriptor));
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort(constantPool.getOrRegister(this.name));
+        out.putShort(constantPool.getOrRegister(this.descriptor));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 4;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from the hash codes of its name and descriptor,
+     * so that a constant can be looked up without being created.
+     * @param nameHash The hash code of the constant representing the name.
+     * @param descriptorHash The hash code of the constant representing the descriptor.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int nameHash, int descriptorHash) {
+        return 31 * (31 * ConstantType.NAME_AND_TYPE.getTag() + nameHash) + descriptorHash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantNameAndType constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantNameAndType))
+            return false;
+        constant = (ConstantNameAndType) obj;
+        return Objects.equals(constant.name, this.name) && Objects.equals(constant.descriptor, this.descriptor);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(this.getConstantType(), this.name, this.descriptor);
+        return this.hash;
     }
 }
@@ -1,14 +1,13 @@
 package fr.belinguier.java.compiler.constant;
 
+import fr.belinguier.java.JavaVersion;
 import fr.belinguier.java.compiler.Serializable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * This ConstantPool class represents the pool of constants in ClassFile structure.<p>
@@ -20,15 +19,42 @@ import java.util.concurrent.ConcurrentSkipListSet;
  * @version 1.0
  * @see Constant
  * @see ConstantType
+ * @see ConcurrentConstantPool
+ * @see FrozenConstantPool
+ * @see CompactConstantPool
+ * @see BootstrapMethod
  * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4">ClassFile Structure's Constant Pool</a>
  */
 public class ConstantPool implements Serializable, Iterable<Constant> {
 
     /**
-     * List of registered constants.
+     * Highest value of the constant_pool_count item, which is an unsigned 2-byte value in the ClassFile structure.
      * @since 1.0
      */
-    private final LinkedHashSet<Constant> constants;
+    public static final int MAX_COUNT = 0xFFFF;
+
+    /**
+     * List of registered constants, in registration order.
+     * @since 1.0
+     */
+    private final ArrayList<Constant> constants;
+
+    /**
+     * Table associating each registered constant with its index in the constant pool.<p>
+     * It is maintained on each registration and unregistration,
+     * so that finding the index of a constant does not require to go through the pool.
+     * @since 1.0
+     */
+    private HashMap<Constant, Integer> indexes;
+
+    /**
+     * Table associating each registered numeric constant with its index, keyed by the raw bits of its value,
+     * or null until a numeric constant is registered.<p>
+     * The numeric constants are kept out of {@link #indexes}, so registering them does not allocate any entry.
+     * @since 1.0
+     * @see NumericIndexTable
+     */
+    private NumericIndexTable numericIndexes;
 
     /**
      * This field saves the offset produced by {@link ConstantLong} and {@link ConstantDouble}.<p>
@@ -41,22 +67,154 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      */
     private int offset;
 
+    /**
+     * Number of registered constants, in registration order, whose referenced constants have been registered.
+     * @since 1.0
+     * @see #resolve()
+     */
+    private int resolved;
+
+    /**
+     * Number of bytes taken up by the registered constants once serialized.<p>
+     * It is maintained on each registration and unregistration.
+     * @since 1.0
+     * @see #serializedSize()
+     */
+    private int size;
+
+    /**
+     * The constant pool whose first constants are shared by this one, or null.<p>
+     * The shared constants keep the index they have in the parent and are not copied:
+     * this constant pool only holds the constants registered after them.
+     * @since 1.0
+     * @see #ConstantPool(ConstantPool)
+     */
+    private ConstantPool parent;
+
+    /**
+     * Number of entries of the parent shared by this constant pool.<p>
+     * {@link ConstantLong} and {@link ConstantDouble} take up two entries.
+     * @since 1.0
+     */
+    private int parentEntries;
+
+    /**
+     * Number of bytes taken up by the constants shared with the parent once serialized.
+     * @since 1.0
+     */
+    private int parentSize;
+
+    /**
+     * The listener notified of the activity of this constant pool, or null to measure nothing.
+     * It is volatile since {@link ConcurrentConstantPool} reads it without locking on its lookup path.
+     * @since 1.0
+     * @see #setListener(ConstantPoolListener)
+     */
+    private volatile ConstantPoolListener listener;
+
+    /**
+     * Number of serializations in progress, during which the lookups made by the constants
+     * for their references are not reported to the listener.
+     * @since 1.0
+     */
+    private int serializing;
+
+    /**
+     * The Java version of the class file holding this constant pool, or null if it is not checked.
+     * @since 1.0
+     * @see #setTargetVersion(JavaVersion)
+     */
+    private JavaVersion targetVersion;
+
+    /**
+     * Name of the attribute of the ClassFile structure holding the bootstrap methods.
+     * @since 1.0
+     */
+    private static final ConstantUtf8 BOOTSTRAP_METHODS = new ConstantUtf8("BootstrapMethods");
+
+    /**
+     * List of registered bootstrap methods, in registration order, which is their index in the BootstrapMethods attribute.
+     * @since 1.0
+     * @see BootstrapMethod
+     */
+    private final ArrayList<BootstrapMethod> bootstrapMethods;
+
+    /**
+     * Table associating each registered bootstrap method with its index in the BootstrapMethods attribute.
+     * @since 1.0
+     */
+    private final HashMap<BootstrapMethod, Integer> bootstrapIndexes;
+
     /**
      * Constructs an empty constants pool.
      * @since 1.0
      */
     public ConstantPool() {
-        this.constants = new LinkedHashSet<Constant>();
+        this(true);
+    }
+
+    /**
+     * Constructs an empty constants pool, which stores its constants or only keeps the bootstrap methods.<p>
+     * A subclass that stores its constants itself, or does not store them at all, does not need
+     * the list and the tables of the constants, but it must then override all the methods using them:
+     * {@link #getConstants()}, {@link #getCount()}, {@link #indexOf(Constant)}, {@link #registerAll(Constant...)},
+     * {@link #registerConstant(Constant)}, {@link #unRegisterConstant(Constant)}, {@link #getOrRegister(Constant)},
+     * {@link #unRegisterAll()}, {@link #resolve()}, {@link #iterator()} and the serialization methods,
+     * unless they are never called on it.
+     * @param storing true to allocate the list and the tables of the constants, false to leave them null.
+     * @since 1.0
+     */
+    ConstantPool(boolean storing) {
+        this.constants = storing ? new ArrayList<Constant>() : null;
+        this.indexes = storing ? new HashMap<Constant, Integer>() : null;
+        this.bootstrapMethods = new ArrayList<BootstrapMethod>();
+        this.bootstrapIndexes = new HashMap<BootstrapMethod, Integer>();
         this.offset = 0;
+        this.resolved = 0;
+        this.size = 0;
     }
 
     /**
-     * Constructs a copy of a constant pool.
+     * Constructs a copy of a constant pool, in constant time.<p>
+     * The copy shares the constants of the given pool, with the same indexes, instead of copying them:
+     * the lookups fall through to the given pool, and only the constants registered afterwards are held by the copy.
+     * The constants referenced by the constants of the given pool are registered in it first,
+     * as during the serialization.
+     * The given pool can still register new constants, which are not seen by the copy,
+     * but it must not unregister constants as long as the copy is used.
+     * Sharing a {@link FrozenConstantPool} avoids this constraint.
+     * Unregistering a shared constant from the copy first copies the shared constants.
+     * The bootstrap methods of the given pool are copied, with the same indexes, and so is its target version.
+     * @param constantPool The constant pool to copy.
      * @since 1.0
      */
     public ConstantPool(ConstantPool constantPool) {
-        this.constants = (constantPool != null) ? new LinkedHashSet<Constant>(constantPool.constants)
-                : new LinkedHashSet<Constant>();
+        this();
+        if (constantPool == null)
+            return;
+        constantPool.resolve();
+        this.parent = constantPool;
+        this.parentEntries = constantPool.getCount() - 1;
+        this.parentSize = constantPool.serializedSize() - 2;
+        this.targetVersion = constantPool.targetVersion;
+        for (BootstrapMethod bootstrapMethod : constantPool.getBootstrapMethods()) {
+            this.bootstrapIndexes.put(bootstrapMethod, this.bootstrapMethods.size());
+            this.bootstrapMethods.add(bootstrapMethod);
+        }
+    }
+
+    /**
+     * Creates a constant pool seeded with the constant pool of a parsed class file.<p>
+     * The entries of the class file keep their index and their bytes, which are copied as is during the serialization,
+     * and the constants registered afterwards are appended after them.
+     * Looking up a constant of the class file gives its original index, the first one if it is duplicated.
+     * @param reader The reader of the constant pool of the class file.
+     * @return The new constant pool, sharing a {@link FrozenConstantPool} of the entries of the class file.
+     * @since 1.0
+     * @see FrozenConstantPool#FrozenConstantPool(ConstantPoolReader)
+     */
+    public static ConstantPool passthrough(ConstantPoolReader reader) {
+        return new ConstantPool(new FrozenConstantPool(reader));
     }
 
     /**
@@ -65,7 +223,85 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      * @since 1.0
      */
     public Constant[] getConstants() {
-        return this.constants.toArray(new Constant[0]);
+        final Constant[] inheritedConstants;
+        final Constant[] constants;
+        int length;
+
+        if (this.parent == null)
+            return this.constants.toArray(new Constant[0]);
+        inheritedConstants = this.parent.getConstants();
+        length = 0;
+        for (int entries = 0; entries < this.parentEntries && length < inheritedConstants.length; length++)
+            entries += isWide(inheritedConstants[length]) ? 2 : 1;
+        constants = Arrays.copyOf(inheritedConstants, length + this.constants.size());
+        for (int i = 0; i < this.constants.size(); i++)
+            constants[length + i] = this.constants.get(i);
+        return constants;
+    }
+
+    /**
+     * Returns the listener notified of the activity of this constant pool.
+     * @return The listener, or null if there is none.
+     * @since 1.0
+     */
+    public ConstantPoolListener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Set the listener notified of the activity of this constant pool.<p>
+     * A copy of this constant pool does not share its listener.
+     * @param listener The listener, or null to stop measuring anything.
+     * @since 1.0
+     * @see ConstantPoolStatistics
+     */
+    public void setListener(ConstantPoolListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Tell whether this constant pool is being serialized by the current thread,
+     * in which case the lookups made by the constants for their references are not reported to the listener.
+     * @return true during a serialization, otherwise false.
+     * @since 1.0
+     */
+    boolean isSerializing() {
+        return this.serializing != 0;
+    }
+
+    /**
+     * Returns the Java version of the class file holding this constant pool.
+     * @return The target version, or null if it is not checked.
+     * @since 1.0
+     * @see #setTargetVersion(JavaVersion)
+     */
+    public JavaVersion getTargetVersion() {
+        return this.targetVersion;
+    }
+
+    /**
+     * Set the Java version of the class file holding this constant pool.<p>
+     * Serializing a constant that this version does not support, such as a {@link ConstantMethodHandle} before Java 7
+     * or a {@link ConstantDynamic} before Java 11, throws an {@link IllegalStateException}.
+     * @param targetVersion The target version, or null to check nothing.
+     * @since 1.0
+     * @see ConstantType#getMinimumVersion()
+     */
+    public void setTargetVersion(JavaVersion targetVersion) {
+        this.targetVersion = targetVersion;
+    }
+
+    /**
+     * Returns the constant_pool_count item of the ClassFile structure.<p>
+     * It is equal to the number of entries in the constant pool plus one,
+     * {@link ConstantLong} and {@link ConstantDouble} taking up two entries.
+     * The constants referenced by the registered constants are not counted until they are resolved.
+     * @return The constant_pool_count item of the ClassFile structure.
+     * @since 1.0
+     * @see #resolve()
+     */
+    public int getCount() {
+        return this.parentEntries + this.constants.size() + this.offset + 1;
     }
 
     /**
@@ -76,23 +312,143 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.5">Constant Long and Double in ClassFile Structure's Constant Pool</a>
      */
     public short indexOf(Constant constant) {
-        int targetHashCode;
-        Constant[] constants;
-        ConstantType constantType;
-        int offset = 0;
+        final int index;
 
         if (constant == null)
             return 0;
-        targetHashCode = constant.hashCode();
-        constants = getConstants();
-        for (int i = 0; i < constants.length; i++) {
-            constantType = constants[i].getConstantType();
-            if (constants[i].hashCode() == targetHashCode)
-                return (short) (i + offset + 1);
-            if (constantType == ConstantType.DOUBLE || constantType == ConstantType.LONG)
-                ++offset;
+        index = registeredIndexOf(constant);
+        if (index != 0)
+            return (short) index;
+        return inheritedIndexOf(constant);
+    }
+
+    /**
+     * Find the index of a constant among the constants held by this constant pool.
+     * @param constant The constant sought.
+     * @return The index in the constant pool array, or 0 if the constant is not held by this constant pool.
+     * @since 1.0
+     */
+    private int registeredIndexOf(Constant constant) {
+        final Integer index;
+
+        if (NumericIndexTable.isNumeric(constant))
+            return (this.numericIndexes != null) ? this.numericIndexes.get(constant) : 0;
+        index = this.indexes.get(constant);
+        return (index != null) ? index : 0;
+    }
+
+    /**
+     * Associate a constant held by this constant pool with its index.
+     * @param constant The constant.
+     * @param index The index in the constant pool array.
+     * @since 1.0
+     */
+    private void putIndex(Constant constant, int index) {
+        if (!NumericIndexTable.isNumeric(constant)) {
+            this.indexes.put(constant, index);
+            return;
         }
-        return 0;
+        if (this.numericIndexes == null)
+            this.numericIndexes = new NumericIndexTable();
+        this.numericIndexes.put(constant, index);
+    }
+
+    /**
+     * Forget the index of a constant held by this constant pool.
+     * @param constant The constant.
+     * @return The index the constant had, or 0 if it was not held by this constant pool.
+     * @since 1.0
+     */
+    private int removeIndex(Constant constant) {
+        final Integer index;
+
+        if (NumericIndexTable.isNumeric(constant))
+            return (this.numericIndexes != null) ? this.numericIndexes.remove(constant) : 0;
+        index = this.indexes.remove(constant);
+        return (index != null) ? index : 0;
+    }
+
+    /**
+     * Forget the index of all the constants held by this constant pool.
+     * @since 1.0
+     */
+    private void clearIndexes() {
+        this.indexes.clear();
+        if (this.numericIndexes != null)
+            this.numericIndexes.clear();
+    }
+
+    /**
+     * Find the index of a constant among the constants shared with the parent.
+     * @param constant The constant sought.
+     * @return The index in the constant pool array, or 0 if the constant is not shared with the parent.
+     * @since 1.0
+     */
+    private short inheritedIndexOf(Constant constant) {
+        final int index;
+
+        if (this.parent == null)
+            return 0;
+        index = this.parent.indexOf(constant) & 0xFFFF;
+        return (index <= this.parentEntries) ? (short) index : 0;
+    }
+
+    /**
+     * Register several constants at once, with the constants they reference.<p>
+     * The tables of the constant pool are sized once for all the given constants,
+     * and the constants referenced by each constant are registered before it,
+     * so the constants do not have to be resolved afterwards.
+     * @param constants The constants to register.
+     * @return The index of each given constant, in the same order, 0 for the null or invalid constants.
+     * @since 1.0
+     * @see #resolve()
+     */
+    public int[] registerAll(Constant... constants) {
+        final ChildRegistrar registrar;
+        final int[] indexes;
+        final boolean resolved;
+
+        if (constants == null)
+            return new int[0];
+        reserve(constants.length);
+        resolved = this.resolved == this.constants.size();
+        registrar = new ChildRegistrar(this);
+        indexes = new int[constants.length];
+        for (int i = 0; i < constants.length; i++)
+            indexes[i] = registrar.register(constants[i]);
+        if (resolved)
+            this.resolved = this.constants.size();
+        return indexes;
+    }
+
+    /**
+     * Register several constants at once, with the constants they reference.
+     * @param constants The constants to register.
+     * @return The index of each given constant, in iteration order, 0 for the null or invalid constants.
+     * @since 1.0
+     * @see #registerAll(Constant...)
+     */
+    public int[] registerAll(Collection<? extends Constant> constants) {
+        if (constants == null)
+            return new int[0];
+        return registerAll(constants.toArray(new Constant[0]));
+    }
+
+    /**
+     * Grow the tables of the constant pool so that they can hold more constants without being resized.
+     * @param length The number of constants that will be registered.
+     * @since 1.0
+     */
+    private void reserve(int length) {
+        final int expected = this.constants.size() + length;
+        final HashMap<Constant, Integer> indexes;
+
+        this.constants.ensureCapacity(expected);
+        if (expected <= this.indexes.size() * 2)
+            return;
+        indexes = new HashMap<Constant, Integer>(expected * 4 / 3 + 1);
+        indexes.putAll(this.indexes);
+        this.indexes = indexes;
     }
 
     /**
@@ -102,31 +458,91 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      * @since 1.0
      */
     public boolean registerConstant(Constant constant) {
-        ConstantType constantType;
-
-        if (constant == null)
+        if (constant == null || constant.getConstantType() == null)
             return false;
-        constantType = constant.getConstantType();
-        if (constantType == null)
+        if (registeredIndexOf(constant) != 0 || inheritedIndexOf(constant) != 0)
             return false;
-        if (this.constants.add(constant)) {
-            if (constantType == ConstantType.DOUBLE || constantType == ConstantType.LONG)
-                ++this.offset;
-            return true;
-        }
-        return false;
+        append(constant);
+        return true;
     }
 
     /**
-     * Unregister the desired constant from the constant pool.
+     * Register a constant that is not yet registered at the end of the constant pool.
+     * @param constant The constant to register.
+     * @return The index of the constant in the array.
+     * @since 1.0
+     */
+    private int append(Constant constant) {
+        final int index = getCount();
+        final ConstantPoolListener listener = this.listener;
+
+        this.constants.add(constant);
+        putIndex(constant, index);
+        this.size += constant.serializedSize();
+        if (isWide(constant))
+            ++this.offset;
+        if (listener != null)
+            listener.registered(this, constant, index);
+        return index;
+    }
+
+    /**
+     * Unregister the desired constant from the constant pool.<p>
+     * The constants registered after it are moved back, so their index changes.
      * @param constant The constant to unregister.
      * @return true if the constant was successfully unregistered otherwise false if the constant was not registered or null.
      * @since 1.0
      */
     public boolean unRegisterConstant(Constant constant) {
+        final int index;
+        Constant current;
+        int position;
+        int next;
+
         if (constant == null)
             return false;
-        return this.constants.remove(constant);
+        if (inheritedIndexOf(constant) != 0)
+            detach();
+        index = removeIndex(constant);
+        if (index == 0)
+            return false;
+        next = this.parentEntries + 1;
+        position = 0;
+        while (next != index)
+            next += isWide(this.constants.get(position++)) ? 2 : 1;
+        current = this.constants.remove(position);
+        this.size -= current.serializedSize();
+        if (isWide(current))
+            --this.offset;
+        if (position < this.resolved)
+            --this.resolved;
+        for (; position < this.constants.size(); position++) {
+            current = this.constants.get(position);
+            putIndex(current, next);
+            next += isWide(current) ? 2 : 1;
+        }
+        return true;
+    }
+
+    /**
+     * Copy the constants shared with the parent into this constant pool, which then no longer depends on it.<p>
+     * The indexes of the constants do not change.
+     * @since 1.0
+     */
+    private void detach() {
+        final Constant[] constants = getConstants();
+        final int inheritedLength = constants.length - this.constants.size();
+
+        this.constants.clear();
+        clearIndexes();
+        this.offset = 0;
+        this.size = 0;
+        this.resolved += inheritedLength;
+        this.parent = null;
+        this.parentEntries = 0;
+        this.parentSize = 0;
+        for (Constant constant : constants)
+            append(constant);
     }
 
     /**
@@ -136,14 +552,29 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      * @since 1.0
      */
     public short getOrRegister(Constant constant) {
-        short index;
+        final ConstantPoolListener listener = this.listener;
+        final int registeredIndex;
+        final short inheritedIndex;
 
         if (constant == null)
             return 0;
-        index = (short) (this.constants.size() + this.offset + 1);
-        if (!registerConstant(constant))
-            return indexOf(constant);
-        return index;
+        registeredIndex = registeredIndexOf(constant);
+        if (registeredIndex != 0) {
+            if (listener != null && this.serializing == 0)
+                listener.lookedUp(this, constant, true);
+            return (short) registeredIndex;
+        }
+        inheritedIndex = inheritedIndexOf(constant);
+        if (inheritedIndex != 0) {
+            if (listener != null && this.serializing == 0)
+                listener.lookedUp(this, constant, true);
+            return inheritedIndex;
+        }
+        if (constant.getConstantType() == null)
+            return 0;
+        if (listener != null && this.serializing == 0)
+            listener.lookedUp(this, constant, false);
+        return (short) append(constant);
     }
 
     /**
@@ -152,37 +583,619 @@ public class ConstantPool implements Serializable, Iterable<Constant> {
      */
     public void unRegisterAll() {
         this.constants.clear();
+        clearIndexes();
+        unRegisterBootstrapMethods();
         this.offset = 0;
+        this.resolved = 0;
+        this.size = 0;
+        this.parent = null;
+        this.parentEntries = 0;
+        this.parentSize = 0;
+    }
+
+    /**
+     * Register a bootstrap method in the BootstrapMethods attribute if not, otherwise get its index.<p>
+     * Equal bootstrap methods share a single entry of the attribute.
+     * The method handle and the arguments of a new bootstrap method are registered in the constant pool,
+     * as well as the name of the attribute.
+     * @param bootstrapMethod The bootstrap method to register/sought.
+     * @return The index of the bootstrap method in the attribute, or -1 if it is null.
+     * @since 1.0
+     * @see ConstantInvokeDynamic
+     */
+    public int getOrRegisterBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        final Integer registeredIndex;
+        final int index;
+
+        if (bootstrapMethod == null)
+            return -1;
+        registeredIndex = this.bootstrapIndexes.get(bootstrapMethod);
+        if (registeredIndex != null)
+            return registeredIndex;
+        getOrRegister(BOOTSTRAP_METHODS);
+        bootstrapMethod.resolve(this);
+        index = this.bootstrapMethods.size();
+        this.bootstrapMethods.add(bootstrapMethod);
+        this.bootstrapIndexes.put(bootstrapMethod, index);
+        return index;
+    }
+
+    /**
+     * Find the index of a bootstrap method in the BootstrapMethods attribute.
+     * @param bootstrapMethod The bootstrap method sought.
+     * @return The index of the bootstrap method in the attribute, or -1 if it is not registered.
+     * @since 1.0
+     */
+    public int indexOfBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        final Integer index;
+
+        if (bootstrapMethod == null)
+            return -1;
+        index = this.bootstrapIndexes.get(bootstrapMethod);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * Returns the registered bootstrap methods, by index in the BootstrapMethods attribute.
+     * @return The array of registered bootstrap methods.
+     * @since 1.0
+     */
+    public BootstrapMethod[] getBootstrapMethods() {
+        return this.bootstrapMethods.toArray(new BootstrapMethod[0]);
+    }
+
+    /**
+     * Unregister all the bootstrap methods, but not the constants they refer to.
+     * @since 1.0
+     */
+    void unRegisterBootstrapMethods() {
+        this.bootstrapMethods.clear();
+        this.bootstrapIndexes.clear();
+    }
+
+    /**
+     * Compute the number of bytes of the BootstrapMethods attribute, with its name and length items.
+     * @return The size of the attribute, or 0 if no bootstrap method is registered.
+     * @since 1.0
+     */
+    public int bootstrapMethodsSize() {
+        int size;
+
+        if (this.bootstrapMethods.isEmpty())
+            return 0;
+        size = 8;
+        for (BootstrapMethod bootstrapMethod : this.bootstrapMethods)
+            size += bootstrapMethod.serializedSize();
+        return size;
+    }
+
+    /**
+     * Serialize the BootstrapMethods attribute in the given byte stream. Nothing is written if no bootstrap method is registered.<p>
+     * The attribute refers to the constants of this constant pool, so it must be written once the pool is complete.
+     * @param out The byte stream.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.7.21">BootstrapMethods attribute in ClassFile's structure</a>
+     */
+    public void serializeBootstrapMethods(final DataOutputStream out) throws IOException {
+        final int size = bootstrapMethodsSize();
+
+        if (out == null || size == 0)
+            return;
+        this.serializing++;
+        try {
+            out.writeShort(getOrRegister(BOOTSTRAP_METHODS));
+            out.writeInt(size - 6);
+            out.writeShort((short) this.bootstrapMethods.size());
+            for (BootstrapMethod bootstrapMethod : this.bootstrapMethods)
+                bootstrapMethod.serialize(this, out);
+        } finally {
+            this.serializing--;
+        }
+    }
+
+    /**
+     * Serialize the BootstrapMethods attribute in the given byte buffer. Nothing is written if no bootstrap method is registered.<p>
+     * The attribute refers to the constants of this constant pool, so it must be written once the pool is complete.
+     * @param out The byte buffer, in big-endian byte order.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.7.21">BootstrapMethods attribute in ClassFile's structure</a>
+     */
+    public void serializeBootstrapMethods(final ByteBuffer out) {
+        final int size = bootstrapMethodsSize();
+
+        if (out == null || size == 0)
+            return;
+        this.serializing++;
+        try {
+            out.putShort(getOrRegister(BOOTSTRAP_METHODS));
+            out.putInt(size - 6);
+            out.putShort((short) this.bootstrapMethods.size());
+            for (BootstrapMethod bootstrapMethod : this.bootstrapMethods)
+                bootstrapMethod.serialize(this, out);
+        } finally {
+            this.serializing--;
+        }
+    }
+
+    /**
+     * Register all the constants referenced by the registered constants, and the ones they reference in turn.<p>
+     * The referenced constants are registered after the constants already in the pool,
+     * in the order in which they are found.
+     * Only the constants registered since the last call are visited,
+     * the constants shared with the parent being resolved when this constant pool is created.
+     * @since 1.0
+     * @see Constant#resolve(ConstantPool)
+     */
+    public void resolve() {
+        for (; this.resolved < this.constants.size(); this.resolved++)
+            this.constants.get(this.resolved).resolve(this);
+    }
+
+    /**
+     * Freeze the constant pool into an immutable snapshot, that can be shared between threads.<p>
+     * The snapshot holds the constant pool already serialized, so serializing it is a single bulk copy.
+     * This constant pool is not modified and can still be used afterwards.
+     * @return The snapshot of the constant pool.
+     * @since 1.0
+     * @see FrozenConstantPool
+     */
+    public FrozenConstantPool freeze() {
+        return new FrozenConstantPool(this);
+    }
+
+    /**
+     * Drop the constants that are not used, and give dense indexes to the remaining ones.<p>
+     * A constant is kept if its index is given, or if it is referenced by a kept constant.
+     * The kept constants stay in the same order, and {@link ConstantLong} and {@link ConstantDouble}
+     * still take up two entries.
+     * The returned table associates each old index with its new index, or with 0 if the constant was dropped,
+     * so the operands of the bytecode can be patched in a single pass.
+     * The duplicated entries of a class file are kept as a single entry, whose new index is given to each of them.
+     * @param usedIndexes The indexes of the constants used by the class, the other indexes are ignored.
+     * @return The table of the new indexes, by old index, whose length is the old constant_pool_count.
+     * @throws IllegalStateException If an entry of a class file cannot be decoded, and so cannot be moved.
+     * @since 1.0
+     * @see #passthrough(ConstantPoolReader)
+     */
+    public int[] compact(int... usedIndexes) {
+        final Constant[] entries;
+        final ReferenceCollector collector;
+        final int[] order;
+        int length = 0;
+
+        entries = entries();
+        collector = new ReferenceCollector(this, entries.length);
+        if (usedIndexes != null)
+            for (int usedIndex : usedIndexes)
+                if (usedIndex > 0 && usedIndex < entries.length && entries[usedIndex] != null)
+                    collector.mark(usedIndex);
+        while (collector.length > 0)
+            entries[collector.pending[--collector.length]].resolve(collector);
+        order = new int[entries.length];
+        for (int i = 1; i < entries.length; i++)
+            if (collector.used[i])
+                order[length++] = i;
+        return rebuild(entries, order, length);
+    }
+
+    /**
+     * Reorder the constants so that the most used loadable constants get an index that fits in an ldc instruction.<p>
+     * The loadable constants with the highest use counts are registered first,
+     * then all the other constants follow in the same order as before.
+     * Since the ldc_w instruction takes one more byte than the ldc instruction,
+     * this should be done before the bytecode refers to the final indexes,
+     * or the returned table of the new indexes must be used to patch it.
+     * @param useCounts The number of ldc or ldc_w instructions loading each constant, by index.
+     *                  The missing counts are considered as 0.
+     * @return The table of the new indexes and the number of ldc_w instructions removed.
+     * @throws IllegalStateException If an entry of a class file cannot be decoded, and so cannot be moved.
+     * @since 1.0
+     * @see ConstantType#isLoadable()
+     * @see ConstantDynamic#isWideValue()
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html#jvms-6.5.ldc">ldc instruction</a>
+     */
+    public LdcLayout layoutLoadableConstants(int[] useCounts) {
+        final Constant[] entries = entries();
+        final long[] candidates = new long[entries.length];
+        final boolean[] placed = new boolean[entries.length];
+        final int[] order = new int[entries.length];
+        final int[] remap;
+        int length = 0;
+        int candidateCount = 0;
+        int wideLoadsBefore = 0;
+        int wideLoadsAfter = 0;
+        int useCount;
+        int index;
+
+        for (int i = 1; i < entries.length; i++) {
+            useCount = (useCounts != null && i < useCounts.length) ? useCounts[i] : 0;
+            if (entries[i] == null || useCount <= 0 || !isLoadedByLdc(entries[i]))
+                continue;
+            candidates[candidateCount++] = ((long) useCount << 16) | (0xFFFF - i);
+            if (i > LdcLayout.MAX_LDC_INDEX)
+                wideLoadsBefore += useCount;
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+        for (int i = candidateCount - 1; i >= 0 && length < LdcLayout.MAX_LDC_INDEX; i--) {
+            index = 0xFFFF - (int) (candidates[i] & 0xFFFF);
+            placed[index] = true;
+            order[length++] = index;
+        }
+        for (int i = 1; i < entries.length; i++)
+            if (entries[i] != null && !placed[i])
+                order[length++] = i;
+        remap = rebuild(entries, order, length);
+        for (int i = 0; i < candidateCount; i++) {
+            index = 0xFFFF - (int) (candidates[i] & 0xFFFF);
+            if (remap[index] > LdcLayout.MAX_LDC_INDEX)
+                wideLoadsAfter += (int) (candidates[i] >>> 16);
+        }
+        return new LdcLayout(remap, wideLoadsBefore, wideLoadsAfter);
+    }
+
+    /**
+     * Merge several constant pools into a new one.<p>
+     * The constants of each pool are registered in the new pool, in index order, one pool after the other,
+     * so the structurally equal constants of different pools share a single entry.
+     * The given pools are resolved but not modified otherwise.
+     * The merge stops as soon as the new pool exceeds the limit of the ClassFile structure.
+     * @param constantPools The constant pools to merge, the null ones are considered empty.
+     * @return The new constant pool, and one table of the new indexes by old index for each given pool.
+     * @throws IllegalArgumentException If the constant_pool_count of the new pool would exceed {@link #MAX_COUNT}.
+     * @throws IllegalStateException If an entry of a class file cannot be decoded, and so cannot be moved.
+     * @since 1.0
+     */
+    public static ConstantPoolMerge merge(ConstantPool... constantPools) {
+        final ConstantPool constantPool = new ConstantPool();
+        final int[][] remaps;
+        Constant[] entries;
+
+        if (constantPools == null)
+            return new ConstantPoolMerge(constantPool, new int[0][]);
+        remaps = new int[constantPools.length][];
+        for (int i = 0; i < constantPools.length; i++) {
+            if (constantPools[i] == null) {
+                remaps[i] = new int[1];
+                continue;
+            }
+            entries = constantPools[i].entries();
+            remaps[i] = new int[entries.length];
+            for (int j = 1; j < entries.length; j++) {
+                if (entries[j] == null)
+                    continue;
+                remaps[i][j] = constantPool.getOrRegister(entries[j]) & 0xFFFF;
+                if (constantPool.getCount() > MAX_COUNT)
+                    throw new IllegalArgumentException("The merged constant pool exceeds " + MAX_COUNT + " entries.");
+            }
+        }
+        constantPool.resolve();
+        if (constantPool.getCount() > MAX_COUNT)
+            throw new IllegalArgumentException("The merged constant pool exceeds " + MAX_COUNT + " entries.");
+        return new ConstantPoolMerge(constantPool, remaps);
+    }
+
+    /**
+     * Resolve the constant pool and list its constants by index.<p>
+     * The duplicated entries of a class file shared with the parent are listed at each of their indexes.
+     * @return The array of the constants, by index, whose length is the constant_pool_count.
+     * @throws IllegalStateException If an entry of a class file shared with the parent cannot be decoded.
+     * @since 1.0
+     */
+    Constant[] entries() {
+        final Constant[] entries;
+
+        resolve();
+        entries = new Constant[getCount()];
+        if (this.parent != null)
+            System.arraycopy(this.parent.entries(), 0, entries, 0, this.parentEntries + 1);
+        for (Constant constant : getConstants())
+            entries[indexOf(constant) & 0xFFFF] = constant;
+        return entries;
+    }
+
+    /**
+     * Register again some of the constants, in a new order, and compute their new indexes.
+     * @param entries The array of the constants, by old index.
+     * @param order The old indexes of the constants to keep, in their new order.
+     * @param length The number of constants to keep.
+     * @return The table of the new indexes, by old index, 0 for the constants that are not kept.
+     * @since 1.0
+     */
+    private int[] rebuild(Constant[] entries, int[] order, int length) {
+        final int[] remap = new int[entries.length];
+
+        unRegisterAll();
+        for (int i = 0; i < length; i++)
+            registerConstant(entries[order[i]]);
+        resolve();
+        for (int i = 0; i < length; i++)
+            remap[order[i]] = indexOf(entries[order[i]]) & 0xFFFF;
+        return remap;
+    }
+
+    /**
+     * Checks if the constant takes up two entries in the constant pool.
+     * @param constant The constant to check.
+     * @return true if the constant is a {@link ConstantLong} or a {@link ConstantDouble}, otherwise false.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.5">Constant Long and Double in ClassFile Structure's Constant Pool</a>
+     */
+    static boolean isWide(Constant constant) {
+        final ConstantType constantType = constant.getConstantType();
+
+        return constantType == ConstantType.DOUBLE || constantType == ConstantType.LONG;
+    }
+
+    /**
+     * Checks if the constant is loaded by the ldc or ldc_w instruction, whose operand depends on its index.
+     * @param constant The constant to check.
+     * @return true if the constant is loadable, except a {@link ConstantDynamic} of type long or double
+     *         which is loaded by ldc2_w, otherwise false.
+     * @since 1.0
+     * @see ConstantType#isLoadable()
+     * @see ConstantDynamic#isWideValue()
+     */
+    static boolean isLoadedByLdc(Constant constant) {
+        return constant.getConstantType().isLoadable()
+                && !(constant instanceof ConstantDynamic && ((ConstantDynamic) constant).isWideValue());
     }
 
     @Override
     public Iterator<Constant> iterator() {
-        return Collections.unmodifiableSet(this.constants).iterator();
+        if (this.parent == null)
+            return Collections.unmodifiableList(this.constants).iterator();
+        return Collections.unmodifiableList(Arrays.asList(getConstants())).iterator();
+    }
+
+    /**
+     * Serialize the constants that take up the first entries of the constant pool, without the constant pool count.
+     * @param out The byte stream.
+     * @param entries The number of entries to serialize, {@link ConstantLong} and {@link ConstantDouble} taking up two entries.
+     * @since 1.0
+     */
+    void serializeConstants(final DataOutputStream out, int entries) throws IOException {
+        Constant constant;
+
+        if (this.parent != null) {
+            this.parent.serializeConstants(out, Math.min(entries, this.parentEntries));
+            entries -= this.parentEntries;
+        }
+        for (int i = 0; i < this.constants.size() && entries > 0; i++) {
+            constant = this.constants.get(i);
+            constant.serialize(this, out);
+            entries -= isWide(constant) ? 2 : 1;
+        }
+    }
+
+    /**
+     * Serialize the constants that take up the first entries of the constant pool, without the constant pool count.
+     * @param out The byte buffer, in big-endian byte order.
+     * @param entries The number of entries to serialize, {@link ConstantLong} and {@link ConstantDouble} taking up two entries.
+     * @since 1.0
+     */
+    void serializeConstants(final ByteBuffer out, int entries) {
+        Constant constant;
+
+        if (this.parent != null) {
+            this.parent.serializeConstants(out, Math.min(entries, this.parentEntries));
+            entries -= this.parentEntries;
+        }
+        for (int i = 0; i < this.constants.size() && entries > 0; i++) {
+            constant = this.constants.get(i);
+            constant.serialize(this, out);
+            entries -= isWide(constant) ? 2 : 1;
+        }
     }
 
     @Override
     public void serialize(final DataOutputStream out) throws IOException {
-        final ByteArrayOutputStream arrayOutputStream;
-        final DataOutputStream constantOut;
-        final LinkedList<Constant> doneList;
-        final LinkedList<Constant> todoList;
+        final ConstantPoolListener listener = this.listener;
+        final long start;
+        final int count;
 
         if (out == null)
             return;
-        arrayOutputStream = new ByteArrayOutputStream();
-        constantOut = new DataOutputStream(arrayOutputStream);
-        doneList = new LinkedList<Constant>();
-        todoList = new LinkedList<Constant>(this.constants);
-        do {
-            for (Constant constant : todoList)
-                constant.serialize(this, constantOut);
-            doneList.addAll(todoList);
-            todoList.clear();
-            todoList.addAll(this.constants);
-            todoList.removeAll(doneList);
-        } while (todoList.size() > 0);
-        out.writeShort((short) (this.constants.size() + offset + 1));
-        out.write(arrayOutputStream.toByteArray());
+        start = (listener != null) ? System.nanoTime() : 0;
+        resolve();
+        count = getCount();
+        this.serializing++;
+        try {
+            out.writeShort((short) count);
+            serializeConstants(out, count - 1);
+        } finally {
+            this.serializing--;
+        }
+        if (listener != null)
+            listener.serialized(this, 2 + this.parentSize + this.size, System.nanoTime() - start);
+    }
+
+    /**
+     * Serialize the constant pool in the given byte buffer, heap or direct.<p>
+     * The constant pool is written in big-endian byte order, as required by the ClassFile structure,
+     * whatever the order of the buffer, which is restored afterwards.
+     * @param out The byte buffer.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     * @since 1.0
+     */
+    @Override
+    public void serialize(final ByteBuffer out) {
+        final ConstantPoolListener listener = this.listener;
+        final long start;
+        final ByteOrder order;
+        final int count;
+
+        if (out == null)
+            return;
+        start = (listener != null) ? System.nanoTime() : 0;
+        resolve();
+        count = getCount();
+        order = out.order();
+        out.order(ByteOrder.BIG_ENDIAN);
+        this.serializing++;
+        try {
+            out.putShort((short) count);
+            serializeConstants(out, count - 1);
+        } finally {
+            this.serializing--;
+            out.order(order);
+        }
+        if (listener != null)
+            listener.serialized(this, 2 + this.parentSize + this.size, System.nanoTime() - start);
+    }
+
+    /**
+     * Compute the exact number of bytes that the constant pool produces once serialized, without serializing it.<p>
+     * The constants referenced by the registered constants are registered first, as during the serialization.
+     * @return The size of the constant pool serialized in bytecode.
+     * @since 1.0
+     * @see #resolve()
+     */
+    @Override
+    public int serializedSize() {
+        resolve();
+        return 2 + this.parentSize + this.size;
+    }
+
+    /**
+     * This ChildRegistrar class registers the constants referenced by a constant before it, when it is resolved with it.
+     * @since 1.0
+     * @see #registerAll(Constant...)
+     */
+    private static class ChildRegistrar extends ConstantPool {
+
+        /**
+         * The constant pool in which the constants are registered.
+         * @since 1.0
+         */
+        private final ConstantPool constantPool;
+
+        /**
+         * Constructs a registrar for a constant pool.
+         * @param constantPool The constant pool in which the constants are registered.
+         * @since 1.0
+         */
+        private ChildRegistrar(ConstantPool constantPool) {
+            super(false);
+            this.constantPool = constantPool;
+        }
+
+        /**
+         * Register a constant after the constants it references, if it is not already registered.
+         * @param constant The constant to register.
+         * @return The index of the constant, or 0 if it is null or invalid.
+         * @since 1.0
+         */
+        private int register(Constant constant) {
+            final int index;
+
+            if (constant == null || constant.getConstantType() == null)
+                return 0;
+            index = this.constantPool.indexOf(constant) & 0xFFFF;
+            if (index != 0)
+                return index;
+            constant.resolve(this);
+            return this.constantPool.getOrRegister(constant) & 0xFFFF;
+        }
+
+        /**
+         * Register a referenced constant in the constant pool, after the constants it references.
+         * @param constant The referenced constant.
+         * @return The index of the constant in the constant pool.
+         * @since 1.0
+         */
+        @Override
+        public short getOrRegister(Constant constant) {
+            return (short) register(constant);
+        }
+
+        /**
+         * Register a referenced bootstrap method in the constant pool, after the constants it references.
+         * @param bootstrapMethod The referenced bootstrap method.
+         * @return The index of the bootstrap method in the BootstrapMethods attribute of the constant pool.
+         * @since 1.0
+         */
+        @Override
+        public int getOrRegisterBootstrapMethod(BootstrapMethod bootstrapMethod) {
+            if (bootstrapMethod != null)
+                bootstrapMethod.resolve(this);
+            return this.constantPool.getOrRegisterBootstrapMethod(bootstrapMethod);
+        }
+
+    }
+
+    /**
+     * This ReferenceCollector class marks the constants referenced by a constant, when it is resolved with it.
+     * @since 1.0
+     * @see #compact(int...)
+     */
+    private static class ReferenceCollector extends ConstantPool {
+
+        /**
+         * The constant pool whose constants are marked.
+         * @since 1.0
+         */
+        private final ConstantPool constantPool;
+
+        /**
+         * Whether each index of the constant pool is marked.
+         * @since 1.0
+         */
+        private final boolean[] used;
+
+        /**
+         * The marked indexes whose referenced constants are not marked yet.
+         * @since 1.0
+         */
+        private final int[] pending;
+
+        /**
+         * Number of pending indexes.
+         * @since 1.0
+         */
+        private int length;
+
+        /**
+         * Constructs a collector with no marked constant.
+         * @param constantPool The constant pool whose constants are marked.
+         * @param count The constant_pool_count item of the constant pool.
+         * @since 1.0
+         */
+        private ReferenceCollector(ConstantPool constantPool, int count) {
+            super(false);
+            this.constantPool = constantPool;
+            this.used = new boolean[count];
+            this.pending = new int[count];
+            this.length = 0;
+        }
+
+        /**
+         * Mark an index, if it is not already.
+         * @param index The index to mark.
+         * @since 1.0
+         */
+        private void mark(int index) {
+            if (this.used[index])
+                return;
+            this.used[index] = true;
+            this.pending[this.length++] = index;
+        }
+
+        /**
+         * Mark a referenced constant instead of registering it.
+         * @param constant The referenced constant.
+         * @return The index of the constant in the constant pool.
+         * @since 1.0
+         */
+        @Override
+        public short getOrRegister(Constant constant) {
+            final short index = this.constantPool.indexOf(constant);
+
+            if (index != 0)
+                mark(index & 0xFFFF);
+            return index;
+        }
+
     }
 
 }
@@ -0,0 +1,53 @@
+package fr.belinguier.java.compiler.constant;
+
+/**
+ * Implementing this interface allows to observe the activity of a {@link ConstantPool}.<p>
+ * A listener is set with {@link ConstantPool#setListener(ConstantPoolListener)}.
+ * When no listener is set, the constant pool does not measure anything.
+ * The methods are called by the thread using the constant pool, while it is locked for a {@link ConcurrentConstantPool},
+ * except for the lookups of constants already registered, so they must be fast and thread-safe.<p>
+ * A listener emitting JDK Flight Recorder events, ConstantPoolFlightRecorder, is built by the jfr profile,
+ * since it requires the jdk.jfr module.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#setListener(ConstantPoolListener)
+ * @see ConstantPoolStatistics
+ */
+public interface ConstantPoolListener {
+
+    /**
+     * Called when {@link ConstantPool#getOrRegister(Constant)} looks up a constant.<p>
+     * The lookups made by the constants for their references while the pool is serialized are not reported,
+     * so the lookups only measure the work of the callers of the pool.
+     * @param constantPool The constant pool.
+     * @param constant The constant sought.
+     * @param hit true if the constant was already registered, otherwise false if it is registered now.
+     * @since 1.0
+     */
+    default void lookedUp(ConstantPool constantPool, Constant constant, boolean hit) {
+    }
+
+    /**
+     * Called when a constant is registered in the constant pool.<p>
+     * A loadable constant registered above {@link LdcLayout#MAX_LDC_INDEX} must be loaded by an ldc_w instruction.
+     * @param constantPool The constant pool.
+     * @param constant The registered constant.
+     * @param index The index of the constant.
+     * @since 1.0
+     * @see ConstantType#isLoadable()
+     */
+    default void registered(ConstantPool constantPool, Constant constant, int index) {
+    }
+
+    /**
+     * Called when the constant pool has been serialized.
+     * @param constantPool The constant pool.
+     * @param size The number of bytes written.
+     * @param nanos The time spent in the serialization, in nanoseconds.
+     * @since 1.0
+     */
+    default void serialized(ConstantPool constantPool, int size, long nanos) {
+    }
+
+}
@@ -0,0 +1,65 @@
+package fr.belinguier.java.compiler.constant;
+
+/**
+ * This ConstantPoolMerge class represents the result of {@link ConstantPool#merge(ConstantPool...)}.<p>
+ * It holds the merged constant pool and, for each merged pool, the table of the new indexes of its constants,
+ * by old index, so the bytecode referring to each pool can be patched in a single pass.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#merge(ConstantPool...)
+ */
+public final class ConstantPoolMerge {
+
+    /**
+     * The merged constant pool.
+     * @since 1.0
+     */
+    private final ConstantPool constantPool;
+
+    /**
+     * Tables of the new indexes, by old index, one for each merged pool.
+     * @since 1.0
+     */
+    private final int[][] remaps;
+
+    /**
+     * Constructs the result of a merge.
+     * @param constantPool The merged constant pool.
+     * @param remaps The tables of the new indexes, one for each merged pool.
+     * @since 1.0
+     */
+    ConstantPoolMerge(ConstantPool constantPool, int[][] remaps) {
+        this.constantPool = constantPool;
+        this.remaps = remaps;
+    }
+
+    /**
+     * Returns the merged constant pool.
+     * @return The merged constant pool.
+     * @since 1.0
+     */
+    public ConstantPool getConstantPool() {
+        return this.constantPool;
+    }
+
+    /**
+     * Returns the number of merged pools.
+     * @return The number of tables of new indexes.
+     * @since 1.0
+     */
+    public int getSourceCount() {
+        return this.remaps.length;
+    }
+
+    /**
+     * Returns the table of the new indexes of a merged pool, by old index.
+     * @param source The position of the pool in the merged pools.
+     * @return The table of the new indexes, whose length is the old constant_pool_count. It is not copied.
+     * @since 1.0
+     */
+    public int[] getRemap(int source) {
+        return this.remaps[source];
+    }
+
+}
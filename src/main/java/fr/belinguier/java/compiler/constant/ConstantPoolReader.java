@@ -0,0 +1,368 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This ConstantPoolReader class reads a constant pool from the bytecode of a class file.<p>
+ * The bytecode is read from a {@link ByteBuffer}, which can be a {@link java.nio.MappedByteBuffer} over the file,
+ * without being copied.
+ * The offsets of all the entries are found in a single pass when the reader is created,
+ * then each entry is decoded into a {@link Constant} only when it is accessed, and kept afterwards.
+ * The strings can be compared to the bytes of the {@link ConstantUtf8} entries without decoding them,
+ * and the decoded {@link ConstantUtf8} entries refer to the bytes of the buffer without copying them.<p>
+ * The given buffer must not be modified as long as the reader or its constants are used.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4">ClassFile Structure's Constant Pool</a>
+ */
+public class ConstantPoolReader {
+
+    /**
+     * The magic item of the ClassFile structure.
+     * @since 1.0
+     */
+    public static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Marks the entries being decoded, to detect the entries that refer to themselves.
+     * @since 1.0
+     */
+    private static final Constant DECODING = new Constant(ConstantType.UTF_8) {};
+
+    /**
+     * The bytecode, read with absolute positions only.
+     * @since 1.0
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Position of the constant_pool_count item in the buffer.
+     * @since 1.0
+     */
+    private final int start;
+
+    /**
+     * Position following the last entry in the buffer.
+     * @since 1.0
+     */
+    private final int end;
+
+    /**
+     * Position of each entry in the buffer, by index, -1 for the unusable entries.
+     * @since 1.0
+     */
+    private final int[] offsets;
+
+    /**
+     * The entries already decoded, by index.
+     * @since 1.0
+     */
+    private final Constant[] constants;
+
+    /**
+     * Constructs a reader of the constant pool starting at the current position of a buffer,
+     * with its constant_pool_count item.<p>
+     * The position of the buffer is not modified.
+     * @param buffer The buffer holding the constant pool.
+     * @throws IllegalArgumentException If an entry has an unknown tag.
+     * @throws IndexOutOfBoundsException If the constant pool does not fit in the buffer.
+     * @since 1.0
+     */
+    public ConstantPoolReader(ByteBuffer buffer) {
+        final int count;
+        int position;
+        byte tag;
+
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.start = buffer.position();
+        count = this.buffer.getShort(this.start) & 0xFFFF;
+        this.offsets = new int[Math.max(count, 1)];
+        this.constants = new Constant[this.offsets.length];
+        this.offsets[0] = -1;
+        position = this.start + 2;
+        for (int i = 1; i < count; i++) {
+            this.offsets[i] = position;
+            tag = this.buffer.get(position);
+            position += 1 + payloadSize(tag, position);
+            if (tag == ConstantType.LONG.getTag() || tag == ConstantType.DOUBLE.getTag())
+                if (++i < count)
+                    this.offsets[i] = -1;
+        }
+        if (position > this.buffer.limit())
+            throw new IndexOutOfBoundsException("The constant pool does not fit in the buffer.");
+        this.end = position;
+    }
+
+    /**
+     * Constructs a reader of the constant pool of a class file, starting at the current position of a buffer.<p>
+     * The position of the buffer is not modified.
+     * @param buffer The buffer holding the class file.
+     * @return The reader of the constant pool of the class file.
+     * @throws IllegalArgumentException If the buffer does not start with the magic item, or an entry has an unknown tag.
+     * @since 1.0
+     */
+    public static ConstantPoolReader fromClassFile(ByteBuffer buffer) {
+        final ByteBuffer classFile = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        if (classFile.getInt(classFile.position()) != MAGIC)
+            throw new IllegalArgumentException("The buffer does not hold a class file.");
+        classFile.position(classFile.position() + 8);
+        return new ConstantPoolReader(classFile);
+    }
+
+    /**
+     * Compute the number of bytes following the tag of an entry.
+     * @param tag The tag of the entry.
+     * @param position The position of the tag in the buffer.
+     * @return The size of the entry without its tag.
+     * @throws IllegalArgumentException If the tag is unknown.
+     * @since 1.0
+     */
+    private int payloadSize(byte tag, int position) {
+        switch (tag) {
+            case 1:
+                return 2 + (this.buffer.getShort(position + 1) & 0xFFFF);
+            case 7:
+            case 8:
+            case 16:
+            case 19:
+            case 20:
+                return 2;
+            case 15:
+                return 3;
+            case 3:
+            case 4:
+            case 9:
+            case 10:
+            case 11:
+            case 12:
+            case 17:
+            case 18:
+                return 4;
+            case 5:
+            case 6:
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unknown constant tag " + tag + " at position " + position + '.');
+        }
+    }
+
+    /**
+     * Returns the constant_pool_count item of the ClassFile structure.
+     * @return The constant_pool_count item of the ClassFile structure.
+     * @since 1.0
+     */
+    public int getCount() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Returns the position in the buffer following the constant pool, where the access_flags item starts.
+     * @return The position following the last entry.
+     * @since 1.0
+     */
+    public int getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Returns the number of bytes of the constant pool, with its constant_pool_count item.
+     * @return The size of the constant pool in bytecode.
+     * @since 1.0
+     */
+    public int serializedSize() {
+        return this.end - this.start;
+    }
+
+    /**
+     * Returns the bytes of the constant pool, with its constant_pool_count item, without copying them.
+     * @return A read-only buffer over the constant pool.
+     * @since 1.0
+     */
+    public ByteBuffer slice() {
+        final ByteBuffer slice = this.buffer.asReadOnlyBuffer();
+
+        slice.limit(this.end).position(this.start);
+        return slice.slice();
+    }
+
+    /**
+     * Checks if an index refers to an entry of the constant pool.
+     * @param index The index of the entry.
+     * @return true if the index is a usable index of the pool, otherwise false.
+     * @since 1.0
+     */
+    public boolean isValid(int index) {
+        return index > 0 && index < this.offsets.length && this.offsets[index] != -1;
+    }
+
+    /**
+     * Returns the type of an entry, without decoding it.
+     * @param index The index of the entry.
+     * @return The type of the entry, or null if the index is not valid.
+     * @since 1.0
+     */
+    public ConstantType getConstantType(int index) {
+        if (!isValid(index))
+            return null;
+        return ConstantType.fromTag(this.buffer.get(this.offsets[index]));
+    }
+
+    /**
+     * Returns an entry, decoding it and the entries it refers to if they were not already.
+     * @param index The index of the entry.
+     * @return The constant of this entry, or null if the index is not valid.
+     * @throws IllegalArgumentException If the entry refers to an entry of the wrong type.
+     * @throws UnsupportedOperationException If the entry has a type that cannot be represented by a {@link Constant},
+     *                                       or refers to a bootstrap method, which is not in the constant pool.
+     * @since 1.0
+     */
+    public Constant getConstant(int index) {
+        Constant constant;
+
+        if (!isValid(index))
+            return null;
+        constant = this.constants[index];
+        if (constant == DECODING)
+            throw new IllegalArgumentException("The constant at index " + index + " refers to itself.");
+        if (constant != null)
+            return constant;
+        this.constants[index] = DECODING;
+        try {
+            constant = decode(index);
+        } finally {
+            this.constants[index] = constant;
+        }
+        return constant;
+    }
+
+    /**
+     * Decode an entry.
+     * @param index The index of the entry.
+     * @return The new constant.
+     * @since 1.0
+     */
+    private Constant decode(int index) {
+        final int offset = this.offsets[index];
+        final byte tag = this.buffer.get(offset);
+        final ByteBuffer string;
+
+        switch (tag) {
+            case 1:
+                string = this.buffer.duplicate();
+                string.limit(offset + 3 + (this.buffer.getShort(offset + 1) & 0xFFFF));
+                string.position(offset + 3);
+                return ConstantUtf8.wrap(string);
+            case 3:
+                return new ConstantInteger(this.buffer.getInt(offset + 1));
+            case 4:
+                return new ConstantFloat(this.buffer.getFloat(offset + 1));
+            case 5:
+                return new ConstantLong(this.buffer.getLong(offset + 1));
+            case 6:
+                return new ConstantDouble(this.buffer.getDouble(offset + 1));
+            case 7:
+                return new ConstantClass(reference(offset + 1, ConstantUtf8.class));
+            case 8:
+                return new ConstantString(reference(offset + 1, ConstantUtf8.class));
+            case 9:
+                return new ConstantFieldRef(reference(offset + 1, ConstantClass.class),
+                        reference(offset + 3, ConstantNameAndType.class));
+            case 10:
+                return new ConstantMethodRef(reference(offset + 1, ConstantClass.class),
+                        reference(offset + 3, ConstantNameAndType.class));
+            case 11:
+                return new ConstantInterfaceMethodRef(reference(offset + 1, ConstantClass.class),
+                        reference(offset + 3, ConstantNameAndType.class));
+            case 12:
+                return new ConstantNameAndType(reference(offset + 1, ConstantUtf8.class),
+                        reference(offset + 3, ConstantUtf8.class));
+            case 15:
+                return new ConstantMethodHandle(methodHandleKind(offset), reference(offset + 2, Constant.class));
+            case 16:
+                return new ConstantMethodType(reference(offset + 1, ConstantUtf8.class));
+            default:
+                throw new UnsupportedOperationException("Unsupported constant tag " + tag + " at index " + index + '.');
+        }
+    }
+
+    /**
+     * Read the kind of a method handle entry.
+     * @param offset The position of the entry in the buffer.
+     * @return The kind of the method handle.
+     * @throws IllegalArgumentException If the kind is unknown.
+     * @since 1.0
+     */
+    private ReferenceKind methodHandleKind(int offset) {
+        final ReferenceKind referenceKind = ReferenceKind.fromKind(this.buffer.get(offset + 1));
+
+        if (referenceKind == null)
+            throw new IllegalArgumentException("Unknown reference kind " + this.buffer.get(offset + 1)
+                    + " at position " + offset + '.');
+        return referenceKind;
+    }
+
+    /**
+     * Decode the entry referred to by an index read in the buffer.
+     * @param position The position of the index in the buffer.
+     * @param constantClass The expected class of the entry.
+     * @param <T> The expected type of the entry.
+     * @return The constant of the referenced entry.
+     * @throws IllegalArgumentException If the referenced entry is not valid or is not of the expected type.
+     * @since 1.0
+     */
+    private <T extends Constant> T reference(int position, Class<T> constantClass) {
+        final int index = this.buffer.getShort(position) & 0xFFFF;
+        final Constant constant = getConstant(index);
+
+        if (!constantClass.isInstance(constant))
+            throw new IllegalArgumentException("Invalid reference to the constant at index " + index + '.');
+        return constantClass.cast(constant);
+    }
+
+    /**
+     * Compare the bytes of a {@link ConstantUtf8} entry with a string, without decoding the entry.<p>
+     * The string is encoded on the fly, as in the class file format:
+     * the null character takes two bytes and the supplementary characters take two 3-byte surrogates.
+     * @param index The index of the entry.
+     * @param str The string to compare.
+     * @return true if the entry is a {@link ConstantUtf8} holding the string, otherwise false.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.7">ConstantUTF8 in ClassFile's structure</a>
+     */
+    public boolean utf8Equals(int index, String str) {
+        final int offset;
+
+        if (str == null || getConstantType(index) != ConstantType.UTF_8)
+            return false;
+        offset = this.offsets[index] + 3;
+        return ModifiedUtf8.equals(this.buffer, offset, this.buffer.getShort(offset - 2) & 0xFFFF, str);
+    }
+
+    /**
+     * Compare the bytes of a {@link ConstantUtf8} entry with a constant, without decoding the entry.<p>
+     * The lengths are compared first, then the bytes of the entry with the bytes held by the constant,
+     * without copying them.
+     * @param index The index of the entry.
+     * @param constant The constant to compare.
+     * @return true if the entry is a {@link ConstantUtf8} holding the same bytes as the constant, otherwise false.
+     * @since 1.0
+     */
+    public boolean utf8Equals(int index, ConstantUtf8 constant) {
+        final int offset;
+
+        if (constant == null || getConstantType(index) != ConstantType.UTF_8)
+            return false;
+        offset = this.offsets[index] + 3;
+        if ((this.buffer.getShort(offset - 2) & 0xFFFF) != constant.length())
+            return false;
+        for (int i = 0; i < constant.length(); i++)
+            if (this.buffer.get(offset + i) != constant.byteAt(i))
+                return false;
+        return true;
+    }
+
+}
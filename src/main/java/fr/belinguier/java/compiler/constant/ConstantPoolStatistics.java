@@ -0,0 +1,165 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This ConstantPoolStatistics class is a {@link ConstantPoolListener} counting the activity of constant pools.<p>
+ * It counts the lookups that found a registered constant and the ones that registered it,
+ * the registered entries and their size in bytes for each {@link ConstantType},
+ * the loadable constants registered too high to be loaded by an ldc instruction,
+ * and the number and the duration of the serializations.
+ * It can be shared by several constant pools and threads.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#setListener(ConstantPoolListener)
+ */
+public class ConstantPoolStatistics implements ConstantPoolListener {
+
+    /**
+     * Number of lookups that found a registered constant.
+     * @since 1.0
+     */
+    private final LongAdder hits;
+
+    /**
+     * Number of lookups that registered the constant.
+     * @since 1.0
+     */
+    private final LongAdder misses;
+
+    /**
+     * Number of registered entries, by {@link ConstantType} ordinal.
+     * @since 1.0
+     */
+    private final AtomicLongArray entries;
+
+    /**
+     * Number of bytes of the registered entries once serialized, by {@link ConstantType} ordinal.
+     * @since 1.0
+     */
+    private final AtomicLongArray bytes;
+
+    /**
+     * Number of loadable constants registered above {@link LdcLayout#MAX_LDC_INDEX}.
+     * @since 1.0
+     */
+    private final LongAdder wideLoads;
+
+    /**
+     * Number of serializations.
+     * @since 1.0
+     */
+    private final LongAdder serializations;
+
+    /**
+     * Time spent in the serializations, in nanoseconds.
+     * @since 1.0
+     */
+    private final LongAdder serializationNanos;
+
+    /**
+     * Constructs statistics with all counters at 0.
+     * @since 1.0
+     */
+    public ConstantPoolStatistics() {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.entries = new AtomicLongArray(ConstantType.values().length);
+        this.bytes = new AtomicLongArray(ConstantType.values().length);
+        this.wideLoads = new LongAdder();
+        this.serializations = new LongAdder();
+        this.serializationNanos = new LongAdder();
+    }
+
+    @Override
+    public void lookedUp(ConstantPool constantPool, Constant constant, boolean hit) {
+        if (hit)
+            this.hits.increment();
+        else
+            this.misses.increment();
+    }
+
+    @Override
+    public void registered(ConstantPool constantPool, Constant constant, int index) {
+        final ConstantType constantType = constant.getConstantType();
+
+        this.entries.incrementAndGet(constantType.ordinal());
+        this.bytes.addAndGet(constantType.ordinal(), constant.serializedSize());
+        if (index > LdcLayout.MAX_LDC_INDEX && ConstantPool.isLoadedByLdc(constant))
+            this.wideLoads.increment();
+    }
+
+    @Override
+    public void serialized(ConstantPool constantPool, int size, long nanos) {
+        this.serializations.increment();
+        this.serializationNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of lookups that found a registered constant.
+     * @return The number of hits of {@link ConstantPool#getOrRegister(Constant)}.
+     * @since 1.0
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that registered the constant.
+     * @return The number of misses of {@link ConstantPool#getOrRegister(Constant)}.
+     * @since 1.0
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the number of registered entries of a type.
+     * @param constantType The type of the entries.
+     * @return The number of registered entries of this type.
+     * @since 1.0
+     */
+    public long getEntries(ConstantType constantType) {
+        return this.entries.get(constantType.ordinal());
+    }
+
+    /**
+     * Returns the number of bytes of the registered entries of a type, once serialized.
+     * @param constantType The type of the entries.
+     * @return The size of the registered entries of this type.
+     * @since 1.0
+     */
+    public long getBytes(ConstantType constantType) {
+        return this.bytes.get(constantType.ordinal());
+    }
+
+    /**
+     * Returns the number of loadable constants registered too high to be loaded by an ldc instruction.
+     * @return The number of loadable constants registered above {@link LdcLayout#MAX_LDC_INDEX}.
+     * @since 1.0
+     */
+    public long getWideLoads() {
+        return this.wideLoads.sum();
+    }
+
+    /**
+     * Returns the number of serializations.
+     * @return The number of serializations.
+     * @since 1.0
+     */
+    public long getSerializations() {
+        return this.serializations.sum();
+    }
+
+    /**
+     * Returns the time spent in the serializations.
+     * @return The time spent in the serializations, in nanoseconds.
+     * @since 1.0
+     */
+    public long getSerializationNanos() {
+        return this.serializationNanos.sum();
+    }
+
+}
@@ -1,8 +1,9 @@
 package fr.belinguier.java.compiler.constant;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Implementing this interface allows a {@link Constant}
@@ -20,27 +21,59 @@ public interface ConstantSerializable {
      * @param out The byte stream.
      * @since 1.0
      * @see DataOutputStream
-     * @see ByteArrayOutputStream
      */
     void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException;
 
+    /**
+     * This function allows you to serialize a constant in the given byte buffer, heap or direct.<p>
+     * The bytes are written from the current position of the buffer, which is moved forward.
+     * The buffer must use the big-endian byte order, which is the default order of a {@link ByteBuffer}.
+     * @param out The byte buffer.
+     * @throws java.nio.BufferOverflowException If there is not enough space remaining in the buffer.
+     * @since 1.0
+     * @see ByteBuffer
+     */
+    void serialize(final ConstantPool constantPool, final ByteBuffer out);
+
+    /**
+     * Compute the exact number of bytes that this constant produces once serialized in a constant pool,
+     * without serializing it.
+     * @return The size of this constant serialized in bytecode.
+     * @since 1.0
+     */
+    int serializedSize();
+
+    /**
+     * This function allows you to serialize a constant in the given channel.
+     * @param channel The channel, for example a {@link java.nio.channels.FileChannel}.
+     * @since 1.0
+     * @see WritableByteChannel
+     */
+    default void serialize(final ConstantPool constantPool, final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer;
+
+        if (constantPool == null || channel == null)
+            return;
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(constantPool, buffer);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
     /**
      * Get the bytecode of this {@link Constant}.
      * @return This {@link Constant} serialized in bytecode.
      * @since 1.0
      */
     default byte[] serialize(final ConstantPool constantPool) {
-        final ByteArrayOutputStream arrayOutputStream;
+        final ByteBuffer buffer;
 
         if (constantPool == null)
             return null;
-        arrayOutputStream = new ByteArrayOutputStream();
-        try {
-            serialize(constantPool, new DataOutputStream(arrayOutputStream));
-        } catch (IOException ignored) {
-            return null;
-        }
-        return arrayOutputStream.toByteArray();
+        buffer = ByteBuffer.allocate(serializedSize());
+        serialize(constantPool, buffer);
+        return buffer.array();
     }
 
 }
@@ -2,6 +2,7 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -19,6 +20,12 @@ public class ConstantString extends Constant {
      */
     private final ConstantUtf8 value;
 
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
+
     /**
      * Initializes a newly created {@link Constant} object to represent a {@link String}.
      * @param value The UTF-8 bytecode string to represent as a {@link Constant}.
@@ -28,6 +35,7 @@ public class ConstantString extends Constant {
     public ConstantString(ConstantUtf8 value) {
         super(ConstantType.STRING);
         this.value = value;
+        this.hash = hashOf(Objects.hashCode(value));
     }
 
     /**
@@ -49,6 +57,13 @@ public class ConstantString extends Constant {
         return this.value;
     }
 
+    @Override
+    protected void resolve(final ConstantPool constantPool) {
+        if (constantPool == null)
+            return;
+        constantPool.getOrRegister(this.value);
+    }
+
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
         if (constantPool == null || out == null)
@@ -57,8 +72,38 @@ public class ConstantString extends Constant {
         out.writeShort(constantPool.getOrRegister(this.value));
     }
 
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (constantPool == null || out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort(constantPool.getOrRegister(this.value));
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 2;
+    }
+
+    /**
+     * Compute the hash code of a constant of this type from the hash code of the string,
+     * so that a constant can be looked up without being created.
+     * @param valueHash The hash code of the constant representing the string.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(int valueHash) {
+        return 31 * ConstantType.STRING.getTag() + valueHash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || super.equals(obj) && (obj instanceof ConstantString)
+                && Objects.equals(((ConstantString) obj).value, this.value);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), this.value);
+        return this.hash;
     }
 }
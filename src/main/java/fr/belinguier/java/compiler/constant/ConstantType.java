@@ -1,5 +1,7 @@
 package fr.belinguier.java.compiler.constant;
 
+import fr.belinguier.java.JavaVersion;
+
 /**
  * Enumeration of all constant types that can be used in the class file structure.
  * @author Eliott Belinguier
@@ -24,8 +26,20 @@ public enum ConstantType {
     UTF_8((byte) 1),
     METHOD_HANDLE((byte) 15),
     METHOD_TYPE((byte) 16),
+    DYNAMIC((byte) 17),
     INVOKE_DYNAMIC((byte) 18);
 
+    /**
+     * Table of the constant types, by tag.
+     * @since 1.0
+     */
+    private static final ConstantType[] TYPES = new ConstantType[256];
+
+    static {
+        for (ConstantType constantType : values())
+            TYPES[constantType.tag & 0xFF] = constantType;
+    }
+
     /**
      * This {@link java.lang.reflect.Field} contains the Tag corresponding to the selected type.<p>
      * This value will be useful for serialization,
@@ -47,4 +61,56 @@ public enum ConstantType {
         return this.tag;
     }
 
+    /**
+     * Returns the constant type corresponding to a tag.
+     * @param tag The tag value, as read in the first byte of a constant.
+     * @return The constant type of this tag, or null if the tag is unknown.
+     * @since 1.0
+     */
+    public static ConstantType fromTag(byte tag) {
+        return TYPES[tag & 0xFF];
+    }
+
+    /**
+     * Checks if the constants of this type can be loaded on the operand stack by the ldc and ldc_w instructions.<p>
+     * {@link #LONG} and {@link #DOUBLE} constants are loaded by the ldc2_w instruction instead.
+     * A {@link #DYNAMIC} constant is loaded by ldc2_w when its descriptor is J or D, but it still takes a single entry.
+     * @return true if the constants of this type are loadable by ldc, otherwise false.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html#jvms-6.5.ldc">ldc instruction</a>
+     */
+    public boolean isLoadable() {
+        switch (this) {
+            case INTEGER:
+            case FLOAT:
+            case STRING:
+            case CLASS:
+            case METHOD_HANDLE:
+            case METHOD_TYPE:
+            case DYNAMIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the oldest Java version whose class files can hold the constants of this type.
+     * @return The Java version introducing this type of constant.
+     * @since 1.0
+     * @see <a href="https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-4.html#jvms-4.4-310">Constant pool tags by class file version</a>
+     */
+    public JavaVersion getMinimumVersion() {
+        switch (this) {
+            case METHOD_HANDLE:
+            case METHOD_TYPE:
+            case INVOKE_DYNAMIC:
+                return JavaVersion.JAVA_7;
+            case DYNAMIC:
+                return JavaVersion.JAVA_11;
+            default:
+                return JavaVersion.JAVA_1_1;
+        }
+    }
+
 }
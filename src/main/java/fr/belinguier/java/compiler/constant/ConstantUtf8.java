@@ -2,45 +2,264 @@ package fr.belinguier.java.compiler.constant;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 
 /**
- * This Constant class represents a UTF-8 string constant in the structure of the ClassFile.
+ * This Constant class represents a UTF-8 string constant in the structure of the ClassFile.<p>
+ * The string is encoded once in the modified UTF-8 format used by the class files,
+ * and only decoded back to a {@link String} when it is asked for.<p>
+ * A constant can also refer to an already encoded string, in a slice of a byte array or in a region of a
+ * {@link ByteBuffer}, such as an identifier in a source buffer or a string of a parsed class file.
+ * The bytes are not copied: the constant is hashed and compared on them, and written out with a single bulk copy.
  * @author Eliott Belinguier
  * @since 1.0
  * @version 1.0
  * @see Constant
+ * @see ModifiedUtf8
  * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.7">ConstantUTF8 in ClassFile's structure</a>
  */
 public class ConstantUtf8 extends Constant {
 
     /**
-     * This field contains the string encoded in a byte array, which this constant should represent.
+     * Number of bytes copied at once from a buffer without backing array to a {@link DataOutputStream}.
      * @since 1.0
      */
-    private byte[] bytes;
+    private static final int CHUNK_SIZE = 512;
+
+    /**
+     * Array reused by each thread to copy the strings held by a buffer without backing array to a stream.
+     * @since 1.0
+     */
+    private static final ThreadLocal<byte[]> CHUNK = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[CHUNK_SIZE];
+        }
+    };
+
+    /**
+     * The byte array holding the encoded string, which this constant should represent,
+     * or null if the string is held by {@link #buffer} or if the constant represents a null string.
+     * @since 1.0
+     */
+    private final byte[] bytes;
+
+    /**
+     * Position of the encoded string in {@link #bytes}.
+     * @since 1.0
+     */
+    private final int offset;
+
+    /**
+     * The number of bytes of the encoded string.
+     * @since 1.0
+     */
+    private final int length;
+
+    /**
+     * The region of a byte buffer holding the encoded string, read with absolute positions from 0,
+     * or null if the string is held by {@link #bytes}.
+     * @since 1.0
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The decoded string, kept once it has been decoded or given at construction.
+     * @since 1.0
+     */
+    private String string;
+
+    /**
+     * Hash code of this constant, computed once at construction from its type and its content.
+     * @since 1.0
+     */
+    private final int hash;
 
     /**
      * Initializes a newly created Constant object to represent {@link String}.
      * @param str The {@link String} that the constant should represent.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link ModifiedUtf8#MAX_LENGTH} bytes.
      * @since 1.0
      */
     public ConstantUtf8(String str) {
         super(ConstantType.UTF_8);
-        if (str != null)
-            this.bytes = str.getBytes(StandardCharsets.UTF_8);
+        this.bytes = (str != null) ? ModifiedUtf8.encode(str) : null;
+        this.offset = 0;
+        this.length = (this.bytes != null) ? this.bytes.length : 0;
+        this.buffer = null;
+        this.string = str;
+        this.hash = hash(super.hashCode());
+    }
+
+    /**
+     * Initializes a newly created Constant object to represent a string already encoded in a slice of a byte array.
+     * The bytes are not copied, so they must not be modified as long as the constant is used.
+     * @param bytes The byte array holding the encoded string.
+     * @param offset The position of the first byte of the string in the array.
+     * @param length The number of bytes of the encoded string.
+     * @throws IndexOutOfBoundsException If the slice is not within the array.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link ModifiedUtf8#MAX_LENGTH} bytes.
+     * @since 1.0
+     */
+    public ConstantUtf8(byte[] bytes, int offset, int length) {
+        super(ConstantType.UTF_8);
+        if (offset < 0 || length < 0 || offset > bytes.length - length)
+            throw new IndexOutOfBoundsException("The slice [" + offset + ", " + offset + " + " + length
+                    + ") is not within an array of " + bytes.length + " bytes.");
+        if (length > ModifiedUtf8.MAX_LENGTH)
+            throw new IllegalArgumentException("The encoded string takes " + length
+                    + " bytes, more than the " + ModifiedUtf8.MAX_LENGTH + " bytes allowed in a class file.");
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.buffer = null;
+        this.hash = hash(super.hashCode());
+    }
+
+    /**
+     * Initializes a newly created Constant object to represent a string already encoded in a region of a buffer.
+     * @param buffer The buffer holding the encoded string, heap or direct.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link ModifiedUtf8#MAX_LENGTH} bytes.
+     * @since 1.0
+     */
+    private ConstantUtf8(ByteBuffer buffer) {
+        super(ConstantType.UTF_8);
+        this.length = buffer.remaining();
+        if (this.length > ModifiedUtf8.MAX_LENGTH)
+            throw new IllegalArgumentException("The encoded string takes " + this.length
+                    + " bytes, more than the " + ModifiedUtf8.MAX_LENGTH + " bytes allowed in a class file.");
+        if (buffer.hasArray()) {
+            this.bytes = buffer.array();
+            this.offset = buffer.arrayOffset() + buffer.position();
+            this.buffer = null;
+        } else {
+            this.bytes = null;
+            this.offset = 0;
+            this.buffer = buffer.slice();
+        }
+        this.hash = hash(super.hashCode());
+    }
+
+    /**
+     * Create a constant representing an already encoded string, such as a string read from a class file.
+     * @param bytes The encoded string, which is not copied and must not be modified afterwards.
+     * @return The new constant.
+     * @since 1.0
+     */
+    static ConstantUtf8 wrap(byte[] bytes) {
+        return new ConstantUtf8(bytes, 0, bytes.length);
     }
 
     /**
-     * Decode the byte array into a {@link String} object that the constant represents.
+     * Create a constant representing a string already encoded in a region of a buffer,
+     * between its position and its limit, which are not moved.
+     * The bytes are not copied, so they must not be modified as long as the constant is used.
+     * @param buffer The buffer holding the encoded string, heap or direct.
+     * @return The new constant.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link ModifiedUtf8#MAX_LENGTH} bytes.
+     * @since 1.0
+     */
+    public static ConstantUtf8 wrap(ByteBuffer buffer) {
+        return new ConstantUtf8(buffer);
+    }
+
+    /**
+     * Returns a byte of the encoded string.
+     * @param index The index of the byte in the encoded string.
+     * @return The byte.
+     * @since 1.0
+     */
+    byte byteAt(int index) {
+        return (this.buffer != null) ? this.buffer.get(index) : this.bytes[this.offset + index];
+    }
+
+    /**
+     * Compute the hash code of a constant representing a string, encoding the string on the fly,
+     * so that a constant can be looked up without being created.
+     * @param str The string, or null.
+     * @return The hash code that the constant has.
+     * @since 1.0
+     */
+    static int hashOf(String str) {
+        int hash = ConstantType.UTF_8.getTag();
+        char c;
+
+        if (str == null)
+            return hash;
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            if (c != 0 && c < 0x80) {
+                hash = 31 * hash + (byte) c;
+            } else if (c < 0x800) {
+                hash = 31 * hash + (byte) (0xC0 | (c >> 6));
+                hash = 31 * hash + (byte) (0x80 | (c & 0x3F));
+            } else {
+                hash = 31 * hash + (byte) (0xE0 | (c >> 12));
+                hash = 31 * hash + (byte) (0x80 | ((c >> 6) & 0x3F));
+                hash = 31 * hash + (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Compare this constant with a string, encoding the string on the fly, so that neither is converted.
+     * @param str The string, or null.
+     * @return true if this constant is equal to a constant representing the string, otherwise false.
+     * @since 1.0
+     */
+    boolean contentEquals(String str) {
+        int position = 0;
+        char c;
+
+        if (str == null)
+            return this.length == 0;
+        if (this.string != null)
+            return this.string.equals(str);
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            if (c != 0 && c < 0x80) {
+                if (position + 1 > this.length || byteAt(position) != (byte) c)
+                    return false;
+                position += 1;
+            } else if (c < 0x800) {
+                if (position + 2 > this.length
+                        || byteAt(position) != (byte) (0xC0 | (c >> 6))
+                        || byteAt(position + 1) != (byte) (0x80 | (c & 0x3F)))
+                    return false;
+                position += 2;
+            } else {
+                if (position + 3 > this.length
+                        || byteAt(position) != (byte) (0xE0 | (c >> 12))
+                        || byteAt(position + 1) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                        || byteAt(position + 2) != (byte) (0x80 | (c & 0x3F)))
+                    return false;
+                position += 3;
+            }
+        }
+        return position == this.length;
+    }
+
+    /**
+     * Decode the encoded string into a {@link String} object that the constant represents.
+     * The string is only decoded on the first call.
      * @return Decoded {@link String}.
+     * @throws IllegalArgumentException If the encoded string is not valid.
      * @since 1.0
      */
     public String getString() {
-        if (this.bytes == null)
-            return null;
-        return new String(this.bytes, StandardCharsets.UTF_8);
+        final byte[] copy;
+
+        if (this.string != null)
+            return this.string;
+        if (this.buffer != null) {
+            copy = new byte[this.length];
+            this.buffer.duplicate().get(copy);
+            this.string = ModifiedUtf8.decode(copy, 0, this.length);
+        } else if (this.bytes != null) {
+            this.string = ModifiedUtf8.decode(this.bytes, this.offset, this.length);
+        }
+        return this.string;
     }
 
     /**
@@ -49,23 +268,98 @@ public class ConstantUtf8 extends Constant {
      * @since 1.0
      */
     public int length() {
-        return (this.bytes != null) ? this.bytes.length : 0;
+        return this.length;
     }
 
+    /**
+     * {@inheritDoc}<p>
+     * A string held by a buffer with a backing array is written straight from the array.
+     * A string held by a buffer without one, such as a direct buffer, is copied through an array reused by the thread.
+     */
     @Override
     public void serialize(final ConstantPool constantPool, final DataOutputStream out) throws IOException {
-        final int byteArrayLength = length();
+        final ByteBuffer string;
+        final byte[] chunk;
+        int length;
 
         if (out == null)
             return;
         super.serialize(constantPool, out);
-        out.writeShort((short) byteArrayLength);
-        if (this.bytes != null)
-            out.write(this.bytes, 0, byteArrayLength);
+        out.writeShort((short) this.length);
+        if (this.buffer != null) {
+            string = this.buffer.duplicate();
+            chunk = CHUNK.get();
+            while (string.hasRemaining()) {
+                length = Math.min(string.remaining(), chunk.length);
+                string.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        } else if (this.bytes != null) {
+            out.write(this.bytes, this.offset, this.length);
+        }
+    }
+
+    @Override
+    public void serialize(final ConstantPool constantPool, final ByteBuffer out) {
+        if (out == null)
+            return;
+        super.serialize(constantPool, out);
+        out.putShort((short) this.length);
+        if (this.buffer != null)
+            out.put(this.buffer.duplicate());
+        else if (this.bytes != null)
+            out.put(this.bytes, this.offset, this.length);
+    }
+
+    @Override
+    public int serializedSize() {
+        return super.serializedSize() + 2 + this.length;
+    }
+
+    /**
+     * Compute the hash code of the encoded string, so that it does not have to be decoded.
+     * @param seed The hash code of the constant type.
+     * @return The hash code of this constant.
+     * @since 1.0
+     */
+    private int hash(int seed) {
+        int hash = seed;
+
+        if (this.buffer != null) {
+            for (int i = 0; i < this.length; i++)
+                hash = 31 * hash + this.buffer.get(i);
+        } else {
+            for (int i = 0; i < this.length; i++)
+                hash = 31 * hash + this.bytes[this.offset + i];
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        final ConstantUtf8 constant;
+
+        if (obj == this)
+            return true;
+        if (!super.equals(obj) || !(obj instanceof ConstantUtf8))
+            return false;
+        constant = (ConstantUtf8) obj;
+        if (constant.length != this.length || constant.hash != this.hash)
+            return false;
+        if (constant.buffer == null && this.buffer == null) {
+            for (int i = 0; i < this.length; i++)
+                if (constant.bytes[constant.offset + i] != this.bytes[this.offset + i])
+                    return false;
+            return true;
+        }
+        for (int i = 0; i < this.length; i++)
+            if (constant.byteAt(i) != byteAt(i))
+                return false;
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getConstantType(), getString());
+        return this.hash;
     }
 }
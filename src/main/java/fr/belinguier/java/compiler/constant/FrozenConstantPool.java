@@ -0,0 +1,307 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * This FrozenConstantPool class represents an immutable snapshot of a {@link ConstantPool}.<p>
+ * The snapshot holds the constants of the pool, their indexes and the pool already serialized in bytecode,
+ * so serializing it is a single bulk copy.
+ * Since it can no longer be modified, it can be shared between threads and looked up without any locking.<p>
+ * Registering a constant that is not in the snapshot fails, as if the constant was invalid.
+ * The same goes for the bootstrap methods, whose indexes are kept in the snapshot.<p>
+ * A snapshot can also be created from the constant pool of a class file, whose bytes are then kept as is.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#freeze()
+ */
+public class FrozenConstantPool extends ConstantPool {
+
+    /**
+     * Array of the constants of the snapshot, in registration order.
+     * @since 1.0
+     */
+    private final Constant[] constants;
+
+    /**
+     * Table associating each constant of the snapshot with its index in the constant pool.
+     * @since 1.0
+     */
+    private final HashMap<Constant, Integer> indexes;
+
+    /**
+     * Array of the constants of the snapshot, by index, duplicated entries included.
+     * @since 1.0
+     */
+    private final Constant[] entries;
+
+    /**
+     * The index of the first entry of a class file that cannot be decoded, or 0 if there is none.
+     * @since 1.0
+     */
+    private final int undecodableIndex;
+
+    /**
+     * The constant_pool_count item of the ClassFile structure.
+     * @since 1.0
+     */
+    private final int count;
+
+    /**
+     * The constant pool serialized in bytecode.
+     * @since 1.0
+     */
+    private final byte[] bytecode;
+
+    /**
+     * Constructs a snapshot of a constant pool.<p>
+     * The constants referenced by the registered constants are registered in the snapshot,
+     * as during the serialization, but the given pool is not modified.
+     * The bootstrap methods of the given pool keep their index, even those that no constant refers to.
+     * The snapshot keeps the target version of the given pool, which is checked while serializing it once.
+     * @param constantPool The constant pool to freeze.
+     * @throws IllegalStateException If a constant is not supported by the target version.
+     * @since 1.0
+     */
+    public FrozenConstantPool(ConstantPool constantPool) {
+        final ConstantPool copy = new ConstantPool();
+
+        if (constantPool != null) {
+            copy.setTargetVersion(constantPool.getTargetVersion());
+            for (Constant constant : constantPool.getConstants())
+                copy.registerConstant(constant);
+            for (BootstrapMethod bootstrapMethod : constantPool.getBootstrapMethods())
+                copy.getOrRegisterBootstrapMethod(bootstrapMethod);
+        }
+        copy.resolve();
+        this.constants = copy.getConstants();
+        this.indexes = new HashMap<Constant, Integer>(this.constants.length * 4 / 3 + 1);
+        this.count = copy.getCount();
+        this.entries = new Constant[this.count];
+        this.undecodableIndex = 0;
+        for (Constant constant : this.constants) {
+            this.indexes.put(constant, copy.indexOf(constant) & 0xFFFF);
+            this.entries[copy.indexOf(constant) & 0xFFFF] = constant;
+        }
+        this.bytecode = copy.serialize();
+        for (BootstrapMethod bootstrapMethod : copy.getBootstrapMethods())
+            super.getOrRegisterBootstrapMethod(bootstrapMethod);
+        setTargetVersion(copy.getTargetVersion());
+    }
+
+    /**
+     * Constructs a snapshot of the constant pool of a class file.<p>
+     * The entries keep their index and their bytes, which are copied once from the buffer of the reader.
+     * The entries that cannot be represented by a {@link Constant}, or that refer to entries of the wrong type,
+     * are kept in the bytes but cannot be looked up,
+     * and a duplicated entry is found at its first index.
+     * @param reader The reader of the constant pool of the class file.
+     * @since 1.0
+     * @see ConstantPool#passthrough(ConstantPoolReader)
+     */
+    public FrozenConstantPool(ConstantPoolReader reader) {
+        final ArrayList<Constant> constants = new ArrayList<Constant>(reader.getCount());
+        int undecodableIndex = 0;
+        Constant constant;
+
+        this.indexes = new HashMap<Constant, Integer>(reader.getCount() * 4 / 3 + 1);
+        this.entries = new Constant[reader.getCount()];
+        for (int i = 1; i < reader.getCount(); i++) {
+            if (!reader.isValid(i))
+                continue;
+            try {
+                constant = reader.getConstant(i);
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                if (undecodableIndex == 0)
+                    undecodableIndex = i;
+                continue;
+            }
+            constants.add(constant);
+            this.entries[i] = constant;
+            if (!this.indexes.containsKey(constant))
+                this.indexes.put(constant, i);
+        }
+        this.constants = constants.toArray(new Constant[0]);
+        this.undecodableIndex = undecodableIndex;
+        this.count = reader.getCount();
+        this.bytecode = new byte[reader.serializedSize()];
+        reader.slice().get(this.bytecode);
+    }
+
+    /**
+     * {@inheritDoc}<p>
+     * The duplicated entries of a class file are listed at each of their indexes.
+     * @throws IllegalStateException If an entry of the class file cannot be decoded, and so cannot be moved.
+     */
+    @Override
+    Constant[] entries() {
+        if (this.undecodableIndex != 0)
+            throw new IllegalStateException("The entry " + this.undecodableIndex
+                    + " of the constant pool cannot be decoded, so it cannot be moved.");
+        return this.entries.clone();
+    }
+
+    @Override
+    public Constant[] getConstants() {
+        return this.constants.clone();
+    }
+
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public short indexOf(Constant constant) {
+        final Integer index;
+
+        if (constant == null)
+            return 0;
+        index = this.indexes.get(constant);
+        return (index != null) ? index.shortValue() : 0;
+    }
+
+    /**
+     * A frozen constant pool cannot register constants.
+     * @param constant The constant to register.
+     * @return Always false.
+     * @since 1.0
+     */
+    @Override
+    public boolean registerConstant(Constant constant) {
+        return false;
+    }
+
+    /**
+     * A frozen constant pool cannot unregister constants.
+     * @param constant The constant to unregister.
+     * @return Always false.
+     * @since 1.0
+     */
+    @Override
+    public boolean unRegisterConstant(Constant constant) {
+        return false;
+    }
+
+    /**
+     * Get the index of the constant, since a frozen constant pool cannot register constants.
+     * @param constant The constant sought.
+     * @return The index of the constant in the array if it is in the snapshot, otherwise returns 0.
+     * @since 1.0
+     */
+    @Override
+    public short getOrRegister(Constant constant) {
+        return indexOf(constant);
+    }
+
+    /**
+     * Get the index of a bootstrap method of the snapshot. New bootstrap methods cannot be registered.
+     * @param bootstrapMethod The bootstrap method sought.
+     * @return The index of the bootstrap method in the BootstrapMethods attribute, or -1 if it is not in the snapshot.
+     * @since 1.0
+     */
+    @Override
+    public int getOrRegisterBootstrapMethod(BootstrapMethod bootstrapMethod) {
+        return indexOfBootstrapMethod(bootstrapMethod);
+    }
+
+    /**
+     * A frozen constant pool cannot unregister constants.
+     * @throws UnsupportedOperationException Always.
+     * @since 1.0
+     */
+    @Override
+    public void unRegisterAll() {
+        throw new UnsupportedOperationException("A frozen constant pool cannot be modified.");
+    }
+
+    /**
+     * Nothing to do, the constants of a snapshot are all resolved when it is created.
+     * @since 1.0
+     */
+    @Override
+    public void resolve() {
+    }
+
+    /**
+     * Returns this snapshot, which is already frozen.
+     * @return This snapshot.
+     * @since 1.0
+     */
+    @Override
+    public FrozenConstantPool freeze() {
+        return this;
+    }
+
+    @Override
+    public Iterator<Constant> iterator() {
+        return Arrays.asList(this.constants).iterator();
+    }
+
+    @Override
+    void serializeConstants(final DataOutputStream out, int entries) throws IOException {
+        if (entries >= this.count - 1) {
+            out.write(this.bytecode, 2, this.bytecode.length - 2);
+            return;
+        }
+        for (int i = 0; i < this.constants.length && entries > 0; i++) {
+            this.constants[i].serialize(this, out);
+            entries -= isWide(this.constants[i]) ? 2 : 1;
+        }
+    }
+
+    @Override
+    void serializeConstants(final ByteBuffer out, int entries) {
+        if (entries >= this.count - 1) {
+            out.put(this.bytecode, 2, this.bytecode.length - 2);
+            return;
+        }
+        for (int i = 0; i < this.constants.length && entries > 0; i++) {
+            this.constants[i].serialize(this, out);
+            entries -= isWide(this.constants[i]) ? 2 : 1;
+        }
+    }
+
+    @Override
+    public void serialize(final DataOutputStream out) throws IOException {
+        if (out == null)
+            return;
+        out.write(this.bytecode);
+    }
+
+    @Override
+    public void serialize(final ByteBuffer out) {
+        if (out == null)
+            return;
+        out.put(this.bytecode);
+    }
+
+    @Override
+    public void serialize(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer;
+
+        if (channel == null)
+            return;
+        buffer = ByteBuffer.wrap(this.bytecode).asReadOnlyBuffer();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    @Override
+    public byte[] serialize() {
+        return this.bytecode.clone();
+    }
+
+    @Override
+    public int serializedSize() {
+        return this.bytecode.length;
+    }
+
+}
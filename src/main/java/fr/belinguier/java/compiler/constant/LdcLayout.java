@@ -0,0 +1,88 @@
+package fr.belinguier.java.compiler.constant;
+
+/**
+ * This LdcLayout class represents the result of {@link ConstantPool#layoutLoadableConstants(int[])}.<p>
+ * It holds the table of the new indexes of the constants, by old index,
+ * and the number of ldc_w instructions that can be replaced by ldc instructions with the new indexes.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantPool#layoutLoadableConstants(int[])
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html#jvms-6.5.ldc">ldc instruction</a>
+ */
+public final class LdcLayout {
+
+    /**
+     * Highest index that an ldc instruction can refer to, its operand being a single unsigned byte.
+     * @since 1.0
+     */
+    public static final int MAX_LDC_INDEX = 255;
+
+    /**
+     * Table of the new indexes, by old index.
+     * @since 1.0
+     */
+    private final int[] remap;
+
+    /**
+     * Number of ldc_w instructions before the layout.
+     * @since 1.0
+     */
+    private final int wideLoadsBefore;
+
+    /**
+     * Number of ldc_w instructions after the layout.
+     * @since 1.0
+     */
+    private final int wideLoadsAfter;
+
+    /**
+     * Constructs the result of a layout.
+     * @param remap The table of the new indexes, by old index.
+     * @param wideLoadsBefore The number of ldc_w instructions before the layout.
+     * @param wideLoadsAfter The number of ldc_w instructions after the layout.
+     * @since 1.0
+     */
+    LdcLayout(int[] remap, int wideLoadsBefore, int wideLoadsAfter) {
+        this.remap = remap;
+        this.wideLoadsBefore = wideLoadsBefore;
+        this.wideLoadsAfter = wideLoadsAfter;
+    }
+
+    /**
+     * Returns the table of the new indexes, by old index, whose length is the old constant_pool_count.
+     * @return The table of the new indexes. It is not copied.
+     * @since 1.0
+     */
+    public int[] getRemap() {
+        return this.remap;
+    }
+
+    /**
+     * Returns the number of ldc_w instructions before the layout, according to the given use counts.
+     * @return The number of uses of loadable constants whose old index is above {@link #MAX_LDC_INDEX}.
+     * @since 1.0
+     */
+    public int getWideLoadsBefore() {
+        return this.wideLoadsBefore;
+    }
+
+    /**
+     * Returns the number of ldc_w instructions after the layout, according to the given use counts.
+     * @return The number of uses of loadable constants whose new index is above {@link #MAX_LDC_INDEX}.
+     * @since 1.0
+     */
+    public int getWideLoadsAfter() {
+        return this.wideLoadsAfter;
+    }
+
+    /**
+     * Returns the number of ldc_w instructions removed by the layout, each of them saving one byte of bytecode.
+     * @return The number of ldc_w instructions that can be replaced by ldc instructions.
+     * @since 1.0
+     */
+    public int getRemovedWideLoads() {
+        return this.wideLoadsBefore - this.wideLoadsAfter;
+    }
+
+}
@@ -0,0 +1,255 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This ModifiedUtf8 class encodes and decodes strings in the modified UTF-8 format of the class files.<p>
+ * The modified UTF-8 format differs from the standard UTF-8 format in two ways:
+ * the null character takes two bytes, so that the encoded string never contains a zero byte,
+ * and a supplementary character is encoded as its two surrogates, of three bytes each.
+ * The strings are encoded directly into the destination, without any intermediate buffer,
+ * and the ASCII characters are checked and copied four at a time.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantUtf8
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se7/html/jvms-4.html#jvms-4.4.7">ConstantUTF8 in ClassFile's structure</a>
+ */
+public final class ModifiedUtf8 {
+
+    /**
+     * Highest number of bytes of an encoded string, its length being an unsigned 2-byte value in the ClassFile structure.
+     * @since 1.0
+     */
+    public static final int MAX_LENGTH = 0xFFFF;
+
+    /**
+     * Mask of the bits that are not set in four ASCII characters packed in a long.
+     * @since 1.0
+     */
+    private static final long NON_ASCII_MASK = 0xFF80FF80FF80FF80L;
+
+    /**
+     * Lowest bit of each of the four characters packed in a long.
+     * @since 1.0
+     */
+    private static final long LOW_BITS = 0x0001000100010001L;
+
+    /**
+     * Highest bit of each of the four characters packed in a long.
+     * @since 1.0
+     */
+    private static final long HIGH_BITS = 0x8000800080008000L;
+
+    private ModifiedUtf8() {
+    }
+
+    /**
+     * Pack four characters of a string in a long, if they are all encoded in a single byte.
+     * @param str The string.
+     * @param index The index of the first character.
+     * @return The four characters, the first one in the lowest bits, or -1 if one of them takes more than one byte.
+     * @since 1.0
+     */
+    private static long asciiWord(CharSequence str, int index) {
+        final long word = str.charAt(index) | (long) str.charAt(index + 1) << 16
+                | (long) str.charAt(index + 2) << 32 | (long) str.charAt(index + 3) << 48;
+
+        if ((word & NON_ASCII_MASK) != 0 || ((word - LOW_BITS) & ~word & HIGH_BITS) != 0)
+            return -1;
+        return word;
+    }
+
+    /**
+     * Compute the number of bytes of an encoded character.
+     * @param c The character.
+     * @return 1, 2 or 3.
+     * @since 1.0
+     */
+    private static int encodedLength(char c) {
+        if (c != 0 && c < 0x80)
+            return 1;
+        return (c < 0x800) ? 2 : 3;
+    }
+
+    /**
+     * Compute the number of bytes of an encoded string, without encoding it.
+     * @param str The string.
+     * @return The number of bytes of the encoded string.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link #MAX_LENGTH} bytes.
+     * @since 1.0
+     */
+    public static int encodedLength(CharSequence str) {
+        final int length = str.length();
+        int encodedLength;
+        int i = 0;
+
+        while (i + 4 <= length && asciiWord(str, i) != -1)
+            i += 4;
+        encodedLength = i;
+        for (; i < length; i++)
+            encodedLength += encodedLength(str.charAt(i));
+        if (encodedLength > MAX_LENGTH)
+            throw new IllegalArgumentException("The encoded string takes " + encodedLength
+                    + " bytes, more than the " + MAX_LENGTH + " bytes allowed in a class file.");
+        return encodedLength;
+    }
+
+    /**
+     * Encode a string in a new byte array of the exact size.
+     * @param str The string.
+     * @return The encoded string.
+     * @throws IllegalArgumentException If the encoded string exceeds {@link #MAX_LENGTH} bytes.
+     * @since 1.0
+     */
+    public static byte[] encode(CharSequence str) {
+        final byte[] bytes = new byte[encodedLength(str)];
+
+        encode(str, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Encode a string in a byte array, which must be large enough.
+     * @param str The string.
+     * @param out The byte array.
+     * @param offset The position of the first byte in the array.
+     * @return The number of bytes written.
+     * @throws ArrayIndexOutOfBoundsException If the encoded string does not fit in the array.
+     * @since 1.0
+     * @see #encodedLength(CharSequence)
+     */
+    public static int encode(CharSequence str, byte[] out, int offset) {
+        final int length = str.length();
+        int position = offset;
+        long word;
+        char c;
+        int i = 0;
+
+        for (; i + 4 <= length && (word = asciiWord(str, i)) != -1; i += 4) {
+            out[position] = (byte) word;
+            out[position + 1] = (byte) (word >>> 16);
+            out[position + 2] = (byte) (word >>> 32);
+            out[position + 3] = (byte) (word >>> 48);
+            position += 4;
+        }
+        for (; i < length; i++) {
+            c = str.charAt(i);
+            if (c != 0 && c < 0x80) {
+                out[position++] = (byte) c;
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                out[position++] = (byte) (0xE0 | (c >> 12));
+                out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Encode a string in a byte buffer, heap or direct, from its current position which is moved forward.
+     * @param str The string.
+     * @param out The byte buffer.
+     * @throws java.nio.BufferOverflowException If the encoded string does not fit in the remaining space.
+     * @since 1.0
+     */
+    public static void encode(CharSequence str, ByteBuffer out) {
+        final int length = str.length();
+        char c;
+
+        if (out.hasArray() && out.remaining() >= length * 3) {
+            out.position(out.position() + encode(str, out.array(), out.arrayOffset() + out.position()));
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            c = str.charAt(i);
+            if (c != 0 && c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Decode an encoded string.
+     * @param bytes The byte array holding the encoded string.
+     * @param offset The position of the first byte in the array.
+     * @param length The number of bytes of the encoded string.
+     * @return The decoded string.
+     * @throws IllegalArgumentException If the bytes are not a valid modified UTF-8 string.
+     * @since 1.0
+     */
+    public static String decode(byte[] bytes, int offset, int length) {
+        final char[] chars = new char[length];
+        final int end = offset + length;
+        int position = offset;
+        int count = 0;
+        int b;
+
+        while (position < end && bytes[position] > 0)
+            chars[count++] = (char) bytes[position++];
+        while (position < end) {
+            b = bytes[position++] & 0xFF;
+            if (b < 0x80 && b != 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && position < end && (bytes[position] & 0xC0) == 0x80) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[position++] & 0x3F));
+            } else if ((b & 0xF0) == 0xE0 && position + 1 < end
+                    && (bytes[position] & 0xC0) == 0x80 && (bytes[position + 1] & 0xC0) == 0x80) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[position] & 0x3F) << 6)
+                        | (bytes[position + 1] & 0x3F));
+                position += 2;
+            } else {
+                throw new IllegalArgumentException("Malformed modified UTF-8 string at byte " + (position - 1) + '.');
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Compare an encoded string with a string, encoding it on the fly.
+     * @param buffer The buffer holding the encoded string, read with absolute positions.
+     * @param offset The position of the first byte in the buffer.
+     * @param length The number of bytes of the encoded string.
+     * @param str The string to compare.
+     * @return true if the string is encoded in the same bytes, otherwise false.
+     * @since 1.0
+     */
+    public static boolean equals(ByteBuffer buffer, int offset, int length, CharSequence str) {
+        int position = 0;
+        char c;
+
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            if (c != 0 && c < 0x80) {
+                if (position + 1 > length || buffer.get(offset + position) != (byte) c)
+                    return false;
+                position += 1;
+            } else if (c < 0x800) {
+                if (position + 2 > length
+                        || buffer.get(offset + position) != (byte) (0xC0 | (c >> 6))
+                        || buffer.get(offset + position + 1) != (byte) (0x80 | (c & 0x3F)))
+                    return false;
+                position += 2;
+            } else {
+                if (position + 3 > length
+                        || buffer.get(offset + position) != (byte) (0xE0 | (c >> 12))
+                        || buffer.get(offset + position + 1) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                        || buffer.get(offset + position + 2) != (byte) (0x80 | (c & 0x3F)))
+                    return false;
+                position += 3;
+            }
+        }
+        return position == length;
+    }
+
+}
@@ -0,0 +1,241 @@
+package fr.belinguier.java.compiler.constant;
+
+import java.util.Arrays;
+
+/**
+ * This NumericIndexTable class associates the numeric constants of a constant pool with their index.<p>
+ * The constants are keyed by their tag and the raw bits of their value,
+ * so a NaN or a negative zero only matches the constants with the exact same bit pattern.
+ * The keys and the indexes are stored in primitive arrays with open addressing and linear probing,
+ * so looking up, adding and removing a constant never allocates, except when the arrays grow.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantInteger
+ * @see ConstantFloat
+ * @see ConstantLong
+ * @see ConstantDouble
+ */
+final class NumericIndexTable {
+
+    /**
+     * Initial number of slots, a power of two.
+     * @since 1.0
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Multiplier of the Fibonacci hashing, spreading the close values over the whole table.
+     * @since 1.0
+     */
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Raw bits of the value of the constant in each slot, int values being sign-extended.
+     * @since 1.0
+     */
+    private long[] keys;
+
+    /**
+     * Tag of the constant in each slot.
+     * @since 1.0
+     */
+    private byte[] tags;
+
+    /**
+     * Index of the constant in each slot. 0 marks a free slot.
+     * @since 1.0
+     */
+    private int[] indexes;
+
+    /**
+     * Number of constants in the table.
+     * @since 1.0
+     */
+    private int size;
+
+    /**
+     * Constructs an empty table.
+     * @since 1.0
+     */
+    NumericIndexTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Tell whether a constant is stored in this table.
+     * @param constant The constant.
+     * @return true for {@link ConstantInteger}, {@link ConstantFloat}, {@link ConstantLong} and {@link ConstantDouble}.
+     * @since 1.0
+     */
+    static boolean isNumeric(Constant constant) {
+        return constant instanceof ConstantInteger || constant instanceof ConstantFloat
+                || constant instanceof ConstantLong || constant instanceof ConstantDouble;
+    }
+
+    /**
+     * Returns the raw bits of the value of a numeric constant.
+     * @param constant The numeric constant.
+     * @return The raw bits, int values being sign-extended.
+     * @since 1.0
+     */
+    private static long bits(Constant constant) {
+        if (constant instanceof ConstantInteger)
+            return ((ConstantInteger) constant).getValue();
+        if (constant instanceof ConstantFloat)
+            return Float.floatToRawIntBits(((ConstantFloat) constant).getValue());
+        if (constant instanceof ConstantLong)
+            return ((ConstantLong) constant).getValue();
+        return Double.doubleToRawLongBits(((ConstantDouble) constant).getValue());
+    }
+
+    /**
+     * Allocate empty arrays.
+     * @param capacity The number of slots, a power of two.
+     * @since 1.0
+     */
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.tags = new byte[capacity];
+        this.indexes = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Compute the first slot of a key.
+     * @param tag The tag of the constant.
+     * @param key The raw bits of the value of the constant.
+     * @return The slot.
+     * @since 1.0
+     */
+    private int slot(byte tag, long key) {
+        return (int) (((key + tag) * GOLDEN_RATIO) >>> 32) & (this.indexes.length - 1);
+    }
+
+    /**
+     * Find the slot of a key.
+     * @param tag The tag of the constant.
+     * @param key The raw bits of the value of the constant.
+     * @return The slot holding the key, or the free slot where it would be added.
+     * @since 1.0
+     */
+    private int find(byte tag, long key) {
+        final int mask = this.indexes.length - 1;
+        int slot = slot(tag, key);
+
+        while (this.indexes[slot] != 0 && (this.keys[slot] != key || this.tags[slot] != tag))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Returns the index of a numeric constant.
+     * @param constant The numeric constant.
+     * @return The index of the constant, or 0 if it is not in the table.
+     * @since 1.0
+     */
+    int get(Constant constant) {
+        return this.indexes[find(constant.getConstantType().getTag(), bits(constant))];
+    }
+
+    /**
+     * Associate a numeric constant with its index, replacing its previous index.
+     * @param constant The numeric constant.
+     * @param index The index of the constant, above 0.
+     * @since 1.0
+     */
+    void put(Constant constant, int index) {
+        final byte tag = constant.getConstantType().getTag();
+        final long key = bits(constant);
+        int slot = find(tag, key);
+
+        if (this.indexes[slot] == 0) {
+            if ((this.size + 1) * 2 > this.indexes.length) {
+                grow(this.indexes.length * 2);
+                slot = find(tag, key);
+            }
+            this.keys[slot] = key;
+            this.tags[slot] = tag;
+            ++this.size;
+        }
+        this.indexes[slot] = index;
+    }
+
+    /**
+     * Remove a numeric constant from the table.<p>
+     * The following keys of the probing sequence are moved back, so that no tombstone is left.
+     * @param constant The numeric constant.
+     * @return The index the constant had, or 0 if it was not in the table.
+     * @since 1.0
+     */
+    int remove(Constant constant) {
+        final int mask = this.indexes.length - 1;
+        final int index;
+        int free = find(constant.getConstantType().getTag(), bits(constant));
+        int slot = free;
+        int home;
+
+        index = this.indexes[free];
+        if (index == 0)
+            return 0;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (this.indexes[slot] == 0)
+                break;
+            home = slot(this.tags[slot], this.keys[slot]);
+            if (((slot - home) & mask) < ((slot - free) & mask))
+                continue;
+            this.keys[free] = this.keys[slot];
+            this.tags[free] = this.tags[slot];
+            this.indexes[free] = this.indexes[slot];
+            free = slot;
+        }
+        this.indexes[free] = 0;
+        --this.size;
+        return index;
+    }
+
+    /**
+     * Move all the keys to larger arrays.
+     * @param capacity The new number of slots, a power of two.
+     * @since 1.0
+     */
+    private void grow(int capacity) {
+        final long[] keys = this.keys;
+        final byte[] tags = this.tags;
+        final int[] indexes = this.indexes;
+        int slot;
+
+        allocate(capacity);
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] == 0)
+                continue;
+            slot = find(tags[i], keys[i]);
+            this.keys[slot] = keys[i];
+            this.tags[slot] = tags[i];
+            this.indexes[slot] = indexes[i];
+            ++this.size;
+        }
+    }
+
+    /**
+     * Returns the number of constants in the table.
+     * @return The number of constants.
+     * @since 1.0
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove all the constants from the table, keeping its capacity.
+     * @since 1.0
+     */
+    void clear() {
+        if (this.size == 0)
+            return;
+        Arrays.fill(this.indexes, 0);
+        this.size = 0;
+    }
+
+}
@@ -0,0 +1,83 @@
+package fr.belinguier.java.compiler.constant;
+
+/**
+ * Enumeration of the kinds of method handle, which define the bytecode behavior of a {@link ConstantMethodHandle}.
+ * @author Eliott Belinguier
+ * @since 1.0
+ * @version 1.0
+ * @see ConstantMethodHandle
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-5.html#jvms-5.4.3.5">Method Type and Method Handle Resolution</a>
+ */
+public enum ReferenceKind {
+
+    GET_FIELD((byte) 1),
+    GET_STATIC((byte) 2),
+    PUT_FIELD((byte) 3),
+    PUT_STATIC((byte) 4),
+    INVOKE_VIRTUAL((byte) 5),
+    INVOKE_STATIC((byte) 6),
+    INVOKE_SPECIAL((byte) 7),
+    NEW_INVOKE_SPECIAL((byte) 8),
+    INVOKE_INTERFACE((byte) 9);
+
+    /**
+     * The reference_kind item of the ConstantMethodHandle structure.
+     * @since 1.0
+     */
+    private final byte kind;
+
+    ReferenceKind(byte kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Returns the reference_kind item written in the ConstantMethodHandle structure.
+     * @return The value of the reference kind, from 1 to 9.
+     * @since 1.0
+     */
+    public byte getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the reference kind corresponding to a reference_kind item.
+     * @param kind The value of the reference kind, as read in a ConstantMethodHandle structure.
+     * @return The reference kind, or null if the value is unknown.
+     * @since 1.0
+     */
+    public static ReferenceKind fromKind(byte kind) {
+        final ReferenceKind[] referenceKinds = values();
+
+        if (kind < 1 || kind > referenceKinds.length)
+            return null;
+        return referenceKinds[kind - 1];
+    }
+
+    /**
+     * Checks if a method handle of this kind can refer to a constant of the given type.<p>
+     * The field kinds refer to a {@link ConstantFieldRef},
+     * {@link #INVOKE_VIRTUAL} and {@link #NEW_INVOKE_SPECIAL} to a {@link ConstantMethodRef},
+     * {@link #INVOKE_INTERFACE} to a {@link ConstantInterfaceMethodRef},
+     * and {@link #INVOKE_STATIC} and {@link #INVOKE_SPECIAL} to either of the method references.
+     * @param constantType The type of the referenced constant.
+     * @return true if the type of constant can be referenced, otherwise false.
+     * @since 1.0
+     */
+    public boolean accepts(ConstantType constantType) {
+        switch (this) {
+            case GET_FIELD:
+            case GET_STATIC:
+            case PUT_FIELD:
+            case PUT_STATIC:
+                return constantType == ConstantType.FIELD_REF;
+            case INVOKE_VIRTUAL:
+            case NEW_INVOKE_SPECIAL:
+                return constantType == ConstantType.METHOD_REF;
+            case INVOKE_INTERFACE:
+                return constantType == ConstantType.INTERFACE_METHOD_REF;
+            default:
+                return constantType == ConstantType.METHOD_REF || constantType == ConstantType.INTERFACE_METHOD_REF;
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+package fr.belinguier.java.compiler.classfile;
+
+final class GeneratedClassLoader extends ClassLoader {
+
+    Class<?> define(String name, byte[] bytecode) {
+        return defineClass(name, bytecode, 0, bytecode.length);
+    }
+
+}
@@ -0,0 +1,111 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.JavaVersion;
+import fr.belinguier.java.compiler.constant.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestClassWriter {
+
+    @Test
+    public void testClassFile() throws Exception {
+        final ClassWriter classWriter = new ClassWriter(JavaVersion.JAVA_8, 0x0601, "generated/Shape",
+                "java/lang/Object", "java/io/Serializable");
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final byte[] bytecode;
+        final ByteBuffer header;
+        final Class<?> generated;
+
+        classWriter.addField(0x0019, "SIDES", "I");
+        classWriter.addMethod(0x0401, "area", "()D");
+        bytecode = classWriter.serialize();
+        classWriter.serialize(new DataOutputStream(arrayOutputStream));
+        header = ByteBuffer.wrap(bytecode);
+        generated = new GeneratedClassLoader().define("generated.Shape", bytecode);
+
+        assertEquals(bytecode.length, classWriter.serializedSize());
+        assertArrayEquals(arrayOutputStream.toByteArray(), bytecode);
+        assertEquals(header.getInt(0), ClassWriter.MAGIC);
+        assertEquals(header.getShort(6), JavaVersion.JAVA_8.byteCode);
+        assertEquals(classWriter.getConstantPool().getTargetVersion(), JavaVersion.JAVA_8);
+        assertTrue(generated.isInterface());
+        assertArrayEquals(generated.getInterfaces(), new Class<?>[] {java.io.Serializable.class});
+        assertEquals(generated.getDeclaredField("SIDES").getType(), int.class);
+        assertTrue(Modifier.isAbstract(generated.getDeclaredMethod("area").getModifiers()));
+    }
+
+    @Test
+    public void testBootstrapMethods() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ClassWriter classWriter = new ClassWriter(constantPool, JavaVersion.JAVA_11, 0x0021, "generated/Lazy",
+                "java/lang/Object");
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC,
+                new ConstantMethodRef("generated/Lazy", "bootstrap", "()V")));
+        final byte[] bytecode;
+        final ByteBuffer trailer;
+
+        constantPool.registerConstant(new ConstantDynamic(bootstrapMethod, "value", "Ljava/lang/Object;"));
+        classWriter.addAttribute(new RawAttribute("Custom", new byte[] {7}));
+        bytecode = classWriter.serialize();
+        trailer = ByteBuffer.wrap(bytecode, bytecode.length - constantPool.bootstrapMethodsSize() - 9,
+                constantPool.bootstrapMethodsSize() + 9);
+
+        assertEquals(bytecode.length, classWriter.serializedSize());
+        assertEquals(trailer.getShort(), 2);
+        assertEquals(trailer.getShort(), constantPool.indexOf(new ConstantUtf8("Custom")));
+        assertEquals(trailer.getInt(), 1);
+        assertEquals(trailer.get(), 7);
+        assertEquals(trailer.getShort(), constantPool.indexOf(new ConstantUtf8("BootstrapMethods")));
+        assertEquals(trailer.getInt(), constantPool.bootstrapMethodsSize() - 6);
+    }
+
+    @Test
+    public void testTargetVersion() {
+        final ClassWriter classWriter = new ClassWriter(JavaVersion.JAVA_10, 0x0021, "generated/Lazy",
+                "java/lang/Object");
+
+        classWriter.getConstantPool().registerConstant(new ConstantDynamic(new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("generated/Lazy", "bootstrap", "()V"))), "a", "I"));
+
+        assertThrows(IllegalStateException.class, classWriter::serialize);
+        assertThrows(IllegalArgumentException.class, () -> new ClassWriter(JavaVersion.JAVA_1, 0, "A", "B"));
+        assertThrows(NullPointerException.class, () -> new ClassWriter(null, 0, "A", "B"));
+    }
+
+    @Test
+    public void testSuperClass() {
+        final ClassWriter classWriter = new ClassWriter(JavaVersion.JAVA_8, 0x0021, "java/lang/Object", null);
+        final byte[] bytecode = classWriter.serialize();
+        final ByteBuffer buffer = ByteBuffer.wrap(bytecode);
+
+        assertNull(classWriter.getSuperClass());
+        assertEquals(buffer.getShort(bytecode.length - 10), 0);
+        assertThrows(IllegalArgumentException.class, () -> new ClassWriter(JavaVersion.JAVA_8, 0x0021, "generated/A", null));
+    }
+
+    @Test
+    public void testByteOrder() {
+        final ClassWriter classWriter = new ClassWriter(JavaVersion.JAVA_8, 0x0021, "generated/Order",
+                "java/lang/Object", "java/io/Serializable");
+        final ByteBuffer buffer;
+        final byte[] bytecode;
+
+        classWriter.addField(0x0002, "value", "J");
+        buffer = ByteBuffer.allocateDirect(classWriter.serializedSize()).order(ByteOrder.LITTLE_ENDIAN);
+        bytecode = new byte[buffer.capacity()];
+        classWriter.serialize(buffer);
+        buffer.flip();
+        buffer.get(bytecode);
+
+        assertEquals(buffer.order(), ByteOrder.LITTLE_ENDIAN);
+        assertArrayEquals(bytecode, classWriter.serialize());
+    }
+
+}
@@ -0,0 +1,41 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCodeAttribute {
+
+    @Test
+    public void testAttribute() {
+        final ConstantPool constantPool = new ConstantPool();
+        final byte[] code = new byte[] {(byte) Opcodes.ICONST_0, (byte) Opcodes.IRETURN};
+        final CodeAttribute attribute = new CodeAttribute(1, 2, code);
+        final ByteBuffer buffer = ByteBuffer.allocate(attribute.serializedSize());
+        final byte[] serializedAttributeModel = new byte[] {
+                0, 1, 0, 0, 0, 14, 0, 1, 0, 2, 0, 0, 0, 2, 3, (byte) 0xAC, 0, 0, 0, 0
+        };
+
+        code[0] = 0;
+        attribute.resolve(constantPool);
+        attribute.serialize(constantPool, buffer);
+
+        assertEquals(attribute.getMaxStack(), 1);
+        assertEquals(attribute.getMaxLocals(), 2);
+        assertArrayEquals(attribute.getCode(), new byte[] {(byte) Opcodes.ICONST_0, (byte) Opcodes.IRETURN});
+        assertEquals(attribute.getLength(), 14);
+        assertArrayEquals(buffer.array(), serializedAttributeModel);
+        assertThrows(IllegalArgumentException.class, () -> new CodeAttribute(0, 0, new byte[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CodeAttribute(0, 0, new byte[CodeAttribute.MAX_CODE_LENGTH + 1]));
+        assertThrows(IllegalArgumentException.class, () -> new CodeAttribute(70000, 0, code));
+        assertThrows(IllegalArgumentException.class, () -> new CodeAttribute(0, 0x10000, code));
+        assertThrows(IllegalArgumentException.class, () -> new CodeAttribute(-1, 0, code));
+        assertEquals(new CodeAttribute(CodeAttribute.MAX_SLOTS, CodeAttribute.MAX_SLOTS, code).getMaxLocals(),
+                CodeAttribute.MAX_SLOTS);
+    }
+
+}
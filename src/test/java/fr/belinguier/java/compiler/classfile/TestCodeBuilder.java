@@ -0,0 +1,166 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.JavaVersion;
+import fr.belinguier.java.compiler.constant.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCodeBuilder {
+
+    private static byte[] bytes(int... values) {
+        final byte[] bytes = new byte[values.length];
+
+        for (int i = 0; i < values.length; i++)
+            bytes[i] = (byte) values[i];
+        return bytes;
+    }
+
+    @Test
+    public void testPushInt() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CodeBuilder codeBuilder = new CodeBuilder(constantPool);
+
+        codeBuilder.pushInt(-1).pushInt(5).pushInt(-128).pushInt(127).pushInt(-32768).pushInt(32767).pushInt(100000);
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(
+                0x02, 0x08, 0x10, 0x80, 0x10, 0x7F, 0x11, 0x80, 0x00, 0x11, 0x7F, 0xFF, 0x12, 1));
+        assertEquals(constantPool.indexOf(new ConstantInteger(100000)), 1);
+    }
+
+    @Test
+    public void testPushFloatingPoint() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CodeBuilder codeBuilder = new CodeBuilder(constantPool);
+
+        codeBuilder.pushLong(0).pushLong(1).pushLong(2)
+                .pushFloat(0.0F).pushFloat(1.0F).pushFloat(2.0F).pushFloat(-0.0F)
+                .pushDouble(0.0).pushDouble(1.0).pushDouble(-0.0);
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(
+                0x09, 0x0A, 0x14, 0, 1, 0x0B, 0x0C, 0x0D, 0x12, 3, 0x0E, 0x0F, 0x14, 0, 4));
+    }
+
+    @Test
+    public void testLdc() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CodeBuilder codeBuilder = new CodeBuilder(constantPool);
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC,
+                new ConstantMethodRef("L", "m", "()V")));
+
+        for (int i = 1; i < 255; i++)
+            constantPool.registerConstant(new ConstantInteger(i + 1000000));
+        codeBuilder.ldc(new ConstantString("a")).ldc(new ConstantString("b"))
+                .ldc(new ConstantDynamic(bootstrapMethod, "c", "J"));
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(0x12, 255, 0x13, 1, 0, 0x14, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.ldc(new ConstantUtf8("a")));
+        assertThrows(NullPointerException.class, () -> codeBuilder.ldc(null));
+    }
+
+    @Test
+    public void testLocalVariables() {
+        final CodeBuilder codeBuilder = new CodeBuilder(new ConstantPool(), 1);
+
+        codeBuilder.load(VariableType.REFERENCE, 0).load(VariableType.LONG, 3).load(VariableType.INT, 4)
+                .store(VariableType.DOUBLE, 2).store(VariableType.FLOAT, 255).store(VariableType.INT, 256)
+                .iinc(1, 127).iinc(1, 128).iinc(300, -1);
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(
+                0x2A, 0x21, 0x15, 4, 0x49, 0x38, 255, 0xC4, 0x36, 1, 0,
+                0x84, 1, 127, 0xC4, 0x84, 0, 1, 0, 128, 0xC4, 0x84, 1, 44, 0xFF, 0xFF));
+        assertEquals(codeBuilder.getMaxLocals(), 301);
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.iinc(1, 40000));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.load(VariableType.INT, -1));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.load(VariableType.LONG, 0xFFFE));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.load(VariableType.INT, 0xFFFF));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.setMaxStack(70000));
+        assertThrows(IllegalArgumentException.class, () -> new CodeBuilder(new ConstantPool(), 0x10000));
+        codeBuilder.load(VariableType.LONG, 0xFFFD).setMaxStack(0xFFFF);
+        assertEquals(codeBuilder.getMaxLocals(), 0xFFFF);
+        assertEquals(codeBuilder.build().getMaxStack(), 0xFFFF);
+    }
+
+    @Test
+    public void testConstantInstruction() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CodeBuilder codeBuilder = new CodeBuilder(constantPool);
+        final ConstantInterfaceMethodRef method = new ConstantInterfaceMethodRef("L", "m", "(J[[Ljava/lang/String;[DI)V");
+
+        codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE, method)
+                .constantInstruction(Opcodes.GETSTATIC, new ConstantFieldRef("L", "f", "I"));
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(0xB9, 0, 1, 6, 0, 0xB2, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE,
+                new ConstantMethodRef("L", "n", "()V")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.LDC,
+                new ConstantString("s")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(0xC5,
+                new ConstantClass("[[I")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE,
+                new ConstantInterfaceMethodRef("A", "m", "(Ljava")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE,
+                new ConstantInterfaceMethodRef("A", "m", "(Q)V")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE,
+                new ConstantInterfaceMethodRef("A", "m", "V")));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.constantInstruction(Opcodes.INVOKEINTERFACE,
+                new ConstantInterfaceMethodRef("A", "m", '(' + String.join("", Collections.nCopies(128, "J")) + ")V")));
+        assertEquals(codeBuilder.length(), 8);
+        assertEquals(constantPool.indexOf(new ConstantInterfaceMethodRef("A", "m", "(Ljava")), 0);
+        assertEquals(constantPool.indexOf(new ConstantMethodRef("L", "n", "()V")), 0);
+        assertEquals(constantPool.indexOf(new ConstantString("s")), 0);
+    }
+
+    @Test
+    public void testInstruction() {
+        final CodeBuilder codeBuilder = new CodeBuilder(new ConstantPool());
+
+        codeBuilder.instruction(Opcodes.ACONST_NULL).instruction(0x2D).instruction(Opcodes.MONITORENTER)
+                .instruction(Opcodes.RETURN);
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(0x01, 0x2D, 0xC2, 0xB1));
+        for (int opcode : new int[] {Opcodes.BIPUSH, Opcodes.LDC, Opcodes.ILOAD, Opcodes.ISTORE + 4, Opcodes.IINC,
+                Opcodes.IFEQ, Opcodes.GOTO, Opcodes.RET, Opcodes.TABLESWITCH, Opcodes.GETSTATIC, Opcodes.NEWARRAY,
+                Opcodes.CHECKCAST, Opcodes.WIDE, Opcodes.MULTIANEWARRAY, Opcodes.GOTO_W, 0xCA, -1, 0x100}) {
+            assertThrows(IllegalArgumentException.class, () -> codeBuilder.instruction(opcode));
+        }
+        assertEquals(codeBuilder.length(), 4);
+    }
+
+    @Test
+    public void testNewArray() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CodeBuilder codeBuilder = new CodeBuilder(constantPool);
+
+        codeBuilder.pushInt(3).newArray(Opcodes.T_INT).pushInt(2).pushInt(3)
+                .multiANewArray(new ConstantClass("[[J"), 2);
+
+        assertArrayEquals(codeBuilder.toByteArray(), bytes(0x06, 0xBC, 10, 0x05, 0x06, 0xC5, 0, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.newArray(3));
+        assertThrows(IllegalArgumentException.class, () -> codeBuilder.multiANewArray(new ConstantClass("[I"), 0));
+        assertEquals(codeBuilder.length(), 9);
+    }
+
+    @Test
+    public void testGeneratedMethod() throws Exception {
+        final ClassWriter classWriter = new ClassWriter(JavaVersion.JAVA_8, 0x0021, "generated/Compute",
+                "java/lang/Object");
+        final CodeBuilder codeBuilder = new CodeBuilder(classWriter.getConstantPool(), 2);
+        final Method method;
+
+        codeBuilder.load(VariableType.INT, 0).pushInt(100000).instruction(Opcodes.IMUL)
+                .load(VariableType.INT, 1).instruction(Opcodes.IADD).store(VariableType.INT, 2)
+                .iinc(2, 1000).load(VariableType.INT, 2).instruction(Opcodes.IRETURN).setMaxStack(2);
+        classWriter.addMethod(0x0009, "compute", "(II)I").addAttribute(codeBuilder.build());
+        method = new GeneratedClassLoader().define("generated.Compute", classWriter.serialize())
+                .getMethod("compute", int.class, int.class);
+
+        assertEquals(codeBuilder.getMaxLocals(), 3);
+        assertEquals(method.invoke(null, 3, 4), 301004);
+        assertThrows(IllegalArgumentException.class, () -> new CodeBuilder(new ConstantPool()).build());
+    }
+
+}
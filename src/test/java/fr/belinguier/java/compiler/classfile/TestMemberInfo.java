@@ -0,0 +1,42 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+import fr.belinguier.java.compiler.constant.ConstantUtf8;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMemberInfo {
+
+    @Test
+    public void testMember() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final MemberInfo member = new MemberInfo(0x0009, "value", "I");
+        final ByteBuffer buffer;
+        final byte[] serializedMemberModel = new byte[] {
+                0, 9, 0, 1, 0, 2, 0, 1, 0, 3, 0, 0, 0, 0
+        };
+
+        member.addAttribute(new RawAttribute("Synthetic", null));
+        member.resolve(constantPool);
+        buffer = ByteBuffer.allocate(member.serializedSize());
+        member.serialize(constantPool, buffer);
+        assertDoesNotThrow(() -> member.serialize(constantPool, new DataOutputStream(arrayOutputStream)));
+
+        assertEquals(member.getAccessFlags(), 0x0009);
+        assertEquals(member.getName(), new ConstantUtf8("value"));
+        assertEquals(member.getDescriptor(), new ConstantUtf8("I"));
+        assertEquals(member.getAttributes().length, 1);
+        assertEquals(member.serializedSize(), 14);
+        assertArrayEquals(buffer.array(), serializedMemberModel);
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedMemberModel);
+        assertThrows(NullPointerException.class, () -> member.addAttribute(null));
+        assertThrows(NullPointerException.class, () -> new MemberInfo(0, "value", null));
+    }
+
+}
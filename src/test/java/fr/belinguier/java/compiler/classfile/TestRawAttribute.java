@@ -0,0 +1,41 @@
+package fr.belinguier.java.compiler.classfile;
+
+import fr.belinguier.java.compiler.constant.ConstantPool;
+import fr.belinguier.java.compiler.constant.ConstantUtf8;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRawAttribute {
+
+    @Test
+    public void testAttribute() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final byte[] info = new byte[] {1, 2, 3};
+        final RawAttribute attribute = new RawAttribute("Custom", info);
+        final ByteBuffer buffer = ByteBuffer.allocate(attribute.serializedSize());
+        final byte[] serializedAttributeModel = new byte[] {
+                0, 1, 0, 0, 0, 3, 1, 2, 3
+        };
+
+        info[0] = 9;
+        attribute.resolve(constantPool);
+        attribute.serialize(constantPool, buffer);
+        assertDoesNotThrow(() -> attribute.serialize(constantPool, new DataOutputStream(arrayOutputStream)));
+
+        assertEquals(attribute.getName(), new ConstantUtf8("Custom"));
+        assertEquals(attribute.getLength(), 3);
+        assertEquals(attribute.serializedSize(), 9);
+        assertArrayEquals(attribute.getInfo(), new byte[] {1, 2, 3});
+        assertArrayEquals(buffer.array(), serializedAttributeModel);
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedAttributeModel);
+        assertEquals(new RawAttribute("Empty", null).serializedSize(), 6);
+        assertThrows(NullPointerException.class, () -> new RawAttribute(null, info));
+    }
+
+}
@@ -0,0 +1,53 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBootstrapMethod {
+
+    private static ConstantMethodHandle createMethodHandle() {
+        return new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("A", "b", "()V"));
+    }
+
+    @Test
+    public void testBootstrapMethod() {
+        final ConstantPool constantPool = new ConstantPool();
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(createMethodHandle(),
+                new ConstantString("c"), new ConstantLong(1));
+        final ByteBuffer buffer = ByteBuffer.allocate(bootstrapMethod.serializedSize());
+        final byte[] serializedModel = new byte[] {0, 2, 0, 2, 0, 3, 0, 4};
+
+        assertEquals(constantPool.getOrRegisterBootstrapMethod(bootstrapMethod), 0);
+        bootstrapMethod.serialize(constantPool, buffer);
+
+        assertEquals(bootstrapMethod.getMethod(), createMethodHandle());
+        assertArrayEquals(bootstrapMethod.getArguments(), new Constant[] {new ConstantString("c"), new ConstantLong(1)});
+        assertEquals(bootstrapMethod.serializedSize(), 8);
+        assertArrayEquals(buffer.array(), serializedModel);
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(new BootstrapMethod(createMethodHandle(), new ConstantInteger(1)),
+                new BootstrapMethod(createMethodHandle(), new ConstantInteger(1)));
+        assertEquals(new BootstrapMethod(createMethodHandle()).hashCode(),
+                new BootstrapMethod(createMethodHandle(), (Constant[]) null).hashCode());
+        assertNotEquals(new BootstrapMethod(createMethodHandle(), new ConstantInteger(1)),
+                new BootstrapMethod(createMethodHandle(), new ConstantFloat(1)));
+        assertNotEquals(new BootstrapMethod(createMethodHandle(), new ConstantInteger(1)),
+                new BootstrapMethod(createMethodHandle()));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new BootstrapMethod(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BootstrapMethod(createMethodHandle(), new ConstantUtf8("c")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BootstrapMethod(createMethodHandle(), new ConstantInteger(1), null));
+    }
+
+}
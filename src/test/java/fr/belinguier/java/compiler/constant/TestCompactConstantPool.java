@@ -0,0 +1,116 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCompactConstantPool {
+
+    @Test
+    public void testRegistration() {
+        final CompactConstantPool constantPool = new CompactConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 8);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("A")), 3);
+        assertEquals(constantPool.indexOf(new ConstantClass("A")), 4);
+        assertEquals(constantPool.indexOf(new ConstantNameAndType("b", "I")), 7);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 8);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(4)), 9);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getCount(), 11);
+        assertEquals(constantPool.getConstants().length, 8);
+        assertFalse(constantPool.registerConstant(new ConstantUtf8("b")));
+        assertTrue(constantPool.registerConstant(new ConstantFloat(4)));
+        assertEquals(constantPool.getOrRegister(null), 0);
+    }
+
+    @Test
+    public void testIndexOf() {
+        final CompactConstantPool constantPool = new CompactConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantClass("A")), 2);
+        assertEquals(constantPool.indexOf(new ConstantMethodRef("A", "b", "()V")), 0);
+        assertEquals(constantPool.indexOf(new ConstantString("A")), 0);
+        assertEquals(constantPool.getCount(), 3);
+        assertEquals(constantPool.getOrRegister(new ConstantString("A")), 3);
+        assertEquals(constantPool.indexOf(new ConstantString("A")), 3);
+    }
+
+    @Test
+    public void testGetConstants() {
+        final CompactConstantPool constantPool = new CompactConstantPool(true);
+        final Constant[] constants = {
+                new ConstantInteger(-1), new ConstantFloat(Float.NaN), new ConstantDouble(-0.0),
+                new ConstantMethodRef("A", "b", "()V"), new ConstantInterfaceMethodRef("C", "d", "()I"),
+                new ConstantMethodType("()V"), new ConstantString("MrCubee"), new ConstantUtf8("é€")
+        };
+        final ConstantPool copy = new ConstantPool();
+
+        for (Constant constant : constants)
+            assertNotEquals(constantPool.getOrRegister(constant), 0);
+        for (Constant constant : constantPool.getConstants())
+            assertEquals(copy.getOrRegister(constant), constantPool.indexOf(constant));
+        for (Constant constant : constants)
+            assertEquals(copy.indexOf(constant), constantPool.indexOf(constant));
+        assertArrayEquals(copy.serialize(), constantPool.serialize());
+    }
+
+    @Test
+    public void testSerialization() {
+        final CompactConstantPool constantPool = new CompactConstantPool();
+        final ConstantPool expected = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer;
+
+        for (int i = 0; i < 500; i++) {
+            constantPool.getOrRegister(new ConstantMethodRef("A" + (i % 7), "b" + i, "()V"));
+            constantPool.getOrRegister(new ConstantLong(i));
+        }
+        for (Constant constant : constantPool.getConstants())
+            expected.registerConstant(constant);
+        buffer = ByteBuffer.allocate(constantPool.serializedSize());
+        constantPool.serialize(buffer);
+        assertDoesNotThrow(() -> constantPool.serialize(new DataOutputStream(arrayOutputStream)));
+
+        assertEquals(buffer.remaining(), 0);
+        assertEquals(constantPool.serializedSize(), expected.serializedSize());
+        assertArrayEquals(buffer.array(), expected.serialize());
+        assertArrayEquals(arrayOutputStream.toByteArray(), expected.serialize());
+        assertArrayEquals(new ConstantPool(constantPool).serialize(), expected.serialize());
+        assertArrayEquals(constantPool.freeze().serialize(), expected.serialize());
+    }
+
+    @Test
+    public void testUnRegister() {
+        final CompactConstantPool constantPool = new CompactConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 1);
+        assertThrows(UnsupportedOperationException.class,
+                () -> constantPool.unRegisterConstant(new ConstantUtf8("MrCubee")));
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 1);
+        assertArrayEquals(constantPool.registerAll(new ConstantClass("MrCubee"), null, new ConstantLong(4)),
+                new int[]{2, 0, 3});
+        assertEquals(constantPool.getCount(), 5);
+        constantPool.unRegisterAll();
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 0);
+        assertEquals(constantPool.getCount(), 1);
+        assertArrayEquals(constantPool.serialize(), new byte[]{0, 1});
+    }
+
+    @Test
+    public void testCompact() {
+        final CompactConstantPool constantPool = new CompactConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantClass("A")), 4);
+        assertArrayEquals(constantPool.compact(4), new int[]{0, 0, 0, 1, 2});
+        assertEquals(constantPool.indexOf(new ConstantClass("A")), 2);
+        assertEquals(constantPool.getCount(), 3);
+    }
+
+}
@@ -0,0 +1,126 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConcurrentConstantPool {
+
+    private static Constant createConstant(int i) {
+        switch (i % 4) {
+            case 0:
+                return new ConstantLong(i);
+            case 1:
+                return new ConstantMethodRef("A" + (i % 7), "b" + i, "()V");
+            case 2:
+                return new ConstantString("MrCubee" + (i % 13));
+            default:
+                return new ConstantInteger(i);
+        }
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        final ConcurrentConstantPool constantPool = new ConcurrentConstantPool();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<short[]>> futures = new ArrayList<Future<short[]>>();
+        final HashSet<Short> indexes = new HashSet<Short>();
+        final ConstantPool sequentialConstantPool = new ConstantPool();
+        final Constant[] constants;
+
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(new Callable<short[]>() {
+                    @Override
+                    public short[] call() {
+                        final short[] threadIndexes = new short[2000];
+
+                        for (int i = 0; i < threadIndexes.length; i++)
+                            threadIndexes[i] = constantPool.getOrRegister(createConstant(i));
+                        return threadIndexes;
+                    }
+                }));
+            }
+            for (Future<short[]> future : futures)
+                assertArrayEquals(future.get(), futures.get(0).get());
+        } finally {
+            executor.shutdown();
+        }
+        for (short index : futures.get(0).get()) {
+            assertNotEquals(index, 0);
+            indexes.add(index);
+        }
+        constants = constantPool.getConstants();
+        assertEquals(indexes.size(), constants.length);
+        for (Constant constant : constants)
+            assertEquals(sequentialConstantPool.getOrRegister(constant), constantPool.indexOf(constant));
+        assertArrayEquals(constantPool.serialize(), sequentialConstantPool.serialize());
+    }
+
+    @Test
+    public void testDeterministicJoin() throws Exception {
+        final byte[][] serializedConstantPools = new byte[2][];
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int run = 0; run < serializedConstantPools.length; run++) {
+                final ConcurrentConstantPool constantPool = new ConcurrentConstantPool();
+                final ConstantPool[] workers = new ConstantPool[4];
+                final List<Future<?>> futures = new ArrayList<Future<?>>();
+                final ConstantPoolMerge merge;
+                final short shared;
+
+                shared = constantPool.getOrRegister(new ConstantClass("java/lang/Object"));
+                for (int worker = 0; worker < workers.length; worker++)
+                    workers[worker] = constantPool.fork();
+                for (int i = 0; i < workers.length; i++) {
+                    final int worker = (run == 0) ? i : workers.length - 1 - i;
+
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < 500; j++)
+                            workers[worker].getOrRegister(createConstant(j * (worker + 1)));
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+                merge = constantPool.join(workers);
+
+                assertEquals(merge.getSourceCount(), workers.length);
+                assertEquals(merge.getConstantPool().indexOf(new ConstantClass("java/lang/Object")), shared);
+                for (int worker = 0; worker < workers.length; worker++)
+                    for (Constant constant : workers[worker].getConstants())
+                        assertEquals(merge.getRemap(worker)[workers[worker].indexOf(constant) & 0xFFFF],
+                                merge.getConstantPool().indexOf(constant) & 0xFFFF);
+                serializedConstantPools[run] = merge.getConstantPool().serialize();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertArrayEquals(serializedConstantPools[1], serializedConstantPools[0]);
+    }
+
+    @Test
+    public void testCopy() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConcurrentConstantPool copy;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 3);
+        copy = new ConcurrentConstantPool(constantPool);
+        assertEquals(copy.indexOf(new ConstantUtf8("MrCubee")), 3);
+        assertEquals(copy.getOrRegister(new ConstantInteger(4)), 4);
+        assertTrue(copy.unRegisterConstant(new ConstantLong(4)));
+        assertEquals(copy.indexOf(new ConstantInteger(4)), 2);
+        copy.unRegisterAll();
+        assertEquals(copy.indexOf(new ConstantUtf8("MrCubee")), 0);
+    }
+
+}
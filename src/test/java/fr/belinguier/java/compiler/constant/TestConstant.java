@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,6 +60,29 @@ public class TestConstant {
         assertEquals(firstConstant, secondConstant);
     }
 
+    @Test
+    public void testEqualsWithHashCollision() {
+        final ConstantString firstConstant = new ConstantString("Aa");
+        final ConstantString secondConstant = new ConstantString("BB");
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(firstConstant.hashCode(), secondConstant.hashCode());
+        assertNotEquals(firstConstant, secondConstant);
+        assertEquals(constantPool.getOrRegister(firstConstant), 1);
+        assertEquals(constantPool.getOrRegister(secondConstant), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantString("BB")), 2);
+    }
+
+    @Test
+    public void testEqualsWithSameValueAndAnotherType() {
+        assertNotEquals(new ConstantInteger(42), new ConstantFloat(42));
+        assertNotEquals(new ConstantLong(42), new ConstantDouble(42));
+        assertNotEquals(new ConstantFloat(0.0f), new ConstantFloat(-0.0f));
+        assertEquals(new ConstantDouble(Double.NaN), new ConstantDouble(Double.NaN));
+        assertNotEquals(new ConstantMethodRef("MrCubee", "test", "()V"),
+                new ConstantInterfaceMethodRef("MrCubee", "test", "()V"));
+    }
+
     @Test
     public void testDuplicateAllConstant() {
         final ConstantPool constantPool = new ConstantPool();
@@ -101,8 +126,33 @@ public class TestConstant {
                 new ConstantString("test"),
                 new ConstantUtf8("test")
         };
+        for (Constant constant : constants) {
+            assertDoesNotThrow(() -> constant.serialize(constantPool, (DataOutputStream) null));
+            assertDoesNotThrow(() -> constant.serialize(constantPool, (ByteBuffer) null));
+            assertDoesNotThrow(() -> constant.serialize(constantPool, (WritableByteChannel) null));
+        }
+    }
+
+    @Test
+    public void testSerializedSize() {
+        final ConstantPool constantPool = new ConstantPool();
+        final Constant[] constants = new Constant[] {
+                new ConstantClass(TestConstant.class),
+                new ConstantDouble(42),
+                new ConstantFieldRef(TestConstant.class.getName(), "test", "B"),
+                new ConstantFloat(42),
+                new ConstantInteger(42),
+                new ConstantInterfaceMethodRef(TestConstant.class.getName(), "test", "B"),
+                new ConstantLong(42),
+                new ConstantMethodRef(TestConstant.class.getName(), "test", "B"),
+                new ConstantMethodType("B"),
+                new ConstantNameAndType("test", "B"),
+                new ConstantString("test"),
+                new ConstantUtf8("test"),
+                new ConstantUtf8(null)
+        };
         for (Constant constant : constants)
-            assertDoesNotThrow(() -> constant.serialize(constantPool, null));
+            assertEquals(constant.serializedSize(), constant.serialize(constantPool).length);
     }
 
 }
@@ -45,4 +45,13 @@ public class TestConstantDouble {
         assertArrayEquals(serializedConstant, serializedConstantModel);
     }
 
+    @Test
+    public void testBufferSerialization() {
+        final ConstantDouble constant = new ConstantDouble(4);
+        final ByteBuffer buffer = ByteBuffer.allocate(9);
+
+        constant.serialize(null, buffer);
+        assertArrayEquals(buffer.array(), constant.serialize(new ConstantPool()));
+    }
+
 }
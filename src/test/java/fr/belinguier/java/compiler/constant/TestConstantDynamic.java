@@ -0,0 +1,152 @@
+package fr.belinguier.java.compiler.constant;
+
+import fr.belinguier.java.JavaVersion;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantDynamic {
+
+    @Test
+    public void testConstant() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "a", "I");
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.DYNAMIC.getTag(), 0, 0, 0, 6
+        };
+
+        assertEquals(constantPool.getOrRegister(constant), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantDynamic(bootstrapMethod, "b", "I")), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantDynamic(bootstrapMethod, "a", "I")), 1);
+        constantPool.resolve();
+        assertDoesNotThrow(() -> constant.serialize(constantPool, new DataOutputStream(arrayOutputStream)));
+
+        assertEquals(constant.getConstantType(), ConstantType.DYNAMIC);
+        assertEquals(ConstantType.fromTag((byte) 17), ConstantType.DYNAMIC);
+        assertTrue(ConstantType.DYNAMIC.isLoadable());
+        assertEquals(ConstantType.DYNAMIC.getMinimumVersion(), JavaVersion.JAVA_11);
+        assertEquals(constant.getBootstrapMethod(), bootstrapMethod);
+        assertEquals(constant.getNameAndType(), new ConstantNameAndType("a", "I"));
+        assertNotEquals(constant, new ConstantInvokeDynamic(bootstrapMethod, "a", "I"));
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedConstantModel);
+        assertEquals(constantPool.getBootstrapMethods().length, 1);
+        assertEquals(constantPool.getCount(), 18);
+    }
+
+    @Test
+    public void testTargetVersion() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "a", "I");
+
+        constantPool.registerConstant(constant);
+        assertNull(constantPool.getTargetVersion());
+        assertDoesNotThrow(() -> constantPool.serialize());
+        constantPool.setTargetVersion(JavaVersion.JAVA_10);
+        assertThrows(IllegalStateException.class, constantPool::serialize);
+        assertThrows(IllegalStateException.class,
+                () -> constant.serialize(constantPool, ByteBuffer.allocate(constant.serializedSize())));
+        assertThrows(IllegalStateException.class, constantPool::freeze);
+        assertEquals(new ConstantPool(constantPool).getTargetVersion(), JavaVersion.JAVA_10);
+        constantPool.setTargetVersion(JavaVersion.JAVA_11);
+        assertDoesNotThrow(() -> constantPool.serialize());
+        assertEquals(constantPool.freeze().getTargetVersion(), JavaVersion.JAVA_11);
+    }
+
+    @Test
+    public void testBootstrapArgument() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "a", "I");
+        final BootstrapMethod invokeBootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "n", "()V")), constant);
+
+        constantPool.registerConstant(new ConstantInvokeDynamic(invokeBootstrapMethod, "c", "()V"));
+        constantPool.resolve();
+
+        assertNotEquals(constantPool.indexOf(constant), 0);
+        assertEquals(constantPool.indexOfBootstrapMethod(invokeBootstrapMethod), 0);
+        assertEquals(constantPool.indexOfBootstrapMethod(bootstrapMethod), 1);
+    }
+
+    @Test
+    public void testLoadableConstants() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "a", "I");
+        final int[] useCounts;
+        final LdcLayout layout;
+
+        for (int i = 0; i < 300; i++)
+            constantPool.registerConstant(new ConstantUtf8("u" + i));
+        constantPool.registerConstant(constant);
+        constantPool.resolve();
+        useCounts = new int[constantPool.getCount()];
+        useCounts[constantPool.indexOf(constant)] = 4;
+        layout = constantPool.layoutLoadableConstants(useCounts);
+
+        assertEquals(constantPool.indexOf(constant), 1);
+        assertEquals(layout.getRemovedWideLoads(), 4);
+    }
+
+    @Test
+    public void testWideLoadableConstants() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantDynamic wide = new ConstantDynamic(bootstrapMethod, "a", "J");
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "b", "I");
+        final int[] useCounts;
+        final LdcLayout layout;
+
+        for (int i = 0; i < 300; i++)
+            constantPool.registerConstant(new ConstantUtf8("u" + i));
+        constantPool.registerConstant(wide);
+        constantPool.registerConstant(constant);
+        constantPool.resolve();
+        useCounts = new int[constantPool.getCount()];
+        useCounts[constantPool.indexOf(wide)] = 10;
+        useCounts[constantPool.indexOf(constant)] = 4;
+        layout = constantPool.layoutLoadableConstants(useCounts);
+
+        assertTrue(wide.isWideValue());
+        assertFalse(constant.isWideValue());
+        assertTrue(new ConstantDynamic(bootstrapMethod, "c", "D").isWideValue());
+        assertEquals(constantPool.indexOf(constant), 1);
+        assertTrue(constantPool.indexOf(wide) > LdcLayout.MAX_LDC_INDEX);
+        assertEquals(layout.getWideLoadsBefore(), 4);
+        assertEquals(layout.getWideLoadsAfter(), 0);
+    }
+
+    @Test
+    public void testCompactConstantPool() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final CompactConstantPool constantPool = new CompactConstantPool();
+        final ConstantDynamic constant = new ConstantDynamic(bootstrapMethod, "a", "I");
+        final ConstantPool expected = new ConstantPool();
+        final int index;
+
+        index = constantPool.getOrRegister(constant);
+        assertEquals(constantPool.getOrRegister(new ConstantDynamic(bootstrapMethod, "a", "I")), index);
+        for (Constant registered : constantPool.getConstants())
+            expected.registerConstant(registered);
+        expected.resolve();
+
+        assertEquals(expected.indexOf(constant), index);
+        assertArrayEquals(constantPool.serialize(), expected.serialize());
+        constantPool.setTargetVersion(JavaVersion.JAVA_8);
+        assertThrows(IllegalStateException.class, constantPool::serialize);
+    }
+
+}
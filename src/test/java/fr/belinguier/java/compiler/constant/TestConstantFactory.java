@@ -0,0 +1,109 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TestConstantFactory {
+
+    @Test
+    public void testCanonicalInstances() {
+        final ConstantFactory factory = new ConstantFactory();
+        final ConstantMethodRef methodRef = factory.constantMethodRef("java/lang/Object", "<init>", "()V");
+
+        assertSame(factory.constantMethodRef("java/lang/Object", "<init>", "()V"), methodRef);
+        assertSame(factory.constantClass("java/lang/Object"), methodRef.getOwnerClass());
+        assertSame(factory.constantNameAndType("<init>", "()V"), methodRef.getNameAndType());
+        assertSame(factory.constantUtf8("()V"), methodRef.getNameAndType().getDescriptor());
+        assertEquals(methodRef, new ConstantMethodRef("java/lang/Object", "<init>", "()V"));
+        assertSame(factory.constantInteger(4), factory.constantInteger(4));
+        assertSame(factory.constantLong(4), factory.constantLong(4));
+        assertNotSame(factory.constantFloat(4), (Constant) factory.constantInteger(4));
+        assertSame(factory.constantDouble(Double.NaN), factory.constantDouble(Double.NaN));
+        assertSame(factory.constantString("MrCubee"), factory.constantString("MrCubee"));
+        assertSame(factory.constantMethodType("()V"), factory.constantMethodType("()V"));
+        assertSame(factory.constantInterfaceMethodRef("java/util/List", "size", "()I"),
+                factory.constantInterfaceMethodRef("java/util/List", "size", "()I"));
+        assertSame(factory.constantFieldRef("A", "b", "I"), factory.constantFieldRef("A", "b", "I"));
+        assertNull(factory.canonicalize(null));
+        factory.clear();
+        assertEquals(factory.size(), 0);
+        assertNotSame(factory.constantMethodRef("java/lang/Object", "<init>", "()V"), methodRef);
+    }
+
+    @Test
+    public void testGlobal() {
+        final ConstantClass constant = ConstantFactory.global().constantClass("java/lang/String");
+
+        assertSame(ConstantFactory.global(), ConstantFactory.global());
+        assertSame(ConstantFactory.global().constantClass("java/lang/String"), constant);
+    }
+
+    @Test
+    public void testEviction() {
+        final ConstantFactory factory = new ConstantFactory();
+        final ConstantClass ownerClass = factory.constantClass("A");
+        final WeakReference<ConstantFieldRef> fieldRef = new WeakReference<ConstantFieldRef>(
+                factory.constantFieldRef("A", "b", "I"));
+        final WeakReference<Object> collected = new WeakReference<Object>(new Object());
+
+        assertEquals(factory.size(), 6);
+        for (int i = 0; i < 100 && collected.get() != null; i++)
+            System.gc();
+        assumeTrue(collected.get() == null, "The garbage collector did not run.");
+        assertNull(fieldRef.get());
+        assertEquals(factory.size(), 2);
+        assertSame(factory.constantFieldRef("A", "b", "I").getOwnerClass(), ownerClass);
+        assertEquals(factory.size(), 6);
+    }
+
+    @Test
+    public void testCanonicalize() {
+        final ConstantFactory factory = new ConstantFactory();
+        final ConstantMethodRef methodRef = new ConstantMethodRef("A", "b", "()V");
+        final ConstantMethodHandle methodHandle = new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, methodRef);
+        final ConstantUtf8 wrapped = ConstantUtf8.wrap(new byte[] {'a', (byte) 0xC0, (byte) 0x80, (byte) 0xC3,
+                (byte) 0xA9});
+
+        assertSame(factory.canonicalize(methodRef), methodRef);
+        assertSame(factory.constantMethodRef("A", "b", "()V"), methodRef);
+        assertSame(factory.canonicalize(new ConstantMethodRef("A", "b", "()V")), methodRef);
+        assertSame(factory.canonicalize(factory.constantUtf8(null)), factory.constantUtf8(null));
+        assertNotSame(factory.constantInterfaceMethodRef("A", "b", "()V"), (Constant) methodRef);
+        assertSame(factory.canonicalize(wrapped), wrapped);
+        assertSame(factory.constantUtf8("a\u0000\u00E9"), wrapped);
+        assertSame(factory.constantClass("a\u0000\u00E9").getClassName(), wrapped);
+        assertSame(factory.canonicalize(methodHandle), methodHandle);
+        assertSame(factory.canonicalize(new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, methodRef)),
+                methodHandle);
+    }
+
+    @Test
+    public void testConcurrentCanonicalInstances() throws Exception {
+        final ConstantFactory factory = new ConstantFactory();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<ConstantMethodRef[]>> futures = new ArrayList<Future<ConstantMethodRef[]>>();
+
+        for (int i = 0; i < 4; i++)
+            futures.add(executor.submit(() -> {
+                final ConstantMethodRef[] methodRefs = new ConstantMethodRef[1000];
+
+                for (int j = 0; j < methodRefs.length; j++)
+                    methodRefs[j] = factory.constantMethodRef("A", "b" + j, "()V");
+                return methodRefs;
+            }));
+        executor.shutdown();
+        for (Future<ConstantMethodRef[]> future : futures)
+            for (int i = 0; i < 1000; i++)
+                assertSame(future.get()[i], futures.get(0).get()[i]);
+    }
+
+}
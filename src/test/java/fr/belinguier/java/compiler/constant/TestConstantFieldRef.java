@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -105,4 +106,20 @@ public class TestConstantFieldRef {
         assertArrayEquals(serializedConstant, new byte[0]);
     }
 
+    @Test
+    public void testBufferSerialization() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantFieldRef constant = new ConstantFieldRef(TestConstantFieldRef.class.getName(),
+                "testField", "B");
+        final ByteBuffer buffer = ByteBuffer.allocate(5);
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.FIELD_REF.getTag(), 0, 1, 0, 2
+        };
+
+        constant.serialize(constantPool, buffer);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+        constant.serialize(null, buffer);
+        assertEquals(buffer.remaining(), 0);
+    }
+
 }
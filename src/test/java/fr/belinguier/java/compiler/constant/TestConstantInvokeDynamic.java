@@ -0,0 +1,160 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantInvokeDynamic {
+
+    @Test
+    public void testConstant() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ConstantInvokeDynamic constant = new ConstantInvokeDynamic(bootstrapMethod, "a", "()V");
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.INVOKE_DYNAMIC.getTag(), 0, 0, 0, 6
+        };
+
+        assertEquals(constantPool.getOrRegister(constant), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantInvokeDynamic(bootstrapMethod, "b", "()V")), 2);
+        constantPool.resolve();
+        assertDoesNotThrow(() -> constant.serialize(constantPool, new DataOutputStream(arrayOutputStream)));
+
+        assertEquals(constant.getConstantType(), ConstantType.INVOKE_DYNAMIC);
+        assertEquals(constant.getBootstrapMethod(), bootstrapMethod);
+        assertEquals(constant.getNameAndType(), new ConstantNameAndType("a", "()V"));
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedConstantModel);
+        assertEquals(constantPool.getCount(), 17);
+    }
+
+    @Test
+    public void testBootstrapMethods() throws Exception {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer;
+        final byte[] serializedAttributeModel = new byte[] {
+                0, 3, 0, 0, 0, 8, 0, 1, 0, 4, 0, 1, 0, 5
+        };
+
+        assertEquals(constantPool.bootstrapMethodsSize(), 0);
+        constantPool.registerConstant(new ConstantInvokeDynamic(bootstrapMethod, "a", "()V"));
+        constantPool.registerConstant(new ConstantInvokeDynamic(bootstrapMethod, "b", "()V"));
+        constantPool.resolve();
+        buffer = ByteBuffer.allocate(constantPool.bootstrapMethodsSize());
+        constantPool.serializeBootstrapMethods(buffer);
+        constantPool.serializeBootstrapMethods(new DataOutputStream(arrayOutputStream));
+
+        assertEquals(constantPool.getBootstrapMethods().length, 1);
+        assertEquals(constantPool.indexOfBootstrapMethod(bootstrapMethod), 0);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("BootstrapMethods")), 3);
+        assertEquals(constantPool.bootstrapMethodsSize(), 14);
+        assertArrayEquals(buffer.array(), serializedAttributeModel);
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedAttributeModel);
+        assertEquals(constantPool.getOrRegisterBootstrapMethod(new BootstrapMethod(
+                new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "n", "()V")))), 1);
+        assertEquals(constantPool.getOrRegisterBootstrapMethod(null), -1);
+    }
+
+    @Test
+    public void testRegisterAll() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantInvokeDynamic constant = new ConstantInvokeDynamic(bootstrapMethod, "a", "()V");
+
+        assertArrayEquals(constantPool.registerAll(constant), new int[] {13});
+        assertEquals(constantPool.getCount(), 14);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("BootstrapMethods")), 10);
+        assertEquals(constantPool.indexOfBootstrapMethod(bootstrapMethod), 0);
+        constantPool.resolve();
+        assertEquals(constantPool.getCount(), 14);
+    }
+
+    @Test
+    public void testCompact() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantInvokeDynamic constant = new ConstantInvokeDynamic(bootstrapMethod, "a", "()V");
+        final ConstantPool expected = new ConstantPool();
+
+        constantPool.registerConstant(new ConstantUtf8("unused"));
+        constantPool.registerConstant(new ConstantInvokeDynamic(new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "n", "()V"))), "c", "()V"));
+        constantPool.registerConstant(constant);
+        constantPool.compact(constantPool.indexOf(constant));
+        expected.registerConstant(constant);
+        expected.resolve();
+
+        assertEquals(constantPool.indexOf(new ConstantUtf8("unused")), 0);
+        assertEquals(constantPool.getCount(), expected.getCount());
+        assertArrayEquals(constantPool.getBootstrapMethods(), new BootstrapMethod[] {bootstrapMethod});
+        assertNotEquals(constantPool.indexOf(new ConstantUtf8("BootstrapMethods")), 0);
+        assertEquals(constantPool.bootstrapMethodsSize(), expected.bootstrapMethodsSize());
+    }
+
+    @Test
+    public void testOtherConstantPools() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantInvokeDynamic constant = new ConstantInvokeDynamic(bootstrapMethod, "a", "()V");
+        final ConstantPool[] constantPools;
+        ByteBuffer expected;
+        ByteBuffer actual;
+
+        constantPool.registerConstant(constant);
+        constantPool.resolve();
+        constantPools = new ConstantPool[] {
+                constantPool.freeze(), new ConstantPool(constantPool), new ConcurrentConstantPool(constantPool)
+        };
+        expected = ByteBuffer.allocate(constantPool.bootstrapMethodsSize());
+        constantPool.serializeBootstrapMethods(expected);
+        for (ConstantPool copy : constantPools) {
+            actual = ByteBuffer.allocate(copy.bootstrapMethodsSize());
+            copy.serializeBootstrapMethods(actual);
+            assertArrayEquals(actual.array(), expected.array());
+            assertEquals(copy.getOrRegister(constant), constantPool.indexOf(constant));
+            assertEquals(copy.getOrRegisterBootstrapMethod(bootstrapMethod), 0);
+            assertArrayEquals(copy.serialize(), constantPool.serialize());
+        }
+    }
+
+    @Test
+    public void testCompactConstantPool() {
+        final BootstrapMethod bootstrapMethod = new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "m", "()V")), new ConstantString("s"));
+        final CompactConstantPool constantPool = new CompactConstantPool();
+        final ConstantInvokeDynamic constant = new ConstantInvokeDynamic(bootstrapMethod, "a", "()V");
+        final ConstantPool expected = new ConstantPool();
+        final ByteBuffer expectedAttribute;
+        final ByteBuffer actualAttribute;
+        final int index;
+
+        index = constantPool.getOrRegister(constant);
+        assertEquals(constantPool.getOrRegister(new ConstantInvokeDynamic(bootstrapMethod, "a", "()V")), index);
+        assertEquals(constantPool.indexOf(new ConstantInvokeDynamic(new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("L", "n", "()V"))), "a", "()V")), 0);
+        assertEquals(constantPool.getBootstrapMethods().length, 1);
+        for (Constant registered : constantPool.getConstants())
+            expected.registerConstant(registered);
+        expected.resolve();
+        expectedAttribute = ByteBuffer.allocate(expected.bootstrapMethodsSize());
+        actualAttribute = ByteBuffer.allocate(constantPool.bootstrapMethodsSize());
+        expected.serializeBootstrapMethods(expectedAttribute);
+        constantPool.serializeBootstrapMethods(actualAttribute);
+
+        assertEquals(expected.indexOf(constant), index);
+        assertArrayEquals(constantPool.serialize(), expected.serialize());
+        assertArrayEquals(actualAttribute.array(), expectedAttribute.array());
+    }
+
+}
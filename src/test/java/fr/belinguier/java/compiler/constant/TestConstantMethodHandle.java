@@ -0,0 +1,86 @@
+package fr.belinguier.java.compiler.constant;
+
+import fr.belinguier.java.JavaVersion;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantMethodHandle {
+
+    @Test
+    public void testConstant() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ConstantMethodRef methodRef = new ConstantMethodRef("A", "b", "()V");
+        final ConstantMethodHandle constant = new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, methodRef);
+        final ByteBuffer buffer = ByteBuffer.allocate(constant.serializedSize());
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.METHOD_HANDLE.getTag(), 6, 0, 1
+        };
+
+        assertDoesNotThrow(() -> constant.serialize(constantPool, new DataOutputStream(arrayOutputStream)));
+        constant.serialize(constantPool, buffer);
+
+        assertEquals(constant.getConstantType(), ConstantType.METHOD_HANDLE);
+        assertEquals(constant.getReferenceKind(), ReferenceKind.INVOKE_STATIC);
+        assertEquals(constant.getReference(), methodRef);
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedConstantModel);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+    }
+
+    @Test
+    public void testEquals() {
+        final ConstantFieldRef fieldRef = new ConstantFieldRef("A", "b", "I");
+
+        assertEquals(new ConstantMethodHandle(ReferenceKind.GET_FIELD, fieldRef),
+                new ConstantMethodHandle(ReferenceKind.GET_FIELD, new ConstantFieldRef("A", "b", "I")));
+        assertEquals(new ConstantMethodHandle(ReferenceKind.GET_FIELD, fieldRef).hashCode(),
+                new ConstantMethodHandle(ReferenceKind.GET_FIELD, new ConstantFieldRef("A", "b", "I")).hashCode());
+        assertNotEquals(new ConstantMethodHandle(ReferenceKind.GET_FIELD, fieldRef),
+                new ConstantMethodHandle(ReferenceKind.GET_STATIC, fieldRef));
+    }
+
+    @Test
+    public void testReferenceKind() {
+        final ConstantInterfaceMethodRef interfaceMethodRef = new ConstantInterfaceMethodRef("A", "b", "()V");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConstantMethodHandle(ReferenceKind.GET_FIELD, new ConstantMethodRef("A", "b", "()V")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConstantMethodHandle(ReferenceKind.INVOKE_VIRTUAL, interfaceMethodRef));
+        assertThrows(NullPointerException.class, () -> new ConstantMethodHandle(null, interfaceMethodRef));
+        assertDoesNotThrow(() -> new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC, interfaceMethodRef));
+        assertDoesNotThrow(() -> new ConstantMethodHandle(ReferenceKind.INVOKE_INTERFACE, interfaceMethodRef));
+        assertEquals(ReferenceKind.fromKind((byte) 8), ReferenceKind.NEW_INVOKE_SPECIAL);
+        assertNull(ReferenceKind.fromKind((byte) 0));
+        assertNull(ReferenceKind.fromKind((byte) 10));
+    }
+
+    @Test
+    public void testTargetVersion() {
+        final ConstantPool constantPool = new ConstantPool();
+        final CompactConstantPool compactConstantPool = new CompactConstantPool();
+        final ConstantMethodHandle constant = new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC,
+                new ConstantMethodRef("L", "m", "()V"));
+
+        constantPool.registerConstant(constant);
+        compactConstantPool.registerConstant(new ConstantMethodType("()V"));
+        constantPool.setTargetVersion(JavaVersion.JAVA_6);
+        compactConstantPool.setTargetVersion(JavaVersion.JAVA_6);
+        assertThrows(IllegalStateException.class, constantPool::serialize);
+        assertThrows(IllegalStateException.class,
+                () -> constant.serialize(constantPool, ByteBuffer.allocate(constant.serializedSize())));
+        assertThrows(IllegalStateException.class, compactConstantPool::serialize);
+        assertDoesNotThrow(() -> new ConstantMethodRef("L", "m", "()V").serialize(constantPool,
+                ByteBuffer.allocate(5)));
+        constantPool.setTargetVersion(JavaVersion.JAVA_7);
+        compactConstantPool.setTargetVersion(JavaVersion.JAVA_7);
+        assertDoesNotThrow(() -> constantPool.serialize());
+        assertDoesNotThrow(() -> compactConstantPool.serialize());
+    }
+
+}
@@ -4,6 +4,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.nio.channels.Channels;
+import java.nio.ByteOrder;
+import java.nio.ByteBuffer;
+import java.nio.BufferOverflowException;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,6 +81,44 @@ public class TestConstantPool {
         assertArrayEquals(serializedConstantPool, serializedConstantPoolModel);
     }
 
+    @Test
+    public void testSerializationWithReferences() {
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ConstantPool constantPool = new ConstantPool();
+        final byte[] serializedConstantPoolModel = new byte[] {0, 8,
+                ConstantType.FIELD_REF.getTag(), 0, 3, 0, 4,
+                ConstantType.STRING.getTag(), 0, 5,
+                ConstantType.CLASS.getTag(), 0, 6,
+                ConstantType.NAME_AND_TYPE.getTag(), 0, 7, 0, 5,
+                ConstantType.UTF_8.getTag(), 0, 1, 'I',
+                ConstantType.UTF_8.getTag(), 0, 1, 'A',
+                ConstantType.UTF_8.getTag(), 0, 1, 'b'
+        };
+        final byte[] serializedConstantPool;
+
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantString("I")), 2);
+        assertDoesNotThrow(() -> constantPool.serialize(new DataOutputStream(arrayOutputStream)));
+        serializedConstantPool = arrayOutputStream.toByteArray();
+        assertArrayEquals(serializedConstantPool, serializedConstantPoolModel);
+        assertEquals(constantPool.indexOf(new ConstantClass("A")), 3);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("I")), 5);
+    }
+
+    @Test
+    public void testResolve() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantMethodRef("A", "b", "()V")), 1);
+        assertEquals(constantPool.getConstants().length, 1);
+        constantPool.resolve();
+        assertEquals(constantPool.getConstants().length, 6);
+        assertEquals(constantPool.getOrRegister(new ConstantClass("C")), 7);
+        constantPool.resolve();
+        assertEquals(constantPool.indexOf(new ConstantUtf8("C")), 8);
+        assertEquals(constantPool.getConstants().length, 8);
+    }
+
     @Test
     public void testDuplicateRegisterConstant() {
         final ConstantUtf8 firstConstantUtf8 = new ConstantUtf8("MrCubee");
@@ -122,4 +165,390 @@ public class TestConstantPool {
         assertFalse(constantPool.registerConstant(null));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testIndexOfWithLongAndDouble() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(4)), 4);
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(4)), 6);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 1);
+        assertEquals(constantPool.indexOf(new ConstantLong(4)), 2);
+        assertEquals(constantPool.indexOf(new ConstantDouble(4)), 4);
+        assertEquals(constantPool.indexOf(new ConstantInteger(4)), 6);
+        assertEquals(constantPool.indexOf(new ConstantInteger(5)), 0);
+        assertEquals(constantPool.indexOf(null), 0);
+    }
+
+    @Test
+    public void testUnregisterConstantMovesIndexes() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(4)), 4);
+        assertTrue(constantPool.unRegisterConstant(new ConstantLong(4)));
+        assertFalse(constantPool.unRegisterConstant(new ConstantLong(4)));
+        assertEquals(constantPool.indexOf(new ConstantLong(4)), 0);
+        assertEquals(constantPool.indexOf(new ConstantInteger(4)), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantFloat(4)), 3);
+    }
+
+    @Test
+    public void testCopyWithLong() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPool copy;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        copy = new ConstantPool(constantPool);
+        assertEquals(copy.indexOf(new ConstantLong(4)), 1);
+        assertEquals(copy.getOrRegister(new ConstantUtf8("MrCubee")), 3);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 0);
+    }
+
+    @Test
+    public void testCopyShareConstants() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPool flatConstantPool = new ConstantPool();
+        final ConstantPool copy;
+
+        assertEquals(constantPool.getOrRegister(new ConstantMethodRef("A", "b", "()V")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(4)), 2);
+        copy = new ConstantPool(constantPool);
+        assertEquals(constantPool.getConstants().length, 7);
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 9);
+        assertEquals(copy.getOrRegister(new ConstantFieldRef("A", "c", "I")), 9);
+        assertEquals(copy.getOrRegister(new ConstantClass("A")), 4);
+        assertEquals(copy.indexOf(new ConstantUtf8("MrCubee")), 0);
+        for (Constant constant : copy)
+            flatConstantPool.registerConstant(constant);
+        assertEquals(copy.serializedSize(), flatConstantPool.serializedSize());
+        assertArrayEquals(copy.serialize(), flatConstantPool.serialize());
+        assertEquals(copy.getCount(), flatConstantPool.getCount());
+        assertArrayEquals(copy.getConstants(), flatConstantPool.getConstants());
+    }
+
+    @Test
+    public void testCopyUnregisterSharedConstant() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPool copy;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 3);
+        copy = new ConstantPool(constantPool);
+        assertEquals(copy.getOrRegister(new ConstantInteger(4)), 4);
+        assertTrue(copy.unRegisterConstant(new ConstantLong(4)));
+        assertEquals(copy.indexOf(new ConstantUtf8("MrCubee")), 1);
+        assertEquals(copy.indexOf(new ConstantInteger(4)), 2);
+        assertEquals(constantPool.indexOf(new ConstantLong(4)), 1);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 3);
+        assertEquals(copy.serializedSize(), copy.serialize().length);
+    }
+
+    @Test
+    public void testCopyOfFrozenConstantPool() {
+        final ConstantPool constantPool = new ConstantPool();
+        final FrozenConstantPool frozenConstantPool;
+        final ConstantPool copy;
+        final ConstantPool mutableCopy;
+
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 2);
+        frozenConstantPool = constantPool.freeze();
+        copy = new ConstantPool(frozenConstantPool);
+        mutableCopy = new ConstantPool(constantPool);
+        assertEquals(copy.getOrRegister(new ConstantString("MrCubee")), 9);
+        assertEquals(mutableCopy.getOrRegister(new ConstantString("MrCubee")), 9);
+        assertArrayEquals(copy.serialize(), mutableCopy.serialize());
+    }
+
+    @Test
+    public void testBufferSerialization() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ByteBuffer heapBuffer = ByteBuffer.allocate(64);
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+        final byte[] serializedConstantPool;
+        final byte[] directSerializedConstantPool;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 3);
+        constantPool.serialize(heapBuffer);
+        constantPool.serialize(directBuffer);
+        heapBuffer.flip();
+        directBuffer.flip();
+        serializedConstantPool = new byte[heapBuffer.remaining()];
+        directSerializedConstantPool = new byte[directBuffer.remaining()];
+        heapBuffer.get(serializedConstantPool);
+        directBuffer.get(directSerializedConstantPool);
+
+        assertArrayEquals(serializedConstantPool, constantPool.serialize());
+        assertArrayEquals(directSerializedConstantPool, constantPool.serialize());
+        assertEquals(directBuffer.order(), ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testBufferOverflow() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 1);
+        assertThrows(BufferOverflowException.class, () -> constantPool.serialize(ByteBuffer.allocate(4)));
+    }
+
+    @Test
+    public void testChannelSerialization() {
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantMethodRef("A", "b", "()V")), 1);
+        assertDoesNotThrow(() -> constantPool.serialize(Channels.newChannel(arrayOutputStream)));
+        assertArrayEquals(arrayOutputStream.toByteArray(), constantPool.serialize());
+    }
+
+    @Test
+    public void testSerializedSize() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.serializedSize(), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 3);
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 4);
+        assertEquals(constantPool.serializedSize(), constantPool.serialize().length);
+        assertTrue(constantPool.unRegisterConstant(new ConstantLong(4)));
+        assertEquals(constantPool.serializedSize(), constantPool.serialize().length);
+        constantPool.unRegisterAll();
+        assertEquals(constantPool.serializedSize(), 2);
+    }
+
+    @Test
+    public void testCompact() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPool expected = new ConstantPool();
+        final int[] remap;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 3);
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 4);
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(7)), 5);
+        constantPool.resolve();
+        assertEquals(constantPool.getCount(), 12);
+        remap = constantPool.compact(3, 5, 0, 42);
+
+        assertArrayEquals(remap, new int[]{0, 0, 0, 1, 0, 2, 3, 4, 0, 5, 6, 7});
+        assertEquals(constantPool.getCount(), 8);
+        assertEquals(constantPool.indexOf(new ConstantLong(4)), 0);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 0);
+        assertEquals(expected.getOrRegister(new ConstantFieldRef("A", "b", "I")), 1);
+        assertEquals(expected.getOrRegister(new ConstantInteger(7)), 2);
+        assertArrayEquals(constantPool.serialize(), expected.serialize());
+    }
+
+    @Test
+    public void testCompactWithDouble() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(1)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(2)), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(3)), 4);
+        assertArrayEquals(constantPool.compact(2, 4), new int[]{0, 0, 1, 0, 3});
+        assertEquals(constantPool.indexOf(new ConstantInteger(3)), 3);
+        assertEquals(constantPool.getCount(), 4);
+        assertArrayEquals(constantPool.compact(), new int[]{0, 0, 0, 0});
+        assertEquals(constantPool.getCount(), 1);
+    }
+
+    @Test
+    public void testLayoutLoadableConstants() {
+        final ConstantPool constantPool = new ConstantPool();
+        final int[] useCounts = new int[303];
+        final LdcLayout layout;
+
+        for (int i = 0; i < 300; i++)
+            assertEquals(constantPool.getOrRegister(new ConstantInteger(i)), i + 1);
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 301);
+        useCounts[1] = 1;
+        useCounts[301] = 10;
+        layout = constantPool.layoutLoadableConstants(useCounts);
+
+        assertEquals(layout.getWideLoadsBefore(), 10);
+        assertEquals(layout.getWideLoadsAfter(), 0);
+        assertEquals(layout.getRemovedWideLoads(), 10);
+        assertEquals(layout.getRemap()[301], 1);
+        assertEquals(layout.getRemap()[1], 2);
+        assertEquals(layout.getRemap()[2], 3);
+        assertEquals(layout.getRemap()[302], 302);
+        assertEquals(constantPool.indexOf(new ConstantString("MrCubee")), 1);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("MrCubee")), 302);
+        assertEquals(constantPool.getCount(), 303);
+    }
+
+    @Test
+    public void testLayoutLoadableConstantsOverflow() {
+        final ConstantPool constantPool = new ConstantPool();
+        final int[] useCounts = new int[302];
+        final LdcLayout layout;
+        int wideLoadsBefore = 0;
+        int wideLoadsAfter = 0;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(0)), 1);
+        for (int i = 3; i < useCounts.length; i++) {
+            assertEquals(constantPool.getOrRegister(new ConstantInteger(i)), i);
+            useCounts[i] = i;
+            if (i > 255)
+                wideLoadsBefore += i;
+            if (i < 47)
+                wideLoadsAfter += i;
+        }
+        useCounts[1] = 1000;
+        layout = constantPool.layoutLoadableConstants(useCounts);
+
+        assertEquals(layout.getWideLoadsBefore(), wideLoadsBefore);
+        assertEquals(layout.getWideLoadsAfter(), wideLoadsAfter);
+        assertEquals(layout.getRemap()[301], 1);
+        assertEquals(layout.getRemap()[47], 255);
+        assertEquals(layout.getRemap()[1], 256);
+        assertEquals(layout.getRemap()[3], 258);
+        assertEquals(constantPool.getCount(), 302);
+    }
+
+    @Test
+    public void testMerge() {
+        final ConstantPool first = new ConstantPool();
+        final ConstantPool second = new ConstantPool();
+        final ConstantPoolMerge merge;
+
+        assertEquals(first.getOrRegister(new ConstantString("MrCubee")), 1);
+        assertEquals(first.getOrRegister(new ConstantLong(4)), 2);
+        assertEquals(second.getOrRegister(new ConstantInteger(1)), 1);
+        assertEquals(second.getOrRegister(new ConstantString("MrCubee")), 2);
+        merge = ConstantPool.merge(first, null, second);
+
+        assertEquals(merge.getSourceCount(), 3);
+        assertArrayEquals(merge.getRemap(0), new int[]{0, 1, 2, 0, 4});
+        assertArrayEquals(merge.getRemap(1), new int[]{0});
+        assertArrayEquals(merge.getRemap(2), new int[]{0, 5, 1, 4});
+        assertEquals(merge.getConstantPool().getCount(), 6);
+        assertEquals(merge.getConstantPool().indexOf(new ConstantUtf8("MrCubee")), 4);
+        assertEquals(first.getCount(), 5);
+    }
+
+    @Test
+    public void testMergeOverflow() {
+        final ConstantPool first = new ConstantPool();
+        final ConstantPool second = new ConstantPool();
+
+        for (int i = 0; i < 40000; i++) {
+            first.registerConstant(new ConstantInteger(i));
+            second.registerConstant(new ConstantInteger(-i));
+        }
+        assertEquals(ConstantPool.merge(first, first).getConstantPool().getCount(), 40001);
+        assertThrows(IllegalArgumentException.class, () -> ConstantPool.merge(first, second));
+    }
+
+    @Test
+    public void testPassthrough() {
+        final byte[] bytecode = {
+                0, 5, 1, 0, 1, 'A', 7, 0, 1, 1, 0, 1, 'A', 15, 1, 0, 2
+        };
+        final ConstantPool constantPool = ConstantPool.passthrough(new ConstantPoolReader(ByteBuffer.wrap(bytecode)));
+        final ByteBuffer expected = ByteBuffer.allocate(bytecode.length + 3);
+
+        assertEquals(constantPool.getOrRegister(new ConstantClass("A")), 2);
+        assertEquals(constantPool.getOrRegister(new ConstantString("A")), 5);
+        assertEquals(constantPool.getCount(), 6);
+        expected.put(bytecode).put((byte) 8).putShort((short) 1);
+        expected.putShort(0, (short) 6);
+        assertArrayEquals(constantPool.serialize(), expected.array());
+        assertEquals(constantPool.serializedSize(), expected.capacity());
+    }
+
+    @Test
+    public void testCompactPassthrough() {
+        final byte[] bytecode = {
+                0, 4, 1, 0, 1, 'A', 7, 0, 1, 1, 0, 1, 'A'
+        };
+        final byte[] undecodable = {
+                0, 5, 1, 0, 1, 'A', 7, 0, 1, 1, 0, 1, 'A', 15, 1, 0, 2
+        };
+        final ConstantPool constantPool = ConstantPool.passthrough(new ConstantPoolReader(ByteBuffer.wrap(bytecode)));
+        final ConstantPool invalid = ConstantPool.passthrough(new ConstantPoolReader(ByteBuffer.wrap(undecodable)));
+
+        assertArrayEquals(constantPool.compact(2, 3), new int[]{0, 1, 2, 1});
+        assertEquals(constantPool.getCount(), 3);
+        assertEquals(constantPool.indexOf(new ConstantClass("A")), 2);
+        assertThrows(IllegalStateException.class, () -> invalid.compact(2));
+        assertThrows(IllegalStateException.class, () -> invalid.layoutLoadableConstants(new int[]{0, 0, 1}));
+        assertThrows(IllegalStateException.class, () -> ConstantPool.merge(invalid));
+        assertEquals(invalid.getCount(), 5);
+        assertEquals(invalid.serializedSize(), undecodable.length);
+    }
+
+    @Test
+    public void testRegisterAll() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPool expected = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("A")), 1);
+        assertArrayEquals(constantPool.registerAll(
+                new ConstantFieldRef("A", "b", "I"), null, new ConstantLong(4), new ConstantClass("A")
+        ), new int[]{6, 0, 7, 2});
+        assertEquals(constantPool.getCount(), 9);
+        assertEquals(constantPool.indexOf(new ConstantNameAndType("b", "I")), 5);
+        assertArrayEquals(constantPool.registerAll(Arrays.asList(new ConstantString("b"), new ConstantUtf8("A"))),
+                new int[]{9, 1});
+        assertArrayEquals(constantPool.registerAll((Constant[]) null), new int[0]);
+        for (Constant constant : constantPool.getConstants())
+            expected.registerConstant(constant);
+        assertArrayEquals(constantPool.serialize(), expected.serialize());
+        assertEquals(constantPool.getCount(), 10);
+    }
+
+    @Test
+    public void testRegisterAllLarge() {
+        final ConstantPool constantPool = new ConstantPool();
+        final Constant[] constants = new Constant[20000];
+        final int[] indexes;
+
+        for (int i = 0; i < constants.length; i++)
+            constants[i] = new ConstantMethodRef("A" + (i % 100), "b" + i, "()V");
+        indexes = constantPool.registerAll(constants);
+        for (int i = 0; i < constants.length; i++)
+            assertEquals(constantPool.indexOf(constants[i]) & 0xFFFF, indexes[i]);
+        assertEquals(constantPool.serializedSize(), constantPool.serialize().length);
+    }
+
+    @Test
+    public void testNumericConstants() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(0.0)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(-0.0)), 3);
+        assertEquals(constantPool.getOrRegister(new ConstantFloat(Float.NaN)), 5);
+        assertEquals(constantPool.getOrRegister(new ConstantInteger(Float.floatToRawIntBits(Float.NaN))), 6);
+        assertEquals(constantPool.getOrRegister(new ConstantFloat(Float.intBitsToFloat(0x7FC00001))), 7);
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("A")), 8);
+        assertEquals(constantPool.getOrRegister(new ConstantDouble(-0.0)), 3);
+        assertEquals(constantPool.getOrRegister(new ConstantFloat(Float.NaN)), 5);
+        assertFalse(constantPool.registerConstant(new ConstantInteger(0x7FC00000)));
+        assertTrue(constantPool.unRegisterConstant(new ConstantDouble(0.0)));
+        assertEquals(constantPool.indexOf(new ConstantDouble(-0.0)), 1);
+        assertEquals(constantPool.indexOf(new ConstantInteger(0x7FC00000)), 4);
+        assertEquals(constantPool.indexOf(new ConstantUtf8("A")), 6);
+        assertEquals(constantPool.indexOf(new ConstantDouble(0.0)), 0);
+        assertEquals(constantPool.getCount(), 7);
+        constantPool.unRegisterAll();
+        assertEquals(constantPool.indexOf(new ConstantDouble(-0.0)), 0);
+    }
+
+    @Test
+    public void testManyNumericConstants() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        for (int i = 0; i < 30000; i++)
+            assertEquals(constantPool.getOrRegister(new ConstantInteger(i << 16)) & 0xFFFF, i + 1);
+        for (int i = 0; i < 30000; i++)
+            assertEquals(constantPool.indexOf(new ConstantInteger(i << 16)) & 0xFFFF, i + 1);
+        assertEquals(constantPool.serializedSize(), constantPool.serialize().length);
+    }
+
+}
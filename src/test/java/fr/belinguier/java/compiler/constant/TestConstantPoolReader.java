@@ -0,0 +1,129 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantPoolReader {
+
+    private static ConstantPool createConstantPool() {
+        final ConstantPool constantPool = new ConstantPool();
+
+        constantPool.registerConstant(new ConstantLong(4));
+        constantPool.registerConstant(new ConstantFieldRef("A", "b", "I"));
+        constantPool.registerConstant(new ConstantDouble(-0.5));
+        constantPool.registerConstant(new ConstantMethodType("()V"));
+        constantPool.registerConstant(new ConstantString("MrCubee é€"));
+        constantPool.registerConstant(new ConstantFloat(1.5f));
+        constantPool.registerConstant(new ConstantInteger(-1));
+        constantPool.registerConstant(new ConstantInterfaceMethodRef("C", "d", "()I"));
+        constantPool.registerConstant(new ConstantMethodHandle(ReferenceKind.INVOKE_INTERFACE,
+                new ConstantInterfaceMethodRef("C", "d", "()I")));
+        constantPool.resolve();
+        return constantPool;
+    }
+
+    @Test
+    public void testRead() {
+        final ConstantPool constantPool = createConstantPool();
+        final ByteBuffer buffer = ByteBuffer.allocate(constantPool.serializedSize() + 4);
+        final ConstantPoolReader reader;
+
+        buffer.putShort((short) 0x1234);
+        constantPool.serialize(buffer);
+        buffer.position(2);
+        reader = new ConstantPoolReader(buffer);
+
+        assertEquals(buffer.position(), 2);
+        assertEquals(reader.getCount(), constantPool.getCount());
+        assertEquals(reader.getEnd(), constantPool.serializedSize() + 2);
+        assertEquals(reader.serializedSize(), constantPool.serializedSize());
+        assertFalse(reader.isValid(0));
+        assertFalse(reader.isValid(2));
+        assertFalse(reader.isValid(reader.getCount()));
+        assertNull(reader.getConstant(2));
+        for (Constant constant : constantPool.getConstants()) {
+            assertEquals(reader.getConstantType(constantPool.indexOf(constant)), constant.getConstantType());
+            assertEquals(reader.getConstant(constantPool.indexOf(constant)), constant);
+        }
+        assertSame(reader.getConstant(3), reader.getConstant(3));
+        assertEquals(reader.slice(), ByteBuffer.wrap(constantPool.serialize()));
+    }
+
+    @Test
+    public void testUtf8Equals() {
+        final ConstantPool constantPool = createConstantPool();
+        final ConstantPoolReader reader = new ConstantPoolReader(ByteBuffer.wrap(constantPool.serialize()));
+        final int index = constantPool.indexOf(new ConstantUtf8("MrCubee é€"));
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 2, 1, 0, 3, 'a', (byte) 0xC0, (byte) 0x80});
+
+        assertTrue(reader.utf8Equals(index, "MrCubee é€"));
+        assertTrue(reader.utf8Equals(index, new ConstantUtf8("MrCubee é€")));
+        assertFalse(reader.utf8Equals(index, "MrCubee é"));
+        assertFalse(reader.utf8Equals(index, "MrCubee é€!"));
+        assertFalse(reader.utf8Equals(index, new ConstantUtf8("MrCubee")));
+        assertFalse(reader.utf8Equals(index, (String) null));
+        assertFalse(reader.utf8Equals(1, "MrCubee é€"));
+        assertTrue(new ConstantPoolReader(buffer).utf8Equals(1, "a\0"));
+        assertTrue(new ConstantPoolReader(buffer).utf8Equals(1,
+                ConstantUtf8.wrap((ByteBuffer) ByteBuffer.allocateDirect(3).put(buffer.array(), 5, 3).flip())));
+        assertFalse(new ConstantPoolReader(buffer).utf8Equals(1, new ConstantUtf8("b\0")));
+    }
+
+    @Test
+    public void testReadClassFile() throws Exception {
+        final ConstantPool constantPool = createConstantPool();
+        final File file = File.createTempFile("TestConstantPoolReader", ".class");
+        final ByteBuffer classFile = ByteBuffer.allocate(constantPool.serializedSize() + 8);
+        final MappedByteBuffer buffer;
+        final ConstantPoolReader reader;
+
+        file.deleteOnExit();
+        classFile.putInt(ConstantPoolReader.MAGIC).putShort((short) 0).putShort((short) 52);
+        constantPool.serialize(classFile);
+        Files.write(file.toPath(), classFile.array());
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        reader = ConstantPoolReader.fromClassFile(buffer);
+
+        assertEquals(reader.getEnd(), buffer.limit());
+        for (Constant constant : constantPool.getConstants())
+            assertEquals(reader.getConstant(constantPool.indexOf(constant)), constant);
+        assertThrows(IllegalArgumentException.class, () -> ConstantPoolReader.fromClassFile(ByteBuffer.allocate(16)));
+    }
+
+    @Test
+    public void testInvalidConstantPool() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConstantPoolReader(ByteBuffer.wrap(new byte[]{0, 2, 2, 0, 0})));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> new ConstantPoolReader(ByteBuffer.wrap(new byte[]{0, 2, 3, 0, 0})));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConstantPoolReader(ByteBuffer.wrap(new byte[]{0, 2, 7, 0, 1})).getConstant(1));
+    }
+
+    @Test
+    public void testInvokeDynamic() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPoolReader reader;
+        final int index;
+
+        index = constantPool.getOrRegister(new ConstantInvokeDynamic(new BootstrapMethod(new ConstantMethodHandle(
+                ReferenceKind.INVOKE_STATIC, new ConstantMethodRef("A", "b", "()V"))), "c", "()V"));
+        reader = new ConstantPoolReader(ByteBuffer.wrap(constantPool.serialize()));
+
+        assertEquals(reader.getConstantType(index), ConstantType.INVOKE_DYNAMIC);
+        assertThrows(UnsupportedOperationException.class, () -> reader.getConstant(index));
+        assertEquals(reader.getConstant(index + 2), constantPool.getConstants()[2]);
+        assertEquals(reader.getConstant(index + 2).getConstantType(), ConstantType.METHOD_HANDLE);
+    }
+
+}
@@ -0,0 +1,65 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConstantPoolStatistics {
+
+    @Test
+    public void testStatistics() {
+        final ConstantPool constantPool = new ConstantPool();
+        final ConstantPoolStatistics statistics = new ConstantPoolStatistics();
+
+        constantPool.setListener(statistics);
+        assertSame(constantPool.getListener(), statistics);
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantString("MrCubee")), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 2);
+        for (int i = 0; i < 300; i++)
+            constantPool.registerConstant(new ConstantInteger(i));
+        constantPool.serialize();
+
+        assertEquals(statistics.getHits(), 1);
+        assertEquals(statistics.getMisses(), 3);
+        assertEquals(statistics.getEntries(ConstantType.STRING), 1);
+        assertEquals(statistics.getEntries(ConstantType.UTF_8), 1);
+        assertEquals(statistics.getEntries(ConstantType.INTEGER), 300);
+        assertEquals(statistics.getBytes(ConstantType.LONG), 9);
+        assertEquals(statistics.getBytes(ConstantType.UTF_8), 10);
+        assertEquals(statistics.getWideLoads(), 48);
+        assertEquals(statistics.getSerializations(), 1);
+        assertTrue(statistics.getSerializationNanos() > 0);
+        constantPool.serialize();
+        constantPool.serializeBootstrapMethods(ByteBuffer.allocate(0));
+        assertEquals(statistics.getHits(), 1);
+        constantPool.setListener(null);
+        constantPool.serialize();
+        assertEquals(statistics.getSerializations(), 2);
+    }
+
+    @Test
+    public void testConcurrentAndCompactStatistics() {
+        final ConstantPool concurrentConstantPool = new ConcurrentConstantPool();
+        final ConstantPool compactConstantPool = new CompactConstantPool();
+        final ConstantPoolStatistics statistics = new ConstantPoolStatistics();
+
+        concurrentConstantPool.setListener(statistics);
+        compactConstantPool.setListener(statistics);
+        for (ConstantPool constantPool : new ConstantPool[]{concurrentConstantPool, compactConstantPool}) {
+            constantPool.getOrRegister(new ConstantClass("A"));
+            constantPool.getOrRegister(new ConstantClass("A"));
+            constantPool.serialize();
+        }
+
+        assertEquals(statistics.getHits(), 3);
+        assertEquals(statistics.getEntries(ConstantType.CLASS), 2);
+        assertEquals(statistics.getEntries(ConstantType.UTF_8), 2);
+        assertEquals(statistics.getSerializations(), 2);
+        concurrentConstantPool.serialize();
+        assertEquals(statistics.getHits(), 3);
+    }
+
+}
@@ -4,11 +4,18 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestConstantUtf8 {
 
@@ -67,4 +74,141 @@ public class TestConstantUtf8 {
         assertEquals(constant.getString(), "MrCubee");
         assertArrayEquals(serializedConstant, serializedConstantModel);
     }
+
+    @Test
+    public void testBufferSerialization() {
+        final ConstantUtf8 constant = new ConstantUtf8("MrCubee");
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.UTF_8.getTag(), 0, 7, 'M', 'r', 'C', 'u', 'b', 'e', 'e'
+        };
+
+        constant.serialize(null, buffer);
+
+        assertEquals(buffer.remaining(), 0);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+    }
+
+    @Test
+    public void testModifiedUtf8() {
+        final ConstantUtf8 constant = new ConstantUtf8("a\u0000\uD83D\uDE00");
+        final ByteBuffer buffer = ByteBuffer.allocate(constant.serializedSize());
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.UTF_8.getTag(), 0, 9, 'a', (byte) 0xC0, (byte) 0x80,
+                (byte) 0xED, (byte) 0xA0, (byte) 0xBD, (byte) 0xED, (byte) 0xB8, (byte) 0x80
+        };
+
+        constant.serialize(null, buffer);
+
+        assertEquals(constant.length(), 9);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+        assertEquals(ConstantUtf8.wrap(new byte[] {'a', (byte) 0xC0, (byte) 0x80,
+                (byte) 0xED, (byte) 0xA0, (byte) 0xBD, (byte) 0xED, (byte) 0xB8, (byte) 0x80}).getString(),
+                "a\u0000\uD83D\uDE00");
+        assertEquals(ConstantUtf8.hashOf("a\u0000\uD83D\uDE00\u00E9"),
+                new ConstantUtf8("a\u0000\uD83D\uDE00\u00E9").hashCode());
+        assertEquals(ConstantUtf8.hashOf(null), new ConstantUtf8(null).hashCode());
+        assertTrue(new ConstantUtf8(buffer.array(), 3, 9).contentEquals("a\u0000\uD83D\uDE00"));
+        assertFalse(new ConstantUtf8(buffer.array(), 3, 9).contentEquals("a\u0000\uD83D"));
+        assertFalse(new ConstantUtf8(buffer.array(), 3, 6).contentEquals("a\u0000\uD83D\uDE00"));
+        assertTrue(new ConstantUtf8(null).contentEquals(null));
+    }
+
+    @Test
+    public void testLazyDecoding() {
+        final ConstantUtf8 constant = ConstantUtf8.wrap(new byte[] {'M', 'r', 'C', 'u', 'b', 'e', 'e'});
+        final String str = constant.getString();
+
+        assertEquals(str, "MrCubee");
+        assertSame(constant.getString(), str);
+        assertEquals(constant, new ConstantUtf8("MrCubee"));
+        assertEquals(constant.hashCode(), new ConstantUtf8("MrCubee").hashCode());
+        assertNotEquals(constant, new ConstantUtf8("MrCube"));
+    }
+
+    @Test
+    public void testTooLong() {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < ModifiedUtf8.MAX_LENGTH; i++)
+            builder.append('a');
+        assertEquals(new ConstantUtf8(builder.toString()).length(), ModifiedUtf8.MAX_LENGTH);
+        builder.setCharAt(0, '\u00E9');
+        assertThrows(IllegalArgumentException.class, () -> new ConstantUtf8(builder.toString()));
+    }
+
+    @Test
+    public void testArraySlice() throws Exception {
+        final byte[] source = "int MrCubee = 0;".getBytes(StandardCharsets.US_ASCII);
+        final ConstantUtf8 constant = new ConstantUtf8(source, 4, 7);
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.UTF_8.getTag(), 0, 7, 'M', 'r', 'C', 'u', 'b', 'e', 'e'
+        };
+
+        constant.serialize(null, new DataOutputStream(arrayOutputStream));
+        constant.serialize(null, buffer);
+
+        assertEquals(constant.length(), 7);
+        assertEquals(constant, new ConstantUtf8("MrCubee"));
+        assertEquals(constant.hashCode(), new ConstantUtf8("MrCubee").hashCode());
+        assertEquals(constant.getString(), "MrCubee");
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedConstantModel);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+        assertThrows(IndexOutOfBoundsException.class, () -> new ConstantUtf8(source, 10, 7));
+    }
+
+    @Test
+    public void testBufferRegion() throws Exception {
+        final ByteBuffer source = ByteBuffer.allocateDirect(16);
+        final ConstantUtf8 constant;
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        final byte[] serializedConstantModel = new byte[] {
+                ConstantType.UTF_8.getTag(), 0, 7, 'M', 'r', 'C', 'u', 'b', 'e', 'e'
+        };
+
+        source.put("int MrCubee = 0;".getBytes(StandardCharsets.US_ASCII));
+        source.position(4);
+        source.limit(11);
+        constant = ConstantUtf8.wrap(source);
+        constant.serialize(null, new DataOutputStream(arrayOutputStream));
+        constant.serialize(null, buffer);
+
+        assertEquals(source.position(), 4);
+        assertEquals(constant.length(), 7);
+        assertEquals(constant, new ConstantUtf8("MrCubee"));
+        assertEquals(new ConstantUtf8("MrCubee"), constant);
+        assertEquals(constant.hashCode(), new ConstantUtf8("MrCubee").hashCode());
+        assertNotEquals(constant, new ConstantUtf8("MrCubes"));
+        assertEquals(constant.getString(), "MrCubee");
+        assertArrayEquals(arrayOutputStream.toByteArray(), serializedConstantModel);
+        assertArrayEquals(buffer.array(), serializedConstantModel);
+    }
+
+    @Test
+    public void testLargeBufferRegion() throws Exception {
+        final char[] chars = new char[1500];
+        final ByteBuffer direct = ByteBuffer.allocateDirect(chars.length);
+        final ByteBuffer readOnly;
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final String str;
+
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = (char) ('a' + i % 26);
+        str = new String(chars);
+        direct.put(str.getBytes(StandardCharsets.US_ASCII)).flip();
+        readOnly = ByteBuffer.wrap(str.getBytes(StandardCharsets.US_ASCII)).asReadOnlyBuffer();
+        new ConstantUtf8(str).serialize(null, new DataOutputStream(expected));
+        ConstantUtf8.wrap(direct).serialize(null, new DataOutputStream(arrayOutputStream));
+        ConstantUtf8.wrap(readOnly).serialize(null, new DataOutputStream(arrayOutputStream));
+
+        assertEquals(direct.position(), 0);
+        assertEquals(readOnly.position(), 0);
+        expected.write(expected.toByteArray());
+        assertArrayEquals(arrayOutputStream.toByteArray(), expected.toByteArray());
+    }
+
 }
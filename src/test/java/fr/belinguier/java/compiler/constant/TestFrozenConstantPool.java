@@ -0,0 +1,118 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFrozenConstantPool {
+
+    @Test
+    public void testFreeze() {
+        final ConstantPool constantPool = new ConstantPool();
+        final FrozenConstantPool frozenConstantPool;
+
+        assertEquals(constantPool.getOrRegister(new ConstantLong(4)), 1);
+        assertEquals(constantPool.getOrRegister(new ConstantFieldRef("A", "b", "I")), 3);
+        frozenConstantPool = constantPool.freeze();
+
+        assertEquals(constantPool.getConstants().length, 2);
+        assertEquals(frozenConstantPool.getConstants().length, 7);
+        assertEquals(frozenConstantPool.indexOf(new ConstantLong(4)), 1);
+        assertEquals(frozenConstantPool.indexOf(new ConstantClass("A")), 4);
+        assertEquals(frozenConstantPool.getOrRegister(new ConstantUtf8("I")), 8);
+        assertArrayEquals(frozenConstantPool.serialize(), constantPool.serialize());
+        assertEquals(frozenConstantPool.serializedSize(), constantPool.serializedSize());
+        assertSame(frozenConstantPool.freeze(), frozenConstantPool);
+    }
+
+    @Test
+    public void testFreezeBootstrapMethods() {
+        final ConstantPool constantPool = new ConstantPool();
+        final BootstrapMethod unused = new BootstrapMethod(new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC,
+                new ConstantMethodRef("A", "b", "()V")));
+        final BootstrapMethod used = new BootstrapMethod(new ConstantMethodHandle(ReferenceKind.INVOKE_STATIC,
+                new ConstantMethodRef("A", "c", "()V")));
+        final FrozenConstantPool frozenConstantPool;
+        final ByteBuffer expected;
+        final ByteBuffer buffer;
+
+        assertEquals(constantPool.getOrRegisterBootstrapMethod(unused), 0);
+        constantPool.registerConstant(new ConstantInvokeDynamic(used, "d", "()V"));
+        frozenConstantPool = constantPool.freeze();
+        assertEquals(constantPool.getBootstrapMethods().length, 1);
+        constantPool.resolve();
+        expected = ByteBuffer.allocate(constantPool.bootstrapMethodsSize());
+        buffer = ByteBuffer.allocate(frozenConstantPool.bootstrapMethodsSize());
+        constantPool.serializeBootstrapMethods(expected);
+        frozenConstantPool.serializeBootstrapMethods(buffer);
+
+        assertArrayEquals(frozenConstantPool.getBootstrapMethods(), constantPool.getBootstrapMethods());
+        assertEquals(frozenConstantPool.indexOfBootstrapMethod(unused), 0);
+        assertEquals(frozenConstantPool.indexOfBootstrapMethod(used), 1);
+        assertArrayEquals(frozenConstantPool.serialize(), constantPool.serialize());
+        assertArrayEquals(buffer.array(), expected.array());
+    }
+
+    @Test
+    public void testSerialization() {
+        final ConstantPool constantPool = new ConstantPool();
+        final FrozenConstantPool frozenConstantPool;
+        final ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
+        final ByteArrayOutputStream channelOutputStream = new ByteArrayOutputStream();
+        final ByteBuffer buffer;
+
+        assertEquals(constantPool.getOrRegister(new ConstantMethodRef("A", "b", "()V")), 1);
+        frozenConstantPool = constantPool.freeze();
+        buffer = ByteBuffer.allocateDirect(frozenConstantPool.serializedSize());
+        assertDoesNotThrow(() -> frozenConstantPool.serialize(new DataOutputStream(arrayOutputStream)));
+        assertDoesNotThrow(() -> frozenConstantPool.serialize(Channels.newChannel(channelOutputStream)));
+        frozenConstantPool.serialize(buffer);
+
+        assertEquals(buffer.remaining(), 0);
+        assertArrayEquals(arrayOutputStream.toByteArray(), constantPool.serialize());
+        assertArrayEquals(channelOutputStream.toByteArray(), constantPool.serialize());
+    }
+
+    @Test
+    public void testImmutable() {
+        final ConstantPool constantPool = new ConstantPool();
+        final FrozenConstantPool frozenConstantPool;
+        final Iterator<Constant> iterator;
+
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("MrCubee")), 1);
+        frozenConstantPool = constantPool.freeze();
+        iterator = frozenConstantPool.iterator();
+        assertEquals(constantPool.getOrRegister(new ConstantUtf8("Cubee")), 2);
+
+        assertFalse(frozenConstantPool.registerConstant(new ConstantUtf8("Cubee")));
+        assertEquals(frozenConstantPool.getOrRegister(new ConstantUtf8("Cubee")), 0);
+        assertFalse(frozenConstantPool.unRegisterConstant(new ConstantUtf8("MrCubee")));
+        assertThrows(UnsupportedOperationException.class, frozenConstantPool::unRegisterAll);
+        assertEquals(iterator.next(), new ConstantUtf8("MrCubee"));
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        assertEquals(frozenConstantPool.indexOf(new ConstantUtf8("MrCubee")), 1);
+    }
+
+    @Test
+    public void testFreezeClassFile() {
+        final byte[] bytecode = {
+                0, 5, 1, 0, 1, 'A', 7, 0, 1, 1, 0, 1, 'A', 15, 1, 0, 2
+        };
+        final FrozenConstantPool frozenConstantPool = new FrozenConstantPool(
+                new ConstantPoolReader(ByteBuffer.wrap(bytecode)));
+
+        assertEquals(frozenConstantPool.getCount(), 5);
+        assertEquals(frozenConstantPool.getConstants().length, 3);
+        assertEquals(frozenConstantPool.indexOf(new ConstantUtf8("A")), 1);
+        assertEquals(frozenConstantPool.indexOf(new ConstantClass("A")), 2);
+        assertEquals(frozenConstantPool.serializedSize(), bytecode.length);
+        assertArrayEquals(frozenConstantPool.serialize(), bytecode);
+    }
+
+}
@@ -0,0 +1,80 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestModifiedUtf8 {
+
+    @Test
+    public void testAscii() {
+        final String str = "java/lang/Object";
+        final byte[] bytes = ModifiedUtf8.encode(str);
+
+        assertEquals(ModifiedUtf8.encodedLength(str), 16);
+        assertArrayEquals(bytes, str.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(ModifiedUtf8.decode(bytes, 0, bytes.length), str);
+    }
+
+    @Test
+    public void testNullCharacter() {
+        final byte[] bytes = ModifiedUtf8.encode("abc\u0000defg");
+
+        assertArrayEquals(bytes, new byte[] {'a', 'b', 'c', (byte) 0xC0, (byte) 0x80, 'd', 'e', 'f', 'g'});
+        assertEquals(ModifiedUtf8.decode(bytes, 0, bytes.length), "abc\u0000defg");
+    }
+
+    @Test
+    public void testMultiByteCharacters() {
+        final String str = "café € 😀 and some ascii";
+        final byte[] bytes = ModifiedUtf8.encode(str);
+
+        assertEquals(bytes.length, 4 + 1 + 1 + 3 + 1 + 6 + 15);
+        assertEquals(ModifiedUtf8.decode(bytes, 0, bytes.length), str);
+    }
+
+    @Test
+    public void testEncodeBuffer() {
+        final String str = "été java/lang/String";
+        final ByteBuffer heap = ByteBuffer.allocate(64);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(ModifiedUtf8.encodedLength(str));
+        final byte[] bytes = new byte[ModifiedUtf8.encodedLength(str)];
+
+        heap.position(3);
+        ModifiedUtf8.encode(str, heap);
+        ModifiedUtf8.encode(str, direct);
+        direct.flip();
+        direct.get(bytes);
+
+        assertEquals(heap.position(), 3 + bytes.length);
+        assertArrayEquals(bytes, ModifiedUtf8.encode(str));
+        assertTrue(ModifiedUtf8.equals(heap, 3, bytes.length, str));
+        assertFalse(ModifiedUtf8.equals(heap, 3, bytes.length, str + 'a'));
+        assertFalse(ModifiedUtf8.equals(heap, 3, bytes.length - 1, str));
+    }
+
+    @Test
+    public void testMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> ModifiedUtf8.decode(new byte[] {'a', 0}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> ModifiedUtf8.decode(new byte[] {(byte) 0xC3}, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ModifiedUtf8.decode(new byte[] {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80}, 0, 4));
+    }
+
+    @Test
+    public void testTooLong() {
+        final char[] chars = new char[ModifiedUtf8.MAX_LENGTH / 3 + 1];
+
+        Arrays.fill(chars, '€');
+        assertThrows(IllegalArgumentException.class, () -> ModifiedUtf8.encodedLength(new String(chars)));
+    }
+
+}
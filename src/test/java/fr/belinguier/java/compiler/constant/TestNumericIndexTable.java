@@ -0,0 +1,49 @@
+package fr.belinguier.java.compiler.constant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestNumericIndexTable {
+
+    @Test
+    public void testKeys() {
+        final NumericIndexTable table = new NumericIndexTable();
+
+        table.put(new ConstantInteger(1), 1);
+        table.put(new ConstantFloat(Float.intBitsToFloat(1)), 2);
+        table.put(new ConstantLong(1), 3);
+        table.put(new ConstantDouble(0.0), 5);
+        table.put(new ConstantDouble(-0.0), 7);
+        table.put(new ConstantDouble(Double.longBitsToDouble(0x7FF8000000000001L)), 9);
+
+        assertEquals(table.size(), 6);
+        assertEquals(table.get(new ConstantInteger(1)), 1);
+        assertEquals(table.get(new ConstantFloat(Float.intBitsToFloat(1))), 2);
+        assertEquals(table.get(new ConstantLong(1)), 3);
+        assertEquals(table.get(new ConstantDouble(0.0)), 5);
+        assertEquals(table.get(new ConstantDouble(-0.0)), 7);
+        assertEquals(table.get(new ConstantDouble(Double.longBitsToDouble(0x7FF8000000000001L))), 9);
+        assertEquals(table.get(new ConstantDouble(Double.NaN)), 0);
+        assertEquals(table.get(new ConstantInteger(2)), 0);
+    }
+
+    @Test
+    public void testGrowAndRemove() {
+        final NumericIndexTable table = new NumericIndexTable();
+
+        for (int i = 0; i < 10000; i++)
+            table.put(new ConstantLong(i * 0x100000001L), i + 1);
+        for (int i = 0; i < 10000; i += 2)
+            assertEquals(table.remove(new ConstantLong(i * 0x100000001L)), i + 1);
+
+        assertEquals(table.size(), 5000);
+        assertEquals(table.remove(new ConstantLong(0)), 0);
+        for (int i = 0; i < 10000; i++)
+            assertEquals(table.get(new ConstantLong(i * 0x100000001L)), (i % 2 == 0) ? 0 : i + 1);
+        table.clear();
+        assertEquals(table.size(), 0);
+        assertEquals(table.get(new ConstantLong(0x100000001L)), 0);
+    }
+
+}